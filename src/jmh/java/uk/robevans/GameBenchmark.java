@@ -0,0 +1,48 @@
+package uk.robevans;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class GameBenchmark {
+
+    @Param({"10", "100", "1000", "4000"})
+    int size;
+
+    private RandomPointGenerator pointGenerator;
+    private Game game;
+    private Game cachedGame;
+
+    @Setup
+    public void setUp() {
+        pointGenerator = new RandomPointGenerator();
+        game = new Game(size, size, pointGenerator);
+        cachedGame = new Game(size, size, 1L, MazeAlgorithm.PRIM, new MazeCache(64L << 20));
+        cachedGame.createAMaze();
+    }
+
+    @Benchmark
+    public Game construct() {
+        return new Game(size, size, pointGenerator);
+    }
+
+    @Benchmark
+    public Maze createAMaze() {
+        return game.createAMaze();
+    }
+
+    @Benchmark
+    public Maze createACachedMaze() {
+        return cachedGame.createAMaze();
+    }
+}
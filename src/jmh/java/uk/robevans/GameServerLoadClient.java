@@ -0,0 +1,151 @@
+package uk.robevans;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Plays many sessions against a {@link GameServer} over loopback at once, each on its own virtual thread, and
+ * reports moves per second and round trip latency percentiles. With no port given it starts its own server on
+ * a random maze.
+ * <pre>
+ *   java -cp build/libs/test-1.0-SNAPSHOT-jmh.jar uk.robevans.GameServerLoadClient [sessions] [moves] [mazeSize] [port]
+ * </pre>
+ * Latencies are counted in power of two buckets of nanoseconds, so percentiles are upper bounds within a factor
+ * of two - plenty to see whether a change moves the tail.
+ */
+public class GameServerLoadClient {
+
+    private static final byte[][] MOVES = new byte[Direction.VALUES.length][];
+
+    static {
+        for (Direction direction : Direction.VALUES) {
+            MOVES[direction.ordinal()] = (direction.name() + "\n").getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private final int port;
+    private final int moves;
+    private final AtomicLongArray latencyBuckets = new AtomicLongArray(64);
+    private final LongAdder completedMoves = new LongAdder();
+    private final LongAdder failedSessions = new LongAdder();
+
+    GameServerLoadClient(int port, int moves) {
+        this.port = port;
+        this.moves = moves;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int moves = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int mazeSize = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+
+        GameServer server = null;
+        int port;
+        if (args.length > 3) {
+            port = Integer.parseInt(args[3]);
+        } else {
+            Maze maze = new KruskalMazeGenerator().generate(mazeSize, mazeSize);
+            server = new GameServer(new Game(mazeSize, mazeSize, new RandomPointGenerator()), maze, 0);
+            port = server.getPort();
+        }
+        try {
+            new GameServerLoadClient(port, moves).run(sessions);
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+
+    void run(int sessions) throws InterruptedException {
+        CountDownLatch finished = new CountDownLatch(sessions);
+        long start = System.nanoTime();
+        try (ExecutorService players = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < sessions; i++) {
+                players.execute(() -> {
+                    try {
+                        play();
+                    } catch (IOException e) {
+                        failedSessions.increment();
+                    } finally {
+                        finished.countDown();
+                    }
+                });
+            }
+            finished.await();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        long total = completedMoves.sum();
+        System.out.printf("%d sessions (%d failed), %d moves in %.2fs: %.0f moves/s%n", sessions,
+                failedSessions.sum(), total, elapsed / 1e9, total / (elapsed / 1e9));
+        System.out.printf("round trip p50 <= %dus, p99 <= %dus, p99.9 <= %dus%n",
+                percentile(0.5) / 1000, percentile(0.99) / 1000, percentile(0.999) / 1000);
+    }
+
+    private void play() throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            socket.setTcpNoDelay(true);
+            InputStream in = socket.getInputStream();
+            OutputStream out = socket.getOutputStream();
+            byte[] reply = new byte[64];
+            readLine(in, reply);
+
+            MazeRandom random = MazeRandom.unseeded();
+            for (int move = 0; move < moves; move++) {
+                long sent = System.nanoTime();
+                out.write(MOVES[random.nextInt(MOVES.length)]);
+                out.flush();
+                readLine(in, reply);
+                long latency = System.nanoTime() - sent;
+                latencyBuckets.incrementAndGet(63 - Long.numberOfLeadingZeros(Math.max(1, latency)));
+                completedMoves.increment();
+            }
+            out.write("QUIT\n".getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            readLine(in, reply);
+        }
+    }
+
+    /**
+     * Reads one reply. Only one command is ever outstanding, so everything that arrives belongs to it.
+     */
+    private static void readLine(InputStream in, byte[] buffer) throws IOException {
+        int length = 0;
+        do {
+            int read = in.read(buffer, length, buffer.length - length);
+            if (read < 0) {
+                throw new IOException("The server hung up");
+            }
+            length += read;
+        } while (buffer[length - 1] != '\n');
+    }
+
+    /**
+     * @return the top of the latency bucket the given fraction of round trips fell into, in nanoseconds
+     */
+    private long percentile(double fraction) {
+        long total = 0;
+        for (int bucket = 0; bucket < latencyBuckets.length(); bucket++) {
+            total += latencyBuckets.get(bucket);
+        }
+        long wanted = (long) Math.ceil(total * fraction);
+        long seen = 0;
+        for (int bucket = 0; bucket < latencyBuckets.length(); bucket++) {
+            seen += latencyBuckets.get(bucket);
+            if (seen >= wanted && seen > 0) {
+                return (2L << bucket) - 1;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,36 @@
+package uk.robevans;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MazeGeneratorBenchmark {
+
+    @Param({"10", "100", "1000", "4000"})
+    int size;
+
+    @Param({"PRIM", "KRUSKAL", "WILSON", "RECURSIVE_BACKTRACKER", "ELLER", "TILED"})
+    MazeAlgorithm algorithm;
+
+    private MazeGenerator generator;
+
+    @Setup
+    public void setUp() {
+        generator = algorithm.newGenerator();
+    }
+
+    @Benchmark
+    public Maze generate() {
+        return generator.generate(size, size);
+    }
+}
@@ -0,0 +1,81 @@
+package uk.robevans;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders a maze with the solution from corner to corner drawn over it into a channel that throws the bytes away,
+ * so only the drawing and encoding is timed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MazeRendererBenchmark {
+
+    @Param({"100", "1000", "2000"})
+    int size;
+
+    @Param({"ASCII", "UNICODE", "PPM", "PNG"})
+    MazeRenderer.Format format;
+
+    private Maze maze;
+    private MazeRenderer renderer;
+    private final CountingChannel channel = new CountingChannel();
+
+    @Setup
+    public void setUp() {
+        maze = new KruskalMazeGenerator().generate(size, size);
+        MazeSolver solver = new MazeSolver(maze);
+        solver.solve(0, maze.getCellCount() - 1);
+        renderer = new MazeRenderer();
+        renderer.setScale(1);
+        renderer.setPath(solver.getPath(), solver.getPathLength());
+        renderer.setMouse(0);
+        renderer.setCheese(maze.getCellCount() - 1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        renderer.close();
+    }
+
+    @Benchmark
+    public long render() throws IOException {
+        channel.written = 0;
+        renderer.render(maze, format, channel);
+        return channel.written;
+    }
+
+    private static class CountingChannel implements WritableByteChannel {
+        long written;
+
+        @Override
+        public int write(ByteBuffer source) {
+            int length = source.remaining();
+            source.position(source.limit());
+            written += length;
+            return length;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package uk.robevans;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Solves from the top left corner to the bottom right, which in a perfect maze crosses most of the grid.
+ * The weighted solver runs over the same perfect maze, and over a braided copy with loops, one-way passages
+ * and weights up to 16.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MazeSolverBenchmark {
+
+    @Param({"10", "100", "1000", "4000"})
+    int size;
+
+    private MazeSolver solver;
+    private MazeTreeIndex treeIndex;
+    private WeightedMazeSolver weightedSolver;
+    private WeightedMazeSolver braidedSolver;
+    private int goal;
+
+    @Setup
+    public void setUp() {
+        Maze maze = new PrimMazeGenerator().generate(size, size);
+        solver = new MazeSolver(maze);
+        treeIndex = new MazeTreeIndex(maze);
+        weightedSolver = new WeightedMazeSolver(DirectedMaze.of(maze));
+        braidedSolver = new WeightedMazeSolver(new MazeBraider(0.5, 0.3, 16).braid(maze, MazeRandom.seeded(1)));
+        goal = maze.getCellCount() - 1;
+    }
+
+    @Benchmark
+    public int aStar() {
+        return solver.solve(0, goal);
+    }
+
+    @Benchmark
+    public int treeDistance() {
+        return treeIndex.distance(0, goal);
+    }
+
+    @Benchmark
+    public int bucketAStar() {
+        return weightedSolver.solve(0, goal);
+    }
+
+    @Benchmark
+    public int braidedBucketAStar() {
+        return braidedSolver.solve(0, goal);
+    }
+}
@@ -0,0 +1,93 @@
+package uk.robevans;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.awt.Point;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SpanningTreeBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Grid {
+
+        @Param({"10", "100", "1000", "4000"})
+        int size;
+
+        SpanningTree spanningTree;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            spanningTree = new SpanningTree();
+            spanningTree.init(size, size);
+        }
+    }
+
+    /**
+     * visit() records every unvisited neighbour as a Point, so visiting every cell of the largest grids
+     * would measure the garbage collector rather than the visit itself.
+     */
+    @State(Scope.Benchmark)
+    public static class VisitGrid {
+
+        @Param({"10", "100", "1000"})
+        int size;
+
+        SpanningTree spanningTree;
+        Point[] points;
+
+        @Setup(Level.Trial)
+        public void setUpPoints() {
+            points = new Point[size * size];
+            for (int row = 0; row < size; row++) {
+                for (int col = 0; col < size; col++) {
+                    points[row * size + col] = new Point(col, row);
+                }
+            }
+            spanningTree = new SpanningTree();
+        }
+
+        @Setup(Level.Invocation)
+        public void setUpTree() {
+            spanningTree.init(size, size);
+            spanningTree.initEdgeMap();
+        }
+    }
+
+    @Benchmark
+    public GridGraph initEdgeMap(Grid grid) {
+        grid.spanningTree.initEdgeMap();
+        return grid.spanningTree.getGraph();
+    }
+
+    /**
+     * The corner and edge checks and per-cell direction lists {@link #initEdgeMap} replaced, for comparison.
+     */
+    @Benchmark
+    public GridGraph initEdgeMapCellByCell(Grid grid) {
+        grid.spanningTree.initEdgeMapCellByCell();
+        return grid.spanningTree.getGraph();
+    }
+
+    @Benchmark
+    public SpanningTree build(Grid grid) {
+        return new SpanningTree().build(grid.size, grid.size);
+    }
+
+    @Benchmark
+    public SpanningTree visitEveryCell(VisitGrid grid) {
+        for (Point point : grid.points) {
+            grid.spanningTree.visit(point);
+        }
+        return grid.spanningTree;
+    }
+}
@@ -0,0 +1,60 @@
+package uk.robevans;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.awt.Point;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One tick of 100k moves spread over the players of ten 200x200 mazes. Scores are in moves per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TickEngineBenchmark {
+
+    private static final int MOVES_PER_TICK = 100_000;
+
+    @Param({"1000", "100000"})
+    int players;
+
+    private TickEngine engine;
+    private int[] movePlayers;
+    private Direction[] moveDirections;
+
+    @Setup
+    public void setUp() {
+        MazeRandom random = MazeRandom.seeded(1L);
+        Maze[] mazes = new Maze[10];
+        for (int i = 0; i < mazes.length; i++) {
+            mazes[i] = new KruskalMazeGenerator().generate(200, 200, random);
+        }
+        engine = new TickEngine();
+        for (int player = 0; player < players; player++) {
+            engine.addPlayer(mazes[player % mazes.length], new Point(random.nextInt(200), random.nextInt(200)));
+        }
+        movePlayers = new int[MOVES_PER_TICK];
+        moveDirections = new Direction[MOVES_PER_TICK];
+        for (int move = 0; move < MOVES_PER_TICK; move++) {
+            movePlayers[move] = random.nextInt(players);
+            moveDirections[move] = Direction.VALUES[random.nextInt(4)];
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MOVES_PER_TICK)
+    public TickEngine.Snapshot submitAndTick() {
+        for (int move = 0; move < MOVES_PER_TICK; move++) {
+            engine.submit(movePlayers[move], moveDirections[move]);
+        }
+        return engine.tick();
+    }
+}
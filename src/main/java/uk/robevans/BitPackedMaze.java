@@ -0,0 +1,58 @@
+package uk.robevans;
+
+/**
+ * The shared layout of the compact mazes: two bits per cell, one for an open passage to the RIGHT and one for
+ * an open passage DOWN, 32 cells to a long. The UP and LEFT passages of a cell are read from the neighbouring cell.
+ * Subclasses only decide where the longs live.
+ */
+abstract class BitPackedMaze implements Maze {
+
+    static final int RIGHT_BIT = 0;
+    static final int DOWN_BIT = 1;
+
+    final int width;
+    final int height;
+
+    BitPackedMaze(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    abstract long passageWord(int wordIndex);
+
+    static int wordCount(long cellCount) {
+        return (int) ((cellCount + 31) >>> 5);
+    }
+
+    static long passageMask(int cell, int bit) {
+        return 1L << (((cell & 31) << 1) + bit);
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public boolean isOpen(int cell, Direction direction) {
+        switch (direction) {
+            case UP:
+                return cell >= width && passageBit(cell - width, DOWN_BIT);
+            case DOWN:
+                return passageBit(cell, DOWN_BIT);
+            case LEFT:
+                return cell % width != 0 && passageBit(cell - 1, RIGHT_BIT);
+            default:
+                return passageBit(cell, RIGHT_BIT);
+        }
+    }
+
+    private boolean passageBit(int cell, int bit) {
+        return (passageWord(cell >>> 5) & passageMask(cell, bit)) != 0;
+    }
+}
@@ -0,0 +1,141 @@
+package uk.robevans;
+
+import java.util.Arrays;
+
+/**
+ * A monotone priority queue of int indexes for searches whose priorities only ever creep forward by small steps -
+ * Dial's bucket queue. There is one bucket per priority over a window just wider than the largest step, used
+ * round and round, and each bucket is a doubly linked list threaded through per-index arrays. Insert,
+ * decrease-key and removal are O(1), and polling walks forward over at most the width of the window,
+ * with no comparisons and no sifting.
+ * <p>
+ * A priority inserted or lowered to must be no lower than the last one polled, and no more than
+ * {@code maxStep} above it, though an empty queue takes any priority and starts afresh from there.
+ * Dijkstra's search keeps to that with a step of the heaviest edge; A* with a consistent heuristic does too,
+ * with a step of the heaviest edge plus the most the heuristic can fall by.
+ * Equal priorities come out last in, first out, which suits A* as it goes deep on ties.
+ */
+final class BucketQueue {
+
+    private static final int NONE = -1;
+    private static final int NOT_QUEUED = -2;
+
+    private final int[] heads;
+    private final int mask;
+    private final int[] next;
+    private final int[] previous;
+    private final int[] priorities;
+    private int size;
+    private int current;
+
+    BucketQueue(int capacity, int maxStep) {
+        int buckets = Integer.highestOneBit(maxStep) << 1;
+        this.heads = new int[buckets];
+        this.mask = buckets - 1;
+        this.next = new int[capacity];
+        this.previous = new int[capacity];
+        this.priorities = new int[capacity];
+        Arrays.fill(heads, NONE);
+        Arrays.fill(previous, NOT_QUEUED);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    boolean contains(int index) {
+        return previous[index] != NOT_QUEUED;
+    }
+
+    int priorityOf(int index) {
+        return priorities[index];
+    }
+
+    void insert(int index, int priority) {
+        if (contains(index)) {
+            throw new IllegalStateException("Index " + index + " is already in the queue");
+        }
+        if (priority < current || priority - current > mask) {
+            if (size > 0) {
+                throw new IllegalArgumentException("Priority " + priority + " is outside the window starting at " + current);
+            }
+            // nothing is queued, so the window can simply move to wherever the new search starts
+            current = priority;
+        }
+        link(index, priority);
+        size++;
+    }
+
+    /**
+     * Lowers the priority of an index that is already queued. Higher priorities are ignored.
+     */
+    void decreaseKey(int index, int priority) {
+        if (priority >= priorities[index]) {
+            return;
+        }
+        if (priority < current) {
+            throw new IllegalArgumentException("Priority " + priority + " is below the last one polled, " + current);
+        }
+        unlink(index);
+        link(index, priority);
+    }
+
+    /**
+     * @return the index with the lowest priority, which is taken out of the queue
+     */
+    int pollMin() {
+        if (size == 0) {
+            throw new IllegalStateException("The queue is empty");
+        }
+        while (heads[current & mask] == NONE) {
+            current++;
+        }
+        int index = heads[current & mask];
+        unlink(index);
+        previous[index] = NOT_QUEUED;
+        size--;
+        return index;
+    }
+
+    /**
+     * Empties the queue in time proportional to the buckets and what was left in them, not to the capacity.
+     */
+    void clear() {
+        for (int bucket = 0; bucket < heads.length; bucket++) {
+            for (int index = heads[bucket]; index != NONE; index = next[index]) {
+                previous[index] = NOT_QUEUED;
+            }
+            heads[bucket] = NONE;
+        }
+        size = 0;
+    }
+
+    private void link(int index, int priority) {
+        int bucket = priority & mask;
+        int head = heads[bucket];
+        priorities[index] = priority;
+        next[index] = head;
+        previous[index] = NONE;
+        if (head != NONE) {
+            previous[head] = index;
+        }
+        heads[bucket] = index;
+    }
+
+    private void unlink(int index) {
+        int before = previous[index];
+        int after = next[index];
+        if (before == NONE) {
+            heads[priorities[index] & mask] = after;
+        } else {
+            next[before] = after;
+        }
+        if (after != NONE) {
+            previous[after] = before;
+        }
+    }
+}
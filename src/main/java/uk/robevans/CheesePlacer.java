@@ -0,0 +1,126 @@
+package uk.robevans;
+
+import java.awt.Point;
+import java.util.Arrays;
+
+/**
+ * Hides the cheese somewhere the mouse can reach but at least a quarter of the maze's larger dimension away from it.
+ * One breadth first search from the mouse visits every reachable cell exactly once, and each cell far enough away
+ * takes its turn in a reservoir sample of size one, so the cheese ends up uniformly at random among all qualifying
+ * cells in a single O(cells) pass. There is no picking a random cell and trying again, so placement takes the same
+ * time however few cells qualify.
+ * <p>
+ * Distance is either the straight line from the mouse, as the README describes, or the number of moves through
+ * the maze, which makes for a longer chase. If nothing reachable is far enough - only possible in mazes with
+ * closed off areas - the cheese goes in the farthest reachable cell instead.
+ * <p>
+ * The queue and distance arrays are allocated once per placer and reused; a placer is not thread safe.
+ */
+public class CheesePlacer {
+
+    public enum DistanceRule {
+        EUCLIDEAN,
+        MAZE
+    }
+
+    private static final int UNREACHED = -1;
+
+    private final Maze maze;
+    private final DistanceRule rule;
+    private final int width;
+    private final double minimumDistance;
+    private final int[] queue;
+    private final int[] distances;
+
+    public CheesePlacer(Maze maze) {
+        this(maze, DistanceRule.EUCLIDEAN);
+    }
+
+    public CheesePlacer(Maze maze, DistanceRule rule) {
+        this.maze = maze;
+        this.rule = rule;
+        this.width = maze.getWidth();
+        this.minimumDistance = Math.max(maze.getWidth(), maze.getHeight()) / 4.0;
+        this.queue = new int[maze.getCellCount()];
+        this.distances = new int[maze.getCellCount()];
+        Arrays.fill(distances, UNREACHED);
+    }
+
+    /**
+     * @return whether this placer hides cheese in that very maze under that rule
+     */
+    boolean isFor(Maze maze, DistanceRule rule) {
+        return this.maze == maze && this.rule == rule;
+    }
+
+    public double getMinimumDistance() {
+        return minimumDistance;
+    }
+
+    public Point place(Point mouseLocation, MazeRandom random) {
+        int cell = place(maze.index(mouseLocation.x, mouseLocation.y), random);
+        return new Point(cell % width, cell / width);
+    }
+
+    /**
+     * @return the cell to put the cheese in
+     */
+    public int place(int mouseCell, MazeRandom random) {
+        Arrays.fill(distances, UNREACHED);
+        int mouseX = mouseCell % width;
+        int mouseY = mouseCell / width;
+        double minimumSquared = minimumDistance * minimumDistance;
+        int minimumMoves = (int) Math.ceil(minimumDistance);
+
+        int chosen = -1;
+        int qualifying = 0;
+        int farthest = mouseCell;
+        long farthestMeasure = 0;
+
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = mouseCell;
+        distances[mouseCell] = 0;
+        while (head < tail) {
+            int cell = queue[head++];
+            int distance = distances[cell];
+
+            long measure;
+            boolean farEnough;
+            if (rule == DistanceRule.MAZE) {
+                measure = distance;
+                farEnough = distance >= minimumMoves;
+            } else {
+                long dx = cell % width - mouseX;
+                long dy = cell / width - mouseY;
+                measure = dx * dx + dy * dy;
+                farEnough = measure >= minimumSquared;
+            }
+            if (farEnough && cell != mouseCell && random.nextInt(++qualifying) == 0) {
+                chosen = cell;
+            }
+            if (measure > farthestMeasure) {
+                farthestMeasure = measure;
+                farthest = cell;
+            }
+
+            for (Direction direction : Direction.VALUES) {
+                if (maze.isOpen(cell, direction)) {
+                    int neighbour = cell + direction.yOffset * width + direction.xOffset;
+                    if (distances[neighbour] == UNREACHED) {
+                        distances[neighbour] = distance + 1;
+                        queue[tail++] = neighbour;
+                    }
+                }
+            }
+        }
+        return chosen >= 0 ? chosen : farthest;
+    }
+
+    /**
+     * @return the number of moves from the mouse to the cell found by the last placement, or -1 if it could not be reached
+     */
+    public int getMazeDistance(int cell) {
+        return distances[cell];
+    }
+}
@@ -0,0 +1,197 @@
+package uk.robevans;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An open world maze over any int x and y, negatives included, of which only the chunks someone has looked at are ever
+ * generated. The only edges are at the ends of the int range, which are walled off rather than wrapping round, so a
+ * mouse can't step from {@code Integer.MAX_VALUE} to {@code Integer.MIN_VALUE}. The world is cut into square chunks,
+ * each a perfect maze of its own carved from a seed mixed from the world seed and the chunk's coordinates, so a chunk
+ * comes out the same every time it is generated, wherever the mice are and whichever order they arrive in.
+ * <p>
+ * Neighbouring chunks are joined by a single door in the wall between them, at a place worked out from the world
+ * seed and that wall alone, so the two chunks always agree on it and neither has to be loaded to know where it is.
+ * Each chunk is connected inside and every chunk has a door to each of its four neighbours, so the whole world is
+ * connected, though with loops at the scale of chunks.
+ * <p>
+ * Chunks are kept in an LRU bounded by bytes, as {@link MazeCache} keeps whole mazes. An evicted chunk costs
+ * nothing to lose as it is simply carved again, identically, the next time it is wanted. Chunks are read only once
+ * made, so they can be handed out to any number of threads.
+ */
+public class ChunkedWorld {
+
+    public static final int DEFAULT_CHUNK_SIZE = 64;
+
+    // roughly what the key, the map entry and the maze object cost on top of the passage words themselves
+    private static final long ENTRY_OVERHEAD_BYTES = 128;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final int RIGHT_WALL = 1;
+    private static final int BOTTOM_WALL = 2;
+
+    private final long seed;
+    private final int chunkSize;
+    private final int chunkShift;
+    private final int chunkMask;
+    private final MazeGenerator generator;
+    private final long chunkBytes;
+    private final int maxChunks;
+    // in access order, so iteration starts from the least recently used chunk
+    private final LinkedHashMap<Long, PackedMaze> chunks = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder generated = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ChunkedWorld(long seed, long maxBytes) {
+        this(seed, DEFAULT_CHUNK_SIZE, MazeAlgorithm.KRUSKAL, maxBytes);
+    }
+
+    /**
+     * @param chunkSize the width and height of a chunk, a power of two from 2 up
+     * @param maxBytes  how much the loaded chunks may take up between them - at least one chunk's worth
+     */
+    public ChunkedWorld(long seed, int chunkSize, MazeAlgorithm algorithm, long maxBytes) {
+        if (chunkSize < 2 || Integer.bitCount(chunkSize) != 1) {
+            throw new IllegalArgumentException("Chunks must be a power of two cells across, not " + chunkSize);
+        }
+        this.seed = seed;
+        this.chunkSize = chunkSize;
+        this.chunkShift = Integer.numberOfTrailingZeros(chunkSize);
+        this.chunkMask = chunkSize - 1;
+        this.generator = algorithm.newGenerator();
+        this.chunkBytes = ENTRY_OVERHEAD_BYTES + 8L * BitPackedMaze.wordCount((long) chunkSize * chunkSize);
+        if (maxBytes < chunkBytes) {
+            throw new IllegalArgumentException("A " + chunkSize + "x" + chunkSize + " chunk takes " + chunkBytes
+                    + " bytes, more than the " + maxBytes + " allowed");
+        }
+        this.maxChunks = (int) Math.min(Integer.MAX_VALUE, maxBytes / chunkBytes);
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * @return whether the mouse can step from the cell that way, generating the cell's chunk if it isn't loaded
+     */
+    public boolean isOpen(int x, int y, Direction direction) {
+        return isOpen(chunk(chunkOf(x), chunkOf(y)), x, y, direction);
+    }
+
+    /**
+     * As {@link #isOpen(int, int, Direction)}, for callers already holding the cell's chunk.
+     */
+    boolean isOpen(PackedMaze chunk, int x, int y, Direction direction) {
+        int localX = x & chunkMask;
+        int localY = y & chunkMask;
+        switch (direction) {
+            case UP:
+                if (localY == 0) {
+                    return y != Integer.MIN_VALUE && isDoor(chunkOf(x), chunkOf(y) - 1, BOTTOM_WALL, localX);
+                }
+                break;
+            case DOWN:
+                if (localY == chunkMask) {
+                    return y != Integer.MAX_VALUE && isDoor(chunkOf(x), chunkOf(y), BOTTOM_WALL, localX);
+                }
+                break;
+            case LEFT:
+                if (localX == 0) {
+                    return x != Integer.MIN_VALUE && isDoor(chunkOf(x) - 1, chunkOf(y), RIGHT_WALL, localY);
+                }
+                break;
+            default:
+                if (localX == chunkMask) {
+                    return x != Integer.MAX_VALUE && isDoor(chunkOf(x), chunkOf(y), RIGHT_WALL, localY);
+                }
+                break;
+        }
+        return chunk.isOpen((localY << chunkShift) | localX, direction);
+    }
+
+    int chunkOf(int coordinate) {
+        // an arithmetic shift rounds down, so the cells just left of or above 0 land in chunk -1
+        return coordinate >> chunkShift;
+    }
+
+    /**
+     * @return the chunk at those chunk coordinates, generating it if it isn't loaded
+     */
+    PackedMaze chunk(int chunkX, int chunkY) {
+        Long key = ((long) chunkX << 32) | (chunkY & 0xFFFFFFFFL);
+        synchronized (this) {
+            PackedMaze chunk = chunks.get(key);
+            if (chunk != null) {
+                hits.increment();
+                return chunk;
+            }
+        }
+        // carved outside the lock; two threads racing for the same chunk carve identical copies and one is kept
+        PackedMaze carved = PackedMaze.of(generator.generate(chunkSize, chunkSize,
+                MazeRandom.seeded(mix(chunkX, chunkY, 0))));
+        generated.increment();
+        synchronized (this) {
+            PackedMaze existing = chunks.putIfAbsent(key, carved);
+            if (existing != null) {
+                return existing;
+            }
+            Iterator<Map.Entry<Long, PackedMaze>> eldest = chunks.entrySet().iterator();
+            while (chunks.size() > maxChunks) {
+                eldest.next();
+                eldest.remove();
+                evictions.increment();
+            }
+            return carved;
+        }
+    }
+
+    private boolean isDoor(int chunkX, int chunkY, int wall, int offset) {
+        return (int) (mix(chunkX, chunkY, wall) >>> 32 & chunkMask) == offset;
+    }
+
+    /**
+     * Folds the chunk's coordinates and a salt into the world seed one at a time with SplitMix64's finaliser, so
+     * neighbouring chunks and the walls between them get unrelated values.
+     */
+    private long mix(int chunkX, int chunkY, int salt) {
+        long z = finalise(seed + GOLDEN_GAMMA * chunkX);
+        z = finalise(z + GOLDEN_GAMMA * chunkY);
+        return finalise(z + GOLDEN_GAMMA * salt);
+    }
+
+    private static long finalise(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    public synchronized int getLoadedChunkCount() {
+        return chunks.size();
+    }
+
+    public int getMaxChunks() {
+        return maxChunks;
+    }
+
+    public synchronized long getSizeInBytes() {
+        return chunks.size() * chunkBytes;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return how many times a chunk has been carved, counting chunks carved again after being evicted
+     */
+    public long getGeneratedCount() {
+        return generated.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+}
@@ -0,0 +1,132 @@
+package uk.robevans;
+
+import java.util.Arrays;
+
+/**
+ * A maze whose passages can go one way only and cost more than one move to walk down. Every cell keeps its own
+ * four exits, one bit per {@link Direction} in a byte, so the way from a cell to its neighbour can be open while
+ * the way back is shut - unlike {@link PackedMaze}, where the two cells share a single wall bit.
+ * {@link #isOpen(int, Direction)} answers whether the mouse can leave the cell that way, which is all the
+ * players and solvers ever ask.
+ * <p>
+ * Weights are kept per exit, from 1 to {@link #MAX_WEIGHT}, and cost nothing until the first one is set other
+ * than 1. A million cell maze takes 1MB for its exits and another 4MB once it is weighted.
+ * Like the other mazes, it is only written to while it is being built.
+ */
+public final class DirectedMaze implements Maze {
+
+    public static final int MAX_WEIGHT = 255;
+
+    private final int width;
+    private final int height;
+    private final byte[] exits;
+    private byte[] weights;
+    private int maxWeight = 1;
+
+    DirectedMaze(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.exits = new byte[width * height];
+    }
+
+    /**
+     * @return a copy of the maze with every passage open both ways and a weight of 1
+     */
+    public static DirectedMaze of(Maze maze) {
+        DirectedMaze directed = new DirectedMaze(maze.getWidth(), maze.getHeight());
+        for (int cell = 0; cell < directed.exits.length; cell++) {
+            if (maze.isOpen(cell, Direction.RIGHT)) {
+                directed.open(cell, Direction.RIGHT);
+            }
+            if (maze.isOpen(cell, Direction.DOWN)) {
+                directed.open(cell, Direction.DOWN);
+            }
+        }
+        return directed;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public boolean isOpen(int cell, Direction direction) {
+        return (exits[cell] & (1 << direction.ordinal())) != 0;
+    }
+
+    /**
+     * @return true when the mouse can leave the cell that way but could not come back
+     */
+    public boolean isOneWay(int cell, Direction direction) {
+        return isOpen(cell, direction) && !isOpen(step(cell, direction), direction.opposite());
+    }
+
+    /**
+     * @return the cost of leaving the cell that way, which only means anything if the exit is open
+     */
+    public int getWeight(int cell, Direction direction) {
+        return weight(cell, direction.ordinal());
+    }
+
+    /**
+     * @return no less than the heaviest weight in the maze
+     */
+    public int getMaxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * @return the open exits of a cell as a bit mask indexed by {@link Direction#ordinal()}
+     */
+    int exits(int cell) {
+        return exits[cell];
+    }
+
+    int weight(int cell, int directionOrdinal) {
+        return weights == null ? 1 : weights[(cell << 2) | directionOrdinal] & 0xFF;
+    }
+
+    /**
+     * Opens the passage both ways. Callers make sure the neighbour is on the grid.
+     */
+    void open(int cell, Direction direction) {
+        openOneWay(cell, direction);
+        openOneWay(step(cell, direction), direction.opposite());
+    }
+
+    void openOneWay(int cell, Direction direction) {
+        exits[cell] = (byte) (exits[cell] | 1 << direction.ordinal());
+    }
+
+    /**
+     * Shuts the way out of the cell in that direction, leaving the way back in as it was.
+     */
+    void closeOneWay(int cell, Direction direction) {
+        exits[cell] = (byte) (exits[cell] & ~(1 << direction.ordinal()));
+    }
+
+    void setWeight(int cell, Direction direction, int weight) {
+        if (weight < 1 || weight > MAX_WEIGHT) {
+            throw new IllegalArgumentException("Weights run from 1 to " + MAX_WEIGHT + ", not " + weight);
+        }
+        if (weights == null) {
+            if (weight == 1) {
+                return;
+            }
+            weights = new byte[exits.length << 2];
+            Arrays.fill(weights, (byte) 1);
+        }
+        weights[(cell << 2) | direction.ordinal()] = (byte) weight;
+        maxWeight = Math.max(maxWeight, weight);
+    }
+
+    private int step(int cell, Direction direction) {
+        return cell + direction.yOffset * width + direction.xOffset;
+    }
+}
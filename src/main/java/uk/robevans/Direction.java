@@ -6,6 +6,9 @@ public enum Direction {
     LEFT(-1, 0),
     RIGHT(1, 0);
 
+    // values() clones its array on every call, so hot loops iterate this shared copy instead
+    static final Direction[] VALUES = values();
+
     int xOffset;
     int yOffset;
 
@@ -13,4 +16,17 @@ public enum Direction {
         this.xOffset = xOffset;
         this.yOffset = yOffset;
     }
+
+    Direction opposite() {
+        switch (this) {
+            case UP:
+                return DOWN;
+            case DOWN:
+                return UP;
+            case LEFT:
+                return RIGHT;
+            default:
+                return LEFT;
+        }
+    }
 }
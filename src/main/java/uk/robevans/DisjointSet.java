@@ -0,0 +1,58 @@
+package uk.robevans;
+
+/**
+ * Union-find over the int indexes 0..size-1, with union by rank and path halving so that
+ * find and union run in effectively constant amortised time.
+ */
+public class DisjointSet {
+
+    private final int[] parents;
+    private final byte[] ranks;
+    private int setCount;
+
+    public DisjointSet(int size) {
+        this.parents = new int[size];
+        this.ranks = new byte[size];
+        for (int i = 0; i < size; i++) {
+            parents[i] = i;
+        }
+        this.setCount = size;
+    }
+
+    public int find(int index) {
+        while (parents[index] != index) {
+            parents[index] = parents[parents[index]];
+            index = parents[index];
+        }
+        return index;
+    }
+
+    /**
+     * @return true if the two indexes were in different sets and have now been joined
+     */
+    public boolean union(int first, int second) {
+        int firstRoot = find(first);
+        int secondRoot = find(second);
+        if (firstRoot == secondRoot) {
+            return false;
+        }
+        if (ranks[firstRoot] < ranks[secondRoot]) {
+            parents[firstRoot] = secondRoot;
+        } else if (ranks[firstRoot] > ranks[secondRoot]) {
+            parents[secondRoot] = firstRoot;
+        } else {
+            parents[secondRoot] = firstRoot;
+            ranks[firstRoot]++;
+        }
+        setCount--;
+        return true;
+    }
+
+    public boolean connected(int first, int second) {
+        return find(first) == find(second);
+    }
+
+    public int getSetCount() {
+        return setCount;
+    }
+}
@@ -0,0 +1,185 @@
+package uk.robevans;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * Eller's algorithm, which builds a perfect maze one row at a time and only ever remembers which set each
+ * cell of the current row belongs to. Memory is O(width) however many rows are streamed, which is what makes
+ * mazes millions of rows tall (or endless ones) possible.
+ * <p>
+ * For each row, neighbouring cells in different sets are randomly joined, then every set is carried down into
+ * the next row through at least one opening. The last row joins every remaining set so the maze is connected.
+ * Sets are labelled by the column of their first cell in the row, so labels always fit in [0, width).
+ */
+public class EllerMazeGenerator implements MazeGenerator {
+
+    public static final long ENDLESS = Long.MAX_VALUE;
+
+    /**
+     * Streams every row to the consumer in order. The row passed in is reused for the next row.
+     */
+    public void generate(int width, long height, MazeRandom random, Consumer<MazeRow> consumer) {
+        Iterator<MazeRow> rows = rows(width, height, random);
+        while (rows.hasNext()) {
+            consumer.accept(rows.next());
+        }
+    }
+
+    public void generate(int width, long height, Consumer<MazeRow> consumer) {
+        generate(width, height, MazeRandom.unseeded(), consumer);
+    }
+
+    /**
+     * @return an iterator over the rows of a new maze, top to bottom. Each call to next() refills the same MazeRow.
+     */
+    public Iterator<MazeRow> rows(int width, long height, MazeRandom random) {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("A streamed maze must be at least 1 row by 1 column");
+        }
+        return new RowIterator(width, height, random);
+    }
+
+    public Iterator<MazeRow> rows(int width, long height) {
+        return rows(width, height, MazeRandom.unseeded());
+    }
+
+    /**
+     * Collects the streamed rows into a {@link PackedMaze}, for when the whole maze is wanted in memory after all.
+     */
+    @Override
+    public Maze generate(int width, int height, MazeRandom random) {
+        PackedMaze maze = new PackedMaze(width, height);
+        generate(width, height, random, row -> {
+            int firstCell = (int) row.getRow() * width;
+            for (int col = 0; col < width; col++) {
+                if (row.isOpen(col, Direction.RIGHT)) {
+                    maze.open(firstCell + col, Direction.RIGHT);
+                }
+                if (row.isOpen(col, Direction.DOWN)) {
+                    maze.open(firstCell + col, Direction.DOWN);
+                }
+            }
+        });
+        return maze;
+    }
+
+    private static class RowIterator implements Iterator<MazeRow> {
+
+        private final MazeRandom random;
+        private final int width;
+        private final long height;
+        private final MazeRow mazeRow;
+        // set label of each cell in the current row, carried over from the row above
+        private final int[] labels;
+        // union-find over the columns of the current row, seeded from the labels
+        private final int[] parents;
+        private final int[] membersLeft;
+        private final boolean[] carriedDown;
+        private final boolean[] openUp;
+        private final int[] relabel;
+        private long nextRow;
+
+        RowIterator(int width, long height, MazeRandom random) {
+            this.random = random;
+            this.width = width;
+            this.height = height;
+            this.mazeRow = new MazeRow(width);
+            this.labels = new int[width];
+            this.parents = new int[width];
+            this.membersLeft = new int[width];
+            this.carriedDown = new boolean[width];
+            this.openUp = new boolean[width];
+            this.relabel = new int[width];
+            for (int col = 0; col < width; col++) {
+                labels[col] = col;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextRow < height;
+        }
+
+        @Override
+        public MazeRow next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            boolean lastRow = nextRow == height - 1;
+            mazeRow.reset(nextRow++);
+
+            for (int col = 0; col < width; col++) {
+                // a label is the column of the set's first cell, which is always its own label
+                parents[col] = labels[col];
+                if (openUp[col]) {
+                    mazeRow.open(col, Direction.UP);
+                }
+            }
+
+            joinAcrossTheRow(lastRow);
+            if (!lastRow) {
+                carryEverySetDown();
+                labelNextRow();
+            }
+            return mazeRow;
+        }
+
+        private void joinAcrossTheRow(boolean lastRow) {
+            for (int col = 0; col < width - 1; col++) {
+                int left = find(col);
+                int right = find(col + 1);
+                if (left != right && (lastRow || random.nextBoolean())) {
+                    parents[Math.max(left, right)] = Math.min(left, right);
+                    mazeRow.open(col, Direction.RIGHT);
+                    mazeRow.open(col + 1, Direction.LEFT);
+                }
+            }
+        }
+
+        private void carryEverySetDown() {
+            for (int col = 0; col < width; col++) {
+                membersLeft[col] = 0;
+                carriedDown[col] = false;
+            }
+            for (int col = 0; col < width; col++) {
+                membersLeft[find(col)]++;
+            }
+            for (int col = 0; col < width; col++) {
+                int set = find(col);
+                boolean lastChance = --membersLeft[set] == 0 && !carriedDown[set];
+                openUp[col] = lastChance || random.nextBoolean();
+                if (openUp[col]) {
+                    carriedDown[set] = true;
+                    mazeRow.open(col, Direction.DOWN);
+                }
+            }
+        }
+
+        private void labelNextRow() {
+            for (int col = 0; col < width; col++) {
+                relabel[col] = -1;
+            }
+            for (int col = 0; col < width; col++) {
+                if (openUp[col]) {
+                    int set = find(col);
+                    if (relabel[set] < 0) {
+                        relabel[set] = col;
+                    }
+                    labels[col] = relabel[set];
+                } else {
+                    labels[col] = col;
+                }
+            }
+        }
+
+        private int find(int col) {
+            while (parents[col] != col) {
+                parents[col] = parents[parents[col]];
+                col = parents[col];
+            }
+            return col;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package uk.robevans;
+
+import java.util.Arrays;
+
+/**
+ * Which way to go from every cell to get to the cheese, worked out once by a breadth first search backwards from
+ * the cheese, so the cheat button and the AI mice get each hint from a single array read rather than a path solve.
+ * Each cell's entry packs its distance in moves above three bits for the direction to take, one int per cell.
+ * <p>
+ * When the cheese moves, the field is not thrown away. The old hints already lead from the new spot to the old one,
+ * so turning round just the cells on that path makes every hint lead to the new spot - O(path) work, after which
+ * {@link #hint} is exactly right in a perfect maze and still gets there in a braided one. Exact distances for
+ * every cell then come from a fresh search run in slices by {@link #repair(int)}, into a second array which is
+ * swapped in once it is finished, so a server can spread the work over its ticks. Each search gets an array of its
+ * own, so one that has been swapped in is never wiped for the next. If the path can't be turned round - a one-way
+ * passage on it, or no path - the search is run straight away instead.
+ * <p>
+ * Only one thread should move the cheese, repair the field or ask for distances. Other threads may call
+ * {@link #hint} while it does: each call is a single read of a whole entry, so a hint racing a move is the one from
+ * before it or after it. A mouse following hints across a move can be turned round part way along the old path,
+ * and distances are not safe to read there, as walking hints that are being turned round can go in circles.
+ */
+public final class FlowField {
+
+    public static final int UNREACHABLE = -1;
+
+    private static final int DIRECTION_BITS = 3;
+    private static final int DIRECTION_MASK = (1 << DIRECTION_BITS) - 1;
+    private static final int AT_CHEESE = 4;
+    private static final Direction[] OPPOSITES = new Direction[Direction.VALUES.length];
+
+    static {
+        for (Direction direction : Direction.VALUES) {
+            OPPOSITES[direction.ordinal()] = direction.opposite();
+        }
+    }
+
+    private final Maze maze;
+    private final int width;
+    private final int height;
+    private final int[] stepOffsets;
+    private final int[] queue;
+    private volatile int[] field;
+    private int[] pending;
+    private int cheeseCell;
+    private volatile boolean repairing;
+    private int repairHead;
+    private int repairTail;
+
+    public FlowField(Maze maze, int cheeseCell) {
+        int cellCount = maze.getCellCount();
+        this.maze = maze;
+        this.width = maze.getWidth();
+        this.height = maze.getHeight();
+        this.stepOffsets = new int[Direction.VALUES.length];
+        for (Direction direction : Direction.VALUES) {
+            stepOffsets[direction.ordinal()] = direction.yOffset * width + direction.xOffset;
+        }
+        this.queue = new int[cellCount];
+        this.cheeseCell = cheeseCell;
+        startRepair();
+        repair(Integer.MAX_VALUE);
+    }
+
+    public int getCheeseCell() {
+        return cheeseCell;
+    }
+
+    /**
+     * @return the way to step from the cell towards the cheese, or null at the cheese itself and in cells it
+     * can't be reached from
+     */
+    public Direction hint(int cell) {
+        int direction = field[cell] & DIRECTION_MASK;
+        return direction < AT_CHEESE ? Direction.VALUES[direction] : null;
+    }
+
+    /**
+     * @return how many moves following the hints takes from the cell to the cheese, or {@link #UNREACHABLE}.
+     * Once repaired this is a lookup and the shortest distance; while a repair is under way it is counted by
+     * walking the hints.
+     */
+    public int getDistance(int cell) {
+        int[] entries = field;
+        int entry = entries[cell];
+        if (entry == UNREACHABLE) {
+            return UNREACHABLE;
+        }
+        if (!repairing) {
+            return entry >>> DIRECTION_BITS;
+        }
+        int moves = 0;
+        while ((entry & DIRECTION_MASK) != AT_CHEESE) {
+            cell += stepOffsets[entry & DIRECTION_MASK];
+            entry = entries[cell];
+            moves++;
+        }
+        return moves;
+    }
+
+    /**
+     * @return true when every distance is exact and every hint is on a shortest path
+     */
+    public boolean isRepaired() {
+        return !repairing;
+    }
+
+    /**
+     * Moves the cheese, turning round the hints on the way from the new spot to the old one so they all lead to
+     * the new spot, and starts a repair of the distances. Call {@link #repair(int)} to finish it.
+     */
+    public void moveCheese(int newCheeseCell) {
+        if (newCheeseCell == cheeseCell) {
+            return;
+        }
+        int[] entries = field;
+        boolean reversible = entries[newCheeseCell] != UNREACHABLE;
+        for (int cell = newCheeseCell; reversible && cell != cheeseCell; ) {
+            int direction = entries[cell] & DIRECTION_MASK;
+            int next = cell + stepOffsets[direction];
+            reversible = maze.isOpen(next, OPPOSITES[direction]);
+            cell = next;
+        }
+        cheeseCell = newCheeseCell;
+        startRepair();
+        if (!reversible) {
+            repair(Integer.MAX_VALUE);
+            return;
+        }
+
+        // walk the old path again, pointing each cell back at the one before it
+        int cell = newCheeseCell;
+        int entry = entries[cell];
+        entries[cell] = AT_CHEESE;
+        int moves = 0;
+        while ((entry & DIRECTION_MASK) != AT_CHEESE) {
+            int direction = entry & DIRECTION_MASK;
+            int next = cell + stepOffsets[direction];
+            entry = entries[next];
+            entries[next] = (++moves << DIRECTION_BITS) | OPPOSITES[direction].ordinal();
+            cell = next;
+        }
+    }
+
+    /**
+     * Carries on the search started by the last move, settling at most {@code budget} more cells.
+     *
+     * @return true once the field is fully repaired
+     */
+    public boolean repair(int budget) {
+        if (!repairing) {
+            return true;
+        }
+        int[] entries = pending;
+        int settled = 0;
+        while (repairHead < repairTail && settled < budget) {
+            int cell = queue[repairHead++];
+            settled++;
+            int next = ((entries[cell] >>> DIRECTION_BITS) + 1) << DIRECTION_BITS;
+            int x = cell % width;
+            int y = cell / width;
+            // a cell is one move from this one if it has an open way in from there
+            if (y > 0) {
+                enqueue(entries, cell - width, Direction.DOWN, next);
+            }
+            if (y < height - 1) {
+                enqueue(entries, cell + width, Direction.UP, next);
+            }
+            if (x > 0) {
+                enqueue(entries, cell - 1, Direction.RIGHT, next);
+            }
+            if (x < width - 1) {
+                enqueue(entries, cell + 1, Direction.LEFT, next);
+            }
+        }
+        if (repairHead < repairTail) {
+            return false;
+        }
+        pending = null;
+        field = entries;
+        repairing = false;
+        return true;
+    }
+
+    private void enqueue(int[] entries, int cell, Direction towardsCheese, int distanceBits) {
+        if (entries[cell] == UNREACHABLE && maze.isOpen(cell, towardsCheese)) {
+            entries[cell] = distanceBits | towardsCheese.ordinal();
+            queue[repairTail++] = cell;
+        }
+    }
+
+    private void startRepair() {
+        // a fresh array rather than the one swapped out, which a reader may still be walking
+        pending = new int[queue.length];
+        Arrays.fill(pending, UNREACHABLE);
+        pending[cheeseCell] = AT_CHEESE;
+        queue[0] = cheeseCell;
+        repairHead = 0;
+        repairTail = 1;
+        repairing = true;
+    }
+}
@@ -1,41 +1,200 @@
 package uk.robevans;
 
 import java.awt.Point;
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.util.function.Supplier;
 
 public class Game {
 
-    private final String[][] cells;
+    private final GameGrid grid;
     private Point mouseLocation;
+    private Point cheeseLocation;
     private final RandomPointGenerator pointGenerator;
+    private final MazeGenerator mazeGenerator;
+    private final Supplier<MazeRandom> mazeRandoms;
 
     public Game(int width, int height, RandomPointGenerator pointGenerator) {
+        this(width, height, pointGenerator, MazeAlgorithm.PRIM);
+    }
+
+    public Game(int width, int height, RandomPointGenerator pointGenerator, MazeAlgorithm mazeAlgorithm) {
+        this(width, height, pointGenerator, mazeAlgorithm.newGenerator());
+    }
+
+    /**
+     * A reproducible game: the same seed always gives the same maze and mouse start location.
+     * The maze is generated from the seed itself and the player placements from a split of it.
+     */
+    public Game(int width, int height, long seed, MazeAlgorithm mazeAlgorithm) {
+        this(width, height, new RandomPointGenerator(MazeRandom.seeded(seed).split()), mazeAlgorithm.newGenerator(),
+                () -> MazeRandom.seeded(seed));
+    }
+
+    /**
+     * A reproducible game whose maze comes from a shared {@link MazeCache}, so games with the same settings
+     * share one maze instead of each building their own. The maze is the same one the uncached seeded game gets.
+     */
+    public Game(int width, int height, long seed, MazeAlgorithm mazeAlgorithm, MazeCache mazeCache) {
+        this(width, height, new RandomPointGenerator(MazeRandom.seeded(seed).split()),
+                (mazeWidth, mazeHeight, random) -> mazeCache.get(mazeWidth, mazeHeight, seed, mazeAlgorithm),
+                () -> null);
+    }
+
+    /**
+     * Plays a maze that has already been built, such as one mapped in from a {@link MazeFile}.
+     */
+    public Game(Maze maze, RandomPointGenerator pointGenerator) {
+        this(maze.getWidth(), maze.getHeight(), pointGenerator, (width, height, random) -> maze);
+    }
+
+    /**
+     * Takes its mazes ready made from a {@link MazeSupplier}, which should have been asked to prepare this size.
+     */
+    public Game(int width, int height, RandomPointGenerator pointGenerator, MazeSupplier mazeSupplier) {
+        this(width, height, pointGenerator, (mazeWidth, mazeHeight, random) -> mazeSupplier.get(mazeWidth, mazeHeight),
+                () -> null);
+    }
+
+    public Game(int width, int height, RandomPointGenerator pointGenerator, MazeGenerator mazeGenerator) {
+        this(width, height, pointGenerator, mazeGenerator, MazeRandom::unseeded);
+    }
+
+    private Game(int width, int height, RandomPointGenerator pointGenerator, MazeGenerator mazeGenerator,
+                 Supplier<MazeRandom> mazeRandoms) {
+        MazeMetrics metrics = MazeMetrics.get();
+        long started = metrics.startTime();
+        long allocated = metrics.allocatedBytes();
         if (height >1 && width >1) {
-            this.cells = new String[height][width];
+            this.grid = new GameGrid(width, height);
         } else {
             throw new RuntimeException("The game grid must be at least 2 rows by 2 columns");
         }
         this.pointGenerator = pointGenerator;
+        this.mazeGenerator = mazeGenerator;
+        this.mazeRandoms = mazeRandoms;
         this.mouseLocation = pointGenerator.getPlayerStartLocation(width, height);
+        if (mouseLocation.x < 0 || mouseLocation.y < 0 || mouseLocation.x >= width || mouseLocation.y >= height) {
+            throw new IllegalArgumentException("The mouse must start inside the " + width + "x" + height
+                    + " game, not at " + mouseLocation);
+        }
+        grid.set(grid.index(mouseLocation.x, mouseLocation.y), GameGrid.MOUSE);
+        metrics.record(MazeMetrics.Operation.GAME_CONSTRUCTION, started, allocated);
+    }
+
+    /**
+     * @return the state of every cell of the board: the mouse, the cheese once placed, and the walls of the maze
+     * this game last created
+     */
+    public GameGrid getGrid() {
+        return grid;
     }
 
+    /**
+     * @return a height x width copy of the board, built afresh on each call, with "M" where the mouse is, "C" where
+     * the cheese is, "#" on obstacles and null everywhere else. Writes to it are not kept.
+     * @deprecated the board is kept in a {@link GameGrid} - use {@link #getGrid()}
+     */
+    @Deprecated
     public String[][] getGameGrid() {
+        String[][] cells = new String[grid.getHeight()][grid.getWidth()];
+        for (int cell = 0; cell < grid.getCellCount(); cell++) {
+            String occupant = grid.has(cell, GameGrid.MOUSE) ? "M"
+                    : grid.has(cell, GameGrid.CHEESE) ? "C"
+                    : grid.has(cell, GameGrid.OBSTACLE) ? "#"
+                    : null;
+            cells[cell / grid.getWidth()][cell % grid.getWidth()] = occupant;
+        }
         return cells;
     }
 
     public int getGameWidth() {
-        return cells[0].length;
+        return grid.getWidth();
     }
 
     public int getGameHeight() {
-        return cells.length;
+        return grid.getHeight();
     }
 
     public Point getMouseLocation() {
         return mouseLocation;
     }
 
-    public SpanningTree createAMaze() {
-        SpanningTree newMaze = new SpanningTree();
-        return newMaze.build(cells);
+    /**
+     * @return where the cheese was last hidden, or null until {@link #placeCheese} has been called
+     */
+    public Point getCheeseLocation() {
+        return cheeseLocation;
+    }
+
+    /**
+     * Hides the cheese in the maze, at least a quarter of the maze's width or height from the mouse in a straight line.
+     */
+    public Point placeCheese(Maze maze) {
+        return placeCheese(maze, CheesePlacer.DistanceRule.EUCLIDEAN);
+    }
+
+    public Point placeCheese(Maze maze, CheesePlacer.DistanceRule rule) {
+        checkFits(maze);
+        int hiddenAt = cheeseLocation == null ? -1 : grid.index(cheeseLocation.x, cheeseLocation.y);
+        cheeseLocation = pointGenerator.getCheeseLocation(maze, mouseLocation, rule);
+        grid.move(GameGrid.CHEESE, hiddenAt, grid.index(cheeseLocation.x, cheeseLocation.y));
+        return cheeseLocation;
+    }
+
+    /**
+     * @return hints from every cell of the maze to where the cheese is hidden, for the cheat button and AI mice
+     */
+    public FlowField createFlowField(Maze maze) {
+        checkFits(maze);
+        if (cheeseLocation == null) {
+            throw new IllegalStateException("The cheese has not been placed yet");
+        }
+        return new FlowField(maze, maze.index(cheeseLocation.x, cheeseLocation.y));
+    }
+
+    /**
+     * Draws the maze with this game's mouse, and its cheese once placed, over it. Any path already set on the
+     * renderer is drawn too.
+     */
+    public void render(Maze maze, MazeRenderer renderer, MazeRenderer.Format format, WritableByteChannel out)
+            throws IOException {
+        checkFits(maze);
+        renderer.setMouse(maze.index(mouseLocation.x, mouseLocation.y));
+        renderer.setCheese(cheeseLocation == null ? -1 : maze.index(cheeseLocation.x, cheeseLocation.y));
+        renderer.render(maze, format, out);
+    }
+
+    public Maze createAMaze() {
+        MazeMetrics metrics = MazeMetrics.get();
+        long started = metrics.startTime();
+        long allocated = metrics.allocatedBytes();
+        Maze maze = mazeGenerator.generate(getGameWidth(), getGameHeight(), mazeRandoms.get());
+        metrics.record(MazeMetrics.Operation.MAZE_GENERATION, started, allocated);
+        grid.copyWalls(maze);
+        return maze;
+    }
+
+    /**
+     * Starts another player on a maze that may already be shared with other sessions, placing their mouse
+     * with this game's point generator. Only the new session's own state is written to.
+     */
+    public GameSession startSession(Maze maze) {
+        checkFits(maze);
+        return new GameSession(maze, pointGenerator.getPlayerStartLocation(getGameWidth(), getGameHeight()));
+    }
+
+    /**
+     * Starts a player at this game's mouse location in an open world, where the game's width and height don't apply.
+     */
+    public WorldSession startSession(ChunkedWorld world) {
+        return new WorldSession(world, mouseLocation);
+    }
+
+    private void checkFits(Maze maze) {
+        if (maze.getWidth() != getGameWidth() || maze.getHeight() != getGameHeight()) {
+            throw new IllegalArgumentException("A " + maze.getWidth() + "x" + maze.getHeight()
+                    + " maze does not fit a " + getGameWidth() + "x" + getGameHeight() + " game");
+        }
     }
 }
@@ -0,0 +1,212 @@
+package uk.robevans;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Speaks the {@link GameServer} line protocol for one player. Commands are matched and replies written as raw
+ * ASCII bytes in small fixed buffers, so a connection allocates nothing per move and holds well under a
+ * kilobyte while its player thinks. Replies are only flushed once every command already received has been
+ * answered, so a client that pipelines its moves gets them back in as few writes as possible.
+ */
+final class GameConnection implements Closeable {
+
+    private static final int MAX_LINE_LENGTH = 32;
+
+    private static final byte[] WELCOME = ascii("WELCOME ");
+    private static final byte[] OK = ascii("OK ");
+    private static final byte[] WALL = ascii("WALL ");
+    private static final byte[] AT = ascii("AT ");
+    private static final byte[] BYE = ascii("BYE");
+    private static final byte[] ERROR = ascii("ERROR unknown command");
+    private static final byte[] WHERE = ascii("WHERE");
+    private static final byte[] QUIT = ascii("QUIT");
+    private static final byte[][] DIRECTIONS = new byte[Direction.VALUES.length][];
+
+    static {
+        for (Direction direction : Direction.VALUES) {
+            DIRECTIONS[direction.ordinal()] = ascii(direction.name());
+        }
+    }
+
+    private final Socket socket;
+    private final InputStream in;
+    private final OutputStream out;
+    private final GameSession session;
+    private final LongAdder moves;
+
+    private final byte[] input = new byte[128];
+    private int inputStart;
+    private int inputEnd;
+    private final byte[] line = new byte[MAX_LINE_LENGTH];
+    private final byte[] output = new byte[256];
+    private int outputLength;
+
+    GameConnection(Socket socket, GameSession session, LongAdder moves) throws IOException {
+        this.socket = socket;
+        this.in = socket.getInputStream();
+        this.out = socket.getOutputStream();
+        this.session = session;
+        this.moves = moves;
+    }
+
+    /**
+     * Greets the player and answers their commands until they quit or hang up.
+     */
+    void run() throws IOException {
+        Maze maze = session.getMaze();
+        append(WELCOME);
+        appendInt(maze.getWidth());
+        appendSpace();
+        appendInt(maze.getHeight());
+        appendSpace();
+        appendMouseLocation();
+        flush();
+
+        int length;
+        while ((length = readLine()) >= 0) {
+            if (!answer(length)) {
+                flush();
+                return;
+            }
+            // every reply fits in the longest command's length, so this leaves room for the next one
+            if (output.length - outputLength < MAX_LINE_LENGTH) {
+                flush();
+            }
+        }
+        flush();
+    }
+
+    /**
+     * @return false once the player has asked to quit
+     */
+    private boolean answer(int length) {
+        Direction direction = directionIn(length);
+        if (direction != null) {
+            moves.increment();
+            append(session.move(direction) ? OK : WALL);
+            appendMouseLocation();
+        } else if (lineIs(WHERE, length)) {
+            append(AT);
+            appendMouseLocation();
+        } else if (lineIs(QUIT, length)) {
+            append(BYE);
+            appendNewLine();
+            return false;
+        } else {
+            append(ERROR);
+            appendNewLine();
+        }
+        return true;
+    }
+
+    private Direction directionIn(int length) {
+        for (Direction direction : Direction.VALUES) {
+            if (lineIs(DIRECTIONS[direction.ordinal()], length)) {
+                return direction;
+            }
+        }
+        return null;
+    }
+
+    private boolean lineIs(byte[] word, int length) {
+        if (length != word.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (line[i] != word[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copies the next line, without its line ending, into the line buffer. Anything past the longest command
+     * is dropped, which leaves an over long line as an unknown command.
+     *
+     * @return the length of the line, or -1 once the player has hung up
+     */
+    private int readLine() throws IOException {
+        int length = 0;
+        while (true) {
+            while (inputStart < inputEnd) {
+                byte next = input[inputStart++];
+                if (next == '\n') {
+                    if (length > 0 && length <= line.length && line[length - 1] == '\r') {
+                        length--;
+                    }
+                    return Math.min(length, line.length + 1);
+                }
+                if (length < line.length) {
+                    line[length] = next;
+                }
+                length++;
+            }
+            // nothing left to answer until the player sends more, so they should see what we have so far
+            flush();
+            int read = in.read(input, 0, input.length);
+            if (read < 0) {
+                return -1;
+            }
+            inputStart = 0;
+            inputEnd = read;
+        }
+    }
+
+    private void appendMouseLocation() {
+        int cell = session.getMouseCell();
+        int width = session.getMaze().getWidth();
+        appendInt(cell % width);
+        appendSpace();
+        appendInt(cell / width);
+        appendNewLine();
+    }
+
+    private void append(byte[] bytes) {
+        System.arraycopy(bytes, 0, output, outputLength, bytes.length);
+        outputLength += bytes.length;
+    }
+
+    private void appendInt(int value) {
+        int digits = 1;
+        for (int rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = outputLength + digits - 1; i >= outputLength; i--) {
+            output[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        outputLength += digits;
+    }
+
+    private void appendSpace() {
+        output[outputLength++] = ' ';
+    }
+
+    private void appendNewLine() {
+        output[outputLength++] = '\n';
+    }
+
+    private void flush() throws IOException {
+        if (outputLength > 0) {
+            out.write(output, 0, outputLength);
+            out.flush();
+            outputLength = 0;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
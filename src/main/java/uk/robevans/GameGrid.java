@@ -0,0 +1,178 @@
+package uk.robevans;
+
+/**
+ * What is in each cell of a game's board, packed one byte to a cell: which of its four sides are walled, whether
+ * the mouse, the cheese or an obstacle is in it, and whether it has been visited. Cells are indexed
+ * y * width + x as in a {@link Maze}, and the width and height are plain fields, so the edge checks are arithmetic
+ * on the index rather than questions put to an array of rows.
+ * <p>
+ * A 4000x4000 board takes 16MB here, against 64MB or more for the {@code String[][]} that used to stand in for it
+ * holding nothing but nulls.
+ */
+public final class GameGrid {
+
+    // bits 0 to 3 are the walls, in Direction order
+    public static final int WALL_UP = 1;
+    public static final int WALL_DOWN = 1 << 1;
+    public static final int WALL_LEFT = 1 << 2;
+    public static final int WALL_RIGHT = 1 << 3;
+    public static final int WALLS = WALL_UP | WALL_DOWN | WALL_LEFT | WALL_RIGHT;
+    public static final int MOUSE = 1 << 4;
+    public static final int CHEESE = 1 << 5;
+    public static final int OBSTACLE = 1 << 6;
+    public static final int VISITED = 1 << 7;
+
+    private final int width;
+    private final int height;
+    private final byte[] states;
+
+    public GameGrid(int width, int height) {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("A grid must be at least 1x1, not " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.states = new byte[width * height];
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getCellCount() {
+        return states.length;
+    }
+
+    public int index(int x, int y) {
+        return y * width + x;
+    }
+
+    public static int wall(Direction direction) {
+        return 1 << direction.ordinal();
+    }
+
+    /**
+     * @return every flag set on the cell
+     */
+    public int get(int cell) {
+        return states[cell] & 0xFF;
+    }
+
+    public boolean has(int cell, int flags) {
+        return (states[cell] & flags) != 0;
+    }
+
+    public void set(int cell, int flags) {
+        states[cell] |= (byte) flags;
+    }
+
+    public void clear(int cell, int flags) {
+        states[cell] &= (byte) ~flags;
+    }
+
+    /**
+     * Clears the flags from every cell, such as the visited marks before another search.
+     */
+    public void clearAll(int flags) {
+        byte keep = (byte) ~flags;
+        for (int cell = 0; cell < states.length; cell++) {
+            states[cell] &= keep;
+        }
+    }
+
+    /**
+     * Moves a flag that only one cell can have at a time, such as the mouse, from wherever it was to the cell.
+     *
+     * @param from the cell that had it, or -1 if none did
+     */
+    public void move(int flag, int from, int to) {
+        if (from >= 0) {
+            clear(from, flag);
+        }
+        set(to, flag);
+    }
+
+    /**
+     * Replaces every cell's wall flags with the walls of the maze, keeping the other flags.
+     */
+    public void copyWalls(Maze maze) {
+        if (maze.getWidth() != width || maze.getHeight() != height) {
+            throw new IllegalArgumentException("A " + maze.getWidth() + "x" + maze.getHeight()
+                    + " maze does not fit a " + width + "x" + height + " grid");
+        }
+        if (maze instanceof BitPackedMaze) {
+            copyWalls((BitPackedMaze) maze);
+            return;
+        }
+        for (int cell = 0; cell < states.length; cell++) {
+            // each side is asked about separately, as a passage in a DirectedMaze may only go one way
+            int walls = 0;
+            for (Direction direction : Direction.VALUES) {
+                if (!maze.isOpen(cell, direction)) {
+                    walls |= wall(direction);
+                }
+            }
+            states[cell] = (byte) ((states[cell] & ~WALLS) | walls);
+        }
+    }
+
+    /**
+     * Reads the passage words directly. A cell's UP and LEFT walls are the DOWN and RIGHT walls of the cells above
+     * and to its left, which were filled in just before it.
+     */
+    private void copyWalls(BitPackedMaze maze) {
+        long word = 0;
+        int x = 0;
+        for (int cell = 0; cell < states.length; cell++) {
+            if ((cell & 31) == 0) {
+                word = maze.passageWord(cell >>> 5);
+            }
+            // the cell's RIGHT and DOWN passage bits, flipped to wall bits and moved onto WALL_RIGHT and WALL_DOWN
+            int closed = ~(int) (word >>> ((cell & 31) << 1));
+            int walls = (closed & 1) << 3 | (closed & 2);
+            walls |= cell < width ? WALL_UP : (states[cell - width] & WALL_DOWN) >>> 1;
+            walls |= x == 0 ? WALL_LEFT : (states[cell - 1] & WALL_RIGHT) >>> 1;
+            states[cell] = (byte) ((states[cell] & ~WALLS) | walls);
+            if (++x == width) {
+                x = 0;
+            }
+        }
+    }
+
+    public boolean isTopRow(int cell) {
+        return cell < width;
+    }
+
+    public boolean isBottomRow(int cell) {
+        return cell >= states.length - width;
+    }
+
+    public boolean isFirstCol(int cell) {
+        return cell % width == 0;
+    }
+
+    public boolean isLastCol(int cell) {
+        return cell % width == width - 1;
+    }
+
+    public boolean isEdge(int cell) {
+        return isTopRow(cell) || isBottomRow(cell) || isFirstCol(cell) || isLastCol(cell);
+    }
+
+    /**
+     * @return the number of cells with any of the flags set
+     */
+    public int count(int flags) {
+        int count = 0;
+        for (byte state : states) {
+            if ((state & flags) != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,171 @@
+package uk.robevans;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hosts one maze for many players at once over a plain text protocol on a local socket.
+ * Every connection is one {@link GameSession} on the shared maze, served by its own virtual thread, so a
+ * player waiting to send their next move costs a parked virtual thread and a few hundred bytes rather than
+ * a platform thread and its stack. Each line from the client is a command and gets exactly one line back:
+ * <pre>
+ *   (on connect)                   WELCOME width height mouseX mouseY
+ *   UP | DOWN | LEFT | RIGHT       OK x y     the mouse moved to x y
+ *                                  WALL x y   the way is walled off and the mouse is still at x y
+ *   WHERE                          AT x y
+ *   QUIT                           BYE        and the server closes the connection
+ *   anything else                  ERROR unknown command
+ * </pre>
+ * Checking a move is a single bit test against the maze's packed passages, so it costs the same on any size
+ * of maze. The server only listens on the loopback address; a front end is expected to sit in front of it.
+ */
+public class GameServer implements AutoCloseable {
+
+    public static final int DEFAULT_BACKLOG = 4096;
+
+    // how long to wait after accept() first fails, doubling while it keeps failing up to the cap
+    static final long FIRST_ACCEPT_RETRY_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    static final long MAX_ACCEPT_RETRY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Game game;
+    private final Maze maze;
+    private final ServerSocket serverSocket;
+    private final ExecutorService sessionThreads;
+    private final Thread acceptThread;
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+
+    private final LongAdder sessionsStarted = new LongAdder();
+    private final LongAdder moves = new LongAdder();
+    private final LongAdder acceptFailures = new LongAdder();
+
+    /**
+     * Starts listening straight away. Pass port 0 to be given any free port, then ask {@link #getPort()}.
+     */
+    public GameServer(Game game, Maze maze, int port) throws IOException {
+        this(game, maze, port, DEFAULT_BACKLOG);
+    }
+
+    public GameServer(Game game, Maze maze, int port, int backlog) throws IOException {
+        this.game = game;
+        this.maze = maze;
+        this.serverSocket = new ServerSocket();
+        this.serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), backlog);
+        this.sessionThreads = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("game-session-", 0).factory());
+        this.acceptThread = Thread.ofPlatform().name("game-server-accept").daemon().start(this::acceptConnections);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return how many players are connected right now
+     */
+    public int getSessionCount() {
+        return connections.size();
+    }
+
+    public long getSessionsStarted() {
+        return sessionsStarted.sum();
+    }
+
+    /**
+     * @return how many moves players have tried, whether or not a wall was in the way
+     */
+    public long getMoveCount() {
+        return moves.sum();
+    }
+
+    /**
+     * @return how many times accepting a player has failed, such as when the process is out of file descriptors
+     */
+    public long getAcceptFailureCount() {
+        return acceptFailures.sum();
+    }
+
+    private void acceptConnections() {
+        long retryNanos = 0;
+        while (!closed) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+                retryNanos = 0;
+            } catch (IOException e) {
+                // closing the server socket is how close() stops this loop
+                if (closed) {
+                    return;
+                }
+                // an error such as running out of file descriptors fails every accept until it clears, so back off
+                // rather than spin on it
+                acceptFailures.increment();
+                retryNanos = nextAcceptRetry(retryNanos);
+                LockSupport.parkNanos(retryNanos);
+                continue;
+            }
+            try {
+                socket.setTcpNoDelay(true);
+                // the point generator is not thread safe, so players are placed here rather than on their own threads
+                GameSession session = game.startSession(maze);
+                connections.add(socket);
+                sessionsStarted.increment();
+                sessionThreads.execute(() -> play(socket, session));
+            } catch (IOException | RuntimeException e) {
+                closeQuietly(socket);
+            }
+        }
+    }
+
+    static long nextAcceptRetry(long retryNanos) {
+        return retryNanos == 0 ? FIRST_ACCEPT_RETRY_NANOS : Math.min(2 * retryNanos, MAX_ACCEPT_RETRY_NANOS);
+    }
+
+    private void play(Socket socket, GameSession session) {
+        try (GameConnection connection = new GameConnection(socket, session, moves)) {
+            connection.run();
+        } catch (IOException e) {
+            // the player went away mid command - there is nobody left to tell
+        } finally {
+            connections.remove(socket);
+        }
+    }
+
+    /**
+     * Stops accepting players, disconnects everyone still playing and waits briefly for their threads to finish.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverSocket.close();
+        // cut short any back off after a failed accept
+        LockSupport.unpark(acceptThread);
+        for (Socket socket : connections) {
+            closeQuietly(socket);
+        }
+        sessionThreads.shutdown();
+        try {
+            sessionThreads.awaitTermination(5, TimeUnit.SECONDS);
+            acceptThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // already gone
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package uk.robevans;
+
+import java.awt.Point;
+
+/**
+ * One player's progress through a maze: where their mouse is and which cells it has been through.
+ * The maze itself is only ever read, so one {@link Maze} snapshot can back any number of sessions on any number
+ * of threads without locking, and each session costs a few ints plus one bit per cell for the trail -
+ * about 1.3KB on a 100x100 maze.
+ * <p>
+ * A session belongs to its player and is not itself safe to move from several threads at once.
+ */
+public class GameSession {
+
+    private final Maze maze;
+    private final long[] visitedCells;
+    private int visitedCount;
+    private int mouseCell;
+    private int moveCount;
+
+    public GameSession(Maze maze, Point mouseStartLocation) {
+        if (mouseStartLocation.x < 0 || mouseStartLocation.y < 0
+                || mouseStartLocation.x >= maze.getWidth() || mouseStartLocation.y >= maze.getHeight()) {
+            throw new IllegalArgumentException("The mouse must start inside the " + maze.getWidth() + "x"
+                    + maze.getHeight() + " maze, not at " + mouseStartLocation);
+        }
+        this.maze = maze;
+        this.visitedCells = new long[(maze.getCellCount() + 63) >>> 6];
+        this.mouseCell = maze.index(mouseStartLocation.x, mouseStartLocation.y);
+        markVisited(mouseCell);
+    }
+
+    public Maze getMaze() {
+        return maze;
+    }
+
+    public int getMouseCell() {
+        return mouseCell;
+    }
+
+    public Point getMouseLocation() {
+        return new Point(mouseCell % maze.getWidth(), mouseCell / maze.getWidth());
+    }
+
+    /**
+     * Moves the mouse one cell if there is no wall in the way.
+     *
+     * @return false, leaving the mouse where it was, if the way is walled off
+     */
+    public boolean move(Direction direction) {
+        if (!maze.isOpen(mouseCell, direction)) {
+            return false;
+        }
+        mouseCell = maze.neighbour(mouseCell, direction);
+        moveCount++;
+        markVisited(mouseCell);
+        return true;
+    }
+
+    public boolean hasVisited(int cell) {
+        return (visitedCells[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    public boolean hasVisited(Point point) {
+        return hasVisited(maze.index(point.x, point.y));
+    }
+
+    /**
+     * @return how many different cells the mouse has been in, including the one it started in
+     */
+    public int getVisitedCount() {
+        return visitedCount;
+    }
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    private void markVisited(int cell) {
+        long mask = 1L << cell;
+        if ((visitedCells[cell >>> 6] & mask) == 0) {
+            visitedCells[cell >>> 6] |= mask;
+            visitedCount++;
+        }
+    }
+}
@@ -0,0 +1,487 @@
+package uk.robevans;
+
+import java.awt.Point;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A grid of width x height cells held in flat primitive arrays rather than a map of boxed points.
+ * A cell at column x and row y has the index y * width + x. Each cell owns the weight of the edge
+ * to its RIGHT and the edge below it (DOWN); the UP and LEFT weights of a cell are simply the DOWN
+ * and RIGHT weights of the neighbouring cell, so every edge is stored exactly once and is
+ * bidirectional by construction.
+ * Nothing in the neighbour/weight lookups allocates, which keeps very large mazes out of the GC.
+ * Passages carved through the grid are kept in a {@link PackedMaze}, two bits per cell.
+ */
+public class GridGraph implements Maze {
+
+    private final int width;
+    private final int height;
+    private final int[] rightWeights;
+    private final int[] downWeights;
+    private final long[] initialisedCells;
+    private int initialisedCount;
+    private final PackedMaze passages;
+    private final Map<Point, Map<Direction, Integer>> edgeMapView;
+    private final Map<Point, List<Point>> passageMapView;
+
+    public GridGraph(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.rightWeights = new int[width * height];
+        this.downWeights = new int[width * height];
+        this.initialisedCells = new long[(width * height + 63) >>> 6];
+        this.passages = new PackedMaze(width, height);
+        this.edgeMapView = new EdgeMapView();
+        this.passageMapView = new PassageMapView();
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int getCellCount() {
+        return width * height;
+    }
+
+    @Override
+    public int index(int x, int y) {
+        return y * width + x;
+    }
+
+    public int getX(int cell) {
+        return cell % width;
+    }
+
+    public int getY(int cell) {
+        return cell / width;
+    }
+
+    public boolean contains(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    public boolean hasNeighbour(int cell, Direction direction) {
+        switch (direction) {
+            case UP:
+                return cell >= width;
+            case DOWN:
+                return cell < (height - 1) * width;
+            case LEFT:
+                return cell % width != 0;
+            default:
+                return cell % width != width - 1;
+        }
+    }
+
+    /**
+     * @return the index of the cell next to the given one in that direction, or -1 when it would fall off the grid
+     */
+    @Override
+    public int neighbour(int cell, Direction direction) {
+        if (!hasNeighbour(cell, direction)) {
+            return -1;
+        }
+        return cell + direction.yOffset * width + direction.xOffset;
+    }
+
+    public int getWeight(int cell, Direction direction) {
+        switch (direction) {
+            case UP:
+                return downWeights[cell - width];
+            case DOWN:
+                return downWeights[cell];
+            case LEFT:
+                return rightWeights[cell - 1];
+            default:
+                return rightWeights[cell];
+        }
+    }
+
+    public void setWeight(int cell, Direction direction, int weight) {
+        switch (direction) {
+            case UP:
+                downWeights[cell - width] = weight;
+                break;
+            case DOWN:
+                downWeights[cell] = weight;
+                break;
+            case LEFT:
+                rightWeights[cell - 1] = weight;
+                break;
+            default:
+                rightWeights[cell] = weight;
+                break;
+        }
+    }
+
+    /**
+     * Calls the consumer once for every edge leaving the given cell, in UP, DOWN, LEFT, RIGHT order.
+     * Passing a non-capturing lambda or a reused consumer keeps the whole walk allocation free.
+     */
+    public void forEachEdge(int cell, EdgeConsumer consumer) {
+        for (Direction direction : Direction.VALUES) {
+            if (hasNeighbour(cell, direction)) {
+                consumer.accept(cell, direction, cell + direction.yOffset * width + direction.xOffset, getWeight(cell, direction));
+            }
+        }
+    }
+
+    /**
+     * Gives every edge a random weight, a row at a time. Each cell but those on the bottom row owns a DOWN edge
+     * and each cell but those in the last column a RIGHT edge, so a row above the bottom takes 2 * width - 1 ints,
+     * drawn in one bulk fill and split between the two weight arrays, and the bottom row width - 1, drawn straight
+     * into its RIGHT weights. The draws are in the same order as weighing the cells one at a time from the top left,
+     * DOWN before RIGHT, so seeded mazes come out as they always have. Every cell is then marked initialised at once.
+     */
+    void fillRandomWeights(MazeRandom random) {
+        if (width == 0 || height == 0) {
+            return;
+        }
+        int[] rowDraws = new int[2 * width - 1];
+        int lastColumn = width - 1;
+        for (int rowStart = 0; rowStart < (height - 1) * width; rowStart += width) {
+            random.nextInts(rowDraws, 0, rowDraws.length);
+            for (int x = 0; x < lastColumn; x++) {
+                downWeights[rowStart + x] = rowDraws[2 * x];
+                rightWeights[rowStart + x] = rowDraws[2 * x + 1];
+            }
+            downWeights[rowStart + lastColumn] = rowDraws[2 * lastColumn];
+        }
+        int bottomRowStart = (height - 1) * width;
+        random.nextInts(rightWeights, bottomRowStart, bottomRowStart + lastColumn);
+
+        int cellCount = width * height;
+        Arrays.fill(initialisedCells, -1L);
+        if ((cellCount & 63) != 0) {
+            initialisedCells[initialisedCells.length - 1] = (1L << cellCount) - 1;
+        }
+        initialisedCount = cellCount;
+    }
+
+    /**
+     * Marks a cell as having had its edges weighted. Only initialised cells show up in {@link #asEdgeMap()}.
+     */
+    public void markInitialised(int cell) {
+        long mask = 1L << cell;
+        if ((initialisedCells[cell >>> 6] & mask) == 0) {
+            initialisedCells[cell >>> 6] |= mask;
+            initialisedCount++;
+        }
+    }
+
+    public boolean isInitialised(int cell) {
+        return (initialisedCells[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    public int getInitialisedCount() {
+        return initialisedCount;
+    }
+
+    public void clear() {
+        Arrays.fill(rightWeights, 0);
+        Arrays.fill(downWeights, 0);
+        Arrays.fill(initialisedCells, 0L);
+        initialisedCount = 0;
+        passages.clear();
+    }
+
+    /**
+     * Knocks down the wall between a cell and its neighbour in the given direction.
+     */
+    public void openPassage(int cell, Direction direction) {
+        int neighbour = neighbour(cell, direction);
+        if (neighbour >= 0) {
+            passages.open(cell, direction);
+        }
+    }
+
+    @Override
+    public boolean isOpen(int cell, Direction direction) {
+        return hasNeighbour(cell, direction) && passages.isOpen(cell, direction);
+    }
+
+    /**
+     * @return a copy of the passages carved so far, without the edge weights
+     */
+    public PackedMaze toMaze() {
+        return passages.copy();
+    }
+
+    public boolean hasAnyPassage(int cell) {
+        for (Direction direction : Direction.VALUES) {
+            if (isOpen(cell, direction)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A read only Map view of the initialised cells and the weights of the edges leaving them,
+     * for callers that still want to work with points and directions. Entries are created on demand,
+     * so it should be kept off hot paths.
+     */
+    public Map<Point, Map<Direction, Integer>> asEdgeMap() {
+        return edgeMapView;
+    }
+
+    /**
+     * A read only Map view of every cell with at least one open passage, listing the points it connects to.
+     * Its size is counted on demand, so like {@link #asEdgeMap()} it is for convenience rather than hot paths.
+     */
+    public Map<Point, List<Point>> asPassageMap() {
+        return passageMapView;
+    }
+
+    public interface EdgeConsumer {
+        void accept(int cell, Direction direction, int neighbour, int weight);
+    }
+
+    private int cellAt(Object key) {
+        if (!(key instanceof Point)) {
+            return -1;
+        }
+        Point point = (Point) key;
+        if (!contains(point.x, point.y)) {
+            return -1;
+        }
+        int cell = index(point.x, point.y);
+        return isInitialised(cell) ? cell : -1;
+    }
+
+    private Point pointAt(int cell) {
+        return new Point(getX(cell), getY(cell));
+    }
+
+    private class PassageMapView extends AbstractMap<Point, List<Point>> {
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (int cell = nextConnected(0); cell >= 0; cell = nextConnected(cell + 1)) {
+                size++;
+            }
+            return size;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return connectedCellAt(key) >= 0;
+        }
+
+        @Override
+        public List<Point> get(Object key) {
+            int cell = connectedCellAt(key);
+            return cell < 0 ? null : connectedPoints(cell);
+        }
+
+        @Override
+        public Set<Entry<Point, List<Point>>> entrySet() {
+            return new AbstractSet<Entry<Point, List<Point>>>() {
+                @Override
+                public int size() {
+                    return PassageMapView.this.size();
+                }
+
+                @Override
+                public Iterator<Entry<Point, List<Point>>> iterator() {
+                    return new Iterator<Entry<Point, List<Point>>>() {
+                        private int next = nextConnected(0);
+
+                        @Override
+                        public boolean hasNext() {
+                            return next >= 0;
+                        }
+
+                        @Override
+                        public Entry<Point, List<Point>> next() {
+                            if (next < 0) {
+                                throw new NoSuchElementException();
+                            }
+                            int cell = next;
+                            next = nextConnected(cell + 1);
+                            return new SimpleImmutableEntry<>(pointAt(cell), connectedPoints(cell));
+                        }
+                    };
+                }
+            };
+        }
+
+        private int connectedCellAt(Object key) {
+            if (!(key instanceof Point)) {
+                return -1;
+            }
+            Point point = (Point) key;
+            if (!contains(point.x, point.y)) {
+                return -1;
+            }
+            int cell = index(point.x, point.y);
+            return hasAnyPassage(cell) ? cell : -1;
+        }
+
+        private int nextConnected(int from) {
+            for (int cell = from; cell < getCellCount(); cell++) {
+                if (hasAnyPassage(cell)) {
+                    return cell;
+                }
+            }
+            return -1;
+        }
+
+        private List<Point> connectedPoints(int cell) {
+            List<Point> points = new ArrayList<>(4);
+            for (Direction direction : Direction.VALUES) {
+                if (isOpen(cell, direction)) {
+                    points.add(pointAt(neighbour(cell, direction)));
+                }
+            }
+            return Collections.unmodifiableList(points);
+        }
+    }
+
+    private class EdgeMapView extends AbstractMap<Point, Map<Direction, Integer>> {
+
+        @Override
+        public int size() {
+            return initialisedCount;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return cellAt(key) >= 0;
+        }
+
+        @Override
+        public Map<Direction, Integer> get(Object key) {
+            int cell = cellAt(key);
+            return cell < 0 ? null : new CellEdgeView(cell);
+        }
+
+        @Override
+        public Set<Entry<Point, Map<Direction, Integer>>> entrySet() {
+            return new AbstractSet<Entry<Point, Map<Direction, Integer>>>() {
+                @Override
+                public int size() {
+                    return initialisedCount;
+                }
+
+                @Override
+                public Iterator<Entry<Point, Map<Direction, Integer>>> iterator() {
+                    return new Iterator<Entry<Point, Map<Direction, Integer>>>() {
+                        private int next = nextInitialised(0);
+
+                        @Override
+                        public boolean hasNext() {
+                            return next >= 0;
+                        }
+
+                        @Override
+                        public Entry<Point, Map<Direction, Integer>> next() {
+                            if (next < 0) {
+                                throw new NoSuchElementException();
+                            }
+                            int cell = next;
+                            next = nextInitialised(cell + 1);
+                            return new SimpleImmutableEntry<>(pointAt(cell), new CellEdgeView(cell));
+                        }
+                    };
+                }
+            };
+        }
+
+        private int nextInitialised(int from) {
+            for (int cell = from; cell < getCellCount(); cell++) {
+                if (isInitialised(cell)) {
+                    return cell;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private class CellEdgeView extends AbstractMap<Direction, Integer> {
+
+        private final int cell;
+
+        CellEdgeView(int cell) {
+            this.cell = cell;
+        }
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (Direction direction : Direction.VALUES) {
+                if (hasNeighbour(cell, direction)) {
+                    size++;
+                }
+            }
+            return size;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof Direction && hasNeighbour(cell, (Direction) key);
+        }
+
+        @Override
+        public Integer get(Object key) {
+            return containsKey(key) ? getWeight(cell, (Direction) key) : null;
+        }
+
+        @Override
+        public Set<Entry<Direction, Integer>> entrySet() {
+            return new AbstractSet<Entry<Direction, Integer>>() {
+                @Override
+                public int size() {
+                    return CellEdgeView.this.size();
+                }
+
+                @Override
+                public Iterator<Entry<Direction, Integer>> iterator() {
+                    return new Iterator<Entry<Direction, Integer>>() {
+                        private int ordinal = advance(0);
+
+                        @Override
+                        public boolean hasNext() {
+                            return ordinal < Direction.VALUES.length;
+                        }
+
+                        @Override
+                        public Entry<Direction, Integer> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            Direction direction = Direction.VALUES[ordinal];
+                            ordinal = advance(ordinal + 1);
+                            return new SimpleImmutableEntry<>(direction, getWeight(cell, direction));
+                        }
+                    };
+                }
+            };
+        }
+
+        private int advance(int from) {
+            int ordinal = from;
+            while (ordinal < Direction.VALUES.length && !hasNeighbour(cell, Direction.VALUES[ordinal])) {
+                ordinal++;
+            }
+            return ordinal;
+        }
+    }
+}
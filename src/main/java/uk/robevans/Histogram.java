@@ -0,0 +1,127 @@
+package uk.robevans;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts non-negative values, such as latencies in nanoseconds, in log-linear buckets the way HdrHistogram does.
+ * Values below 128 get a bucket each; above that every power of two is split into 64 equal buckets, so any
+ * percentile read back is within 1/64 (about 1.6%) of the true value however large the values get, and the whole
+ * range of a long fits in under 4,000 buckets. Recording is a couple of shifts and one atomic increment, and
+ * any number of threads may record at once.
+ */
+public class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKET_HALF = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = SUB_BUCKET_HALF << 1;
+    private static final int BUCKET_COUNT = indexOf(Long.MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.incrementAndGet(indexOf(value));
+        total.addAndGet(value);
+        long currentMax = max.get();
+        while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+            currentMax = max.get();
+        }
+    }
+
+    static int indexOf(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return LINEAR_LIMIT + (shift - 1) * SUB_BUCKET_HALF + (int) (value >>> shift) - SUB_BUCKET_HALF;
+    }
+
+    /**
+     * @return the largest value that would land in the same bucket
+     */
+    static long highestValueIn(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int shift = (index - LINEAR_LIMIT) / SUB_BUCKET_HALF + 1;
+        long subBucket = (index - LINEAR_LIMIT) % SUB_BUCKET_HALF + SUB_BUCKET_HALF;
+        return (subBucket << shift) + (1L << shift) - 1;
+    }
+
+    /**
+     * Copies the counts out in one pass. Values recorded while the copy is taken may or may not be included.
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            copy[index] = counts.get(index);
+            count += copy[index];
+        }
+        return new Snapshot(count, total.get(), max.get(), copy);
+    }
+
+    /**
+     * An unchanging copy of a histogram's counts at one moment.
+     */
+    public static final class Snapshot {
+
+        private final long count;
+        private final long total;
+        private final long max;
+        private final long[] counts;
+
+        Snapshot(long count, long total, long max, long[] counts) {
+            this.count = count;
+            this.total = total;
+            this.max = max;
+            this.counts = counts;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public double getMean() {
+            return count == 0 ? 0 : (double) total / count;
+        }
+
+        /**
+         * @param percentile between 0 and 100
+         * @return the value at or below which that percentage of the recorded values fall, never above the max
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long wanted = Math.max(1, (long) Math.ceil(count * percentile / 100));
+            long seen = 0;
+            for (int index = 0; index < counts.length; index++) {
+                seen += counts[index];
+                if (seen >= wanted) {
+                    return Math.min(highestValueIn(index), max);
+                }
+            }
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return "count=" + count + " mean=" + Math.round(getMean()) + " p50=" + getValueAtPercentile(50)
+                    + " p99=" + getValueAtPercentile(99) + " p99.9=" + getValueAtPercentile(99.9) + " max=" + max;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package uk.robevans;
+
+import java.util.Arrays;
+
+/**
+ * A binary min-heap of int indexes (cell indexes in practice) ordered by an int priority.
+ * Each index can be in the heap at most once and its position is tracked, so lowering the priority
+ * of an index already queued is a decrease-key in O(log n) rather than a second entry.
+ * Equal priorities are broken by the lower index. All storage is allocated up front and reused
+ * after {@link #clear()}.
+ */
+public class IndexedMinHeap {
+
+    // each entry packs the priority into the high 32 bits and the index into the low 32 bits, so sifting
+    // compares neighbouring longs in one array instead of chasing the index out to a separate priority table
+    private final long[] heap;
+    private final int[] positions;
+    private int size;
+
+    public IndexedMinHeap(int capacity) {
+        this.heap = new long[capacity];
+        this.positions = new int[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int index) {
+        return positions[index] >= 0;
+    }
+
+    public int priorityOf(int index) {
+        return (int) (heap[positions[index]] >> 32);
+    }
+
+    public void insert(int index, int priority) {
+        if (contains(index)) {
+            throw new IllegalStateException("Index " + index + " is already in the heap");
+        }
+        siftUp(size++, entry(index, priority));
+    }
+
+    /**
+     * Lowers the priority of an index that is already in the heap. Higher priorities are ignored.
+     */
+    public void decreaseKey(int index, int priority) {
+        int position = positions[index];
+        if (priority < (int) (heap[position] >> 32)) {
+            siftUp(position, entry(index, priority));
+        }
+    }
+
+    /**
+     * Inserts the index, or lowers its priority if it is already queued.
+     */
+    public void insertOrDecrease(int index, int priority) {
+        if (contains(index)) {
+            decreaseKey(index, priority);
+        } else {
+            insert(index, priority);
+        }
+    }
+
+    public int peekMin() {
+        return (int) heap[0];
+    }
+
+    public int pollMin() {
+        int min = (int) heap[0];
+        positions[min] = -1;
+        size--;
+        if (size > 0) {
+            siftDown(0, heap[size]);
+        }
+        return min;
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[(int) heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private static long entry(int index, int priority) {
+        return ((long) priority << 32) | index;
+    }
+
+    private void siftUp(int position, long entry) {
+        while (position > 0) {
+            int parentPosition = (position - 1) >>> 1;
+            long parent = heap[parentPosition];
+            if (parent <= entry) {
+                break;
+            }
+            heap[position] = parent;
+            positions[(int) parent] = position;
+            position = parentPosition;
+        }
+        heap[position] = entry;
+        positions[(int) entry] = position;
+    }
+
+    private void siftDown(int position, long entry) {
+        int half = size >>> 1;
+        while (position < half) {
+            int childPosition = 2 * position + 1;
+            long child = heap[childPosition];
+            int rightPosition = childPosition + 1;
+            if (rightPosition < size && heap[rightPosition] < child) {
+                childPosition = rightPosition;
+                child = heap[childPosition];
+            }
+            if (entry <= child) {
+                break;
+            }
+            heap[position] = child;
+            positions[(int) child] = position;
+            position = childPosition;
+        }
+        heap[position] = entry;
+        positions[(int) entry] = position;
+    }
+}
@@ -0,0 +1,42 @@
+package uk.robevans;
+
+/**
+ * Randomised Kruskal's algorithm. Every RIGHT and DOWN wall is listed once and shuffled, then each wall is
+ * knocked down if the cells either side of it are not yet joined, which a {@link DisjointSet} answers in
+ * near constant time. Edges are encoded as cell * 2 + (0 for RIGHT, 1 for DOWN) so the list is a flat int[].
+ */
+public class KruskalMazeGenerator implements MazeGenerator {
+
+    @Override
+    public Maze generate(int width, int height, MazeRandom random) {
+        int cellCount = width * height;
+        PackedMaze maze = new PackedMaze(width, height);
+        int[] edges = new int[(width - 1) * height + width * (height - 1)];
+        int edgeCount = 0;
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (cell % width != width - 1) {
+                edges[edgeCount++] = cell << 1;
+            }
+            if (cell < cellCount - width) {
+                edges[edgeCount++] = (cell << 1) | 1;
+            }
+        }
+
+        DisjointSet joined = new DisjointSet(cellCount);
+        int passagesLeft = cellCount - 1;
+        for (int i = edgeCount - 1; i >= 0 && passagesLeft > 0; i--) {
+            // shuffling as we go means we can stop as soon as the tree is complete
+            int swapWith = random.nextInt(i + 1);
+            int edge = edges[swapWith];
+            edges[swapWith] = edges[i];
+
+            int cell = edge >>> 1;
+            int neighbour = (edge & 1) == 0 ? cell + 1 : cell + width;
+            if (joined.union(cell, neighbour)) {
+                maze.openBetween(cell, neighbour);
+                passagesLeft--;
+            }
+        }
+        return maze;
+    }
+}
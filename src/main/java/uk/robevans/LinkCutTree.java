@@ -0,0 +1,225 @@
+package uk.robevans;
+
+/**
+ * A forest over the int indexes 0..size-1 that can have edges added and taken away while answering questions
+ * about the paths through it - Sleator and Tarjan's link-cut trees. Each tree is split into preferred paths, each
+ * path is kept in a splay tree ordered by depth, and every operation first exposes the path it needs with
+ * {@link #access}. Linking, cutting, connectivity, path lengths and finding the k-th cell along a path all run
+ * in O(log n) amortised time.
+ * <p>
+ * The nodes live in parallel int arrays, shifted up by one so that 0 can stand for "no node", and nothing is
+ * allocated after construction. Re-rooting a tree to make a path start at a given node is done lazily with a
+ * flip flag that is pushed down as the splay trees are walked.
+ */
+public class LinkCutTree {
+
+    private static final int NIL = 0;
+
+    private final int[] left;
+    private final int[] right;
+    // the splay tree parent, or for the root of a splay tree the path-parent: the node its path hangs from
+    private final int[] parents;
+    private final int[] sizes;
+    private final boolean[] flipped;
+    private final int[] pushStack;
+
+    public LinkCutTree(int size) {
+        this.left = new int[size + 1];
+        this.right = new int[size + 1];
+        this.parents = new int[size + 1];
+        this.sizes = new int[size + 1];
+        this.flipped = new boolean[size + 1];
+        this.pushStack = new int[size + 1];
+        for (int node = 1; node <= size; node++) {
+            sizes[node] = 1;
+        }
+    }
+
+    /**
+     * Hangs a root that has never been linked under a parent without re-rooting anything, for building a whole
+     * forest from known parents in O(n). Nothing is checked.
+     */
+    void attach(int child, int parent) {
+        parents[child + 1] = parent + 1;
+    }
+
+    /**
+     * @return false, changing nothing, if the two are already in the same tree
+     */
+    public boolean link(int first, int second) {
+        if (connected(first, second)) {
+            return false;
+        }
+        int node = first + 1;
+        makeRoot(node);
+        parents[node] = second + 1;
+        return true;
+    }
+
+    /**
+     * @return false, changing nothing, if there is no edge between the two
+     */
+    public boolean cut(int first, int second) {
+        int firstNode = first + 1;
+        int secondNode = second + 1;
+        makeRoot(firstNode);
+        access(secondNode);
+        if (sizes[secondNode] != 2 || left[secondNode] != firstNode) {
+            return false;
+        }
+        left[secondNode] = NIL;
+        parents[firstNode] = NIL;
+        pull(secondNode);
+        return true;
+    }
+
+    public boolean connected(int first, int second) {
+        return findRoot(first + 1) == findRoot(second + 1);
+    }
+
+    /**
+     * @return the number of edges on the path between the two, or -1 if they are in different trees
+     */
+    public int pathLength(int from, int to) {
+        if (!connected(from, to)) {
+            return -1;
+        }
+        makeRoot(from + 1);
+        access(to + 1);
+        return sizes[to + 1] - 1;
+    }
+
+    /**
+     * @param steps how far along the path to go, from 0 for {@code from} itself up to {@link #pathLength}
+     * @return the index that many edges along the path from one index to another. The two must be connected.
+     */
+    public int nodeOnPath(int from, int to, int steps) {
+        makeRoot(from + 1);
+        access(to + 1);
+        int node = to + 1;
+        if (steps < 0 || steps >= sizes[node]) {
+            throw new IllegalArgumentException("The path is only " + (sizes[node] - 1) + " edges long, not " + steps);
+        }
+        while (true) {
+            push(node);
+            int before = sizes[left[node]];
+            if (steps < before) {
+                node = left[node];
+            } else if (steps == before) {
+                break;
+            } else {
+                steps -= before + 1;
+                node = right[node];
+            }
+        }
+        splay(node);
+        return node - 1;
+    }
+
+    private int findRoot(int node) {
+        access(node);
+        int root = node;
+        push(root);
+        while (left[root] != NIL) {
+            root = left[root];
+            push(root);
+        }
+        splay(root);
+        return root;
+    }
+
+    private void makeRoot(int node) {
+        access(node);
+        flipped[node] = !flipped[node];
+    }
+
+    /**
+     * Makes the path from the root of the node's tree down to the node preferred, leaving the node at the root of
+     * that path's splay tree with nothing deeper than it.
+     */
+    private void access(int node) {
+        int last = NIL;
+        for (int current = node; current != NIL; current = parents[current]) {
+            splay(current);
+            right[current] = last;
+            pull(current);
+            last = current;
+        }
+        splay(node);
+    }
+
+    private boolean isSplayRoot(int node) {
+        int parent = parents[node];
+        return parent == NIL || (left[parent] != node && right[parent] != node);
+    }
+
+    private void splay(int node) {
+        int depth = 0;
+        pushStack[depth++] = node;
+        for (int current = node; !isSplayRoot(current); current = parents[current]) {
+            pushStack[depth++] = parents[current];
+        }
+        while (depth > 0) {
+            push(pushStack[--depth]);
+        }
+
+        while (!isSplayRoot(node)) {
+            int parent = parents[node];
+            if (!isSplayRoot(parent)) {
+                int grandparent = parents[parent];
+                boolean zigZig = (left[grandparent] == parent) == (left[parent] == node);
+                rotate(zigZig ? parent : node);
+            }
+            rotate(node);
+        }
+    }
+
+    private void rotate(int node) {
+        int parent = parents[node];
+        int grandparent = parents[parent];
+        boolean parentWasRoot = isSplayRoot(parent);
+        if (left[parent] == node) {
+            left[parent] = right[node];
+            if (right[node] != NIL) {
+                parents[right[node]] = parent;
+            }
+            right[node] = parent;
+        } else {
+            right[parent] = left[node];
+            if (left[node] != NIL) {
+                parents[left[node]] = parent;
+            }
+            left[node] = parent;
+        }
+        parents[parent] = node;
+        parents[node] = grandparent;
+        if (!parentWasRoot) {
+            if (left[grandparent] == parent) {
+                left[grandparent] = node;
+            } else {
+                right[grandparent] = node;
+            }
+        }
+        pull(parent);
+        pull(node);
+    }
+
+    private void push(int node) {
+        if (flipped[node]) {
+            int swap = left[node];
+            left[node] = right[node];
+            right[node] = swap;
+            if (left[node] != NIL) {
+                flipped[left[node]] = !flipped[left[node]];
+            }
+            if (right[node] != NIL) {
+                flipped[right[node]] = !flipped[right[node]];
+            }
+            flipped[node] = false;
+        }
+    }
+
+    private void pull(int node) {
+        sizes[node] = 1 + sizes[left[node]] + sizes[right[node]];
+    }
+}
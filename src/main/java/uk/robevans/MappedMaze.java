@@ -0,0 +1,34 @@
+package uk.robevans;
+
+import java.nio.LongBuffer;
+
+/**
+ * A maze read straight out of a memory mapped {@link MazeFile}. Nothing is copied onto the heap - each lookup
+ * reads the mapped page, so opening even a huge maze only costs the time to map the file.
+ */
+public final class MappedMaze extends BitPackedMaze {
+
+    private final LongBuffer passages;
+    private final long seed;
+    private final MazeAlgorithm algorithm;
+
+    MappedMaze(int width, int height, long seed, MazeAlgorithm algorithm, LongBuffer passages) {
+        super(width, height);
+        this.seed = seed;
+        this.algorithm = algorithm;
+        this.passages = passages;
+    }
+
+    @Override
+    long passageWord(int wordIndex) {
+        return passages.get(wordIndex);
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public MazeAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+}
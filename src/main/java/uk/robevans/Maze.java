@@ -0,0 +1,35 @@
+package uk.robevans;
+
+/**
+ * A read only, generated maze. Cells are indexed row * width + col, the same as {@link GridGraph},
+ * and a passage is open between a cell and its neighbour when there is no wall between them.
+ */
+public interface Maze {
+
+    int getWidth();
+
+    int getHeight();
+
+    boolean isOpen(int cell, Direction direction);
+
+    default int getCellCount() {
+        return getWidth() * getHeight();
+    }
+
+    default int index(int x, int y) {
+        return y * getWidth() + x;
+    }
+
+    /**
+     * @return the index of the cell next to the given one in that direction, or -1 when it would fall off the grid
+     */
+    default int neighbour(int cell, Direction direction) {
+        int width = getWidth();
+        int x = cell % width + direction.xOffset;
+        int y = cell / width + direction.yOffset;
+        if (x < 0 || y < 0 || x >= width || y >= getHeight()) {
+            return -1;
+        }
+        return y * width + x;
+    }
+}
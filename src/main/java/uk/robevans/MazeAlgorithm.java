@@ -0,0 +1,31 @@
+package uk.robevans;
+
+/**
+ * The maze generation algorithms a {@link Game} can be configured with.
+ * The ordinals are saved in {@link MazeFile} headers, so new algorithms must only ever be added at the end.
+ */
+public enum MazeAlgorithm {
+    PRIM,
+    KRUSKAL,
+    WILSON,
+    RECURSIVE_BACKTRACKER,
+    ELLER,
+    TILED;
+
+    public MazeGenerator newGenerator() {
+        switch (this) {
+            case KRUSKAL:
+                return new KruskalMazeGenerator();
+            case WILSON:
+                return new WilsonMazeGenerator();
+            case RECURSIVE_BACKTRACKER:
+                return new RecursiveBacktrackerMazeGenerator();
+            case ELLER:
+                return new EllerMazeGenerator();
+            case TILED:
+                return new TiledMazeGenerator();
+            default:
+                return new PrimMazeGenerator();
+        }
+    }
+}
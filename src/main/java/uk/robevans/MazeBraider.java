@@ -0,0 +1,199 @@
+package uk.robevans;
+
+/**
+ * Turns a perfect maze into a braided one - the README's cyclic graphs and one-way paths. Three passes, each
+ * O(cells):
+ * <ol>
+ * <li>A share of the dead ends, picked at random, have a wall knocked through. A dead end next to another dead end
+ * is joined to it, so one opening clears two, and every opening closes a loop.</li>
+ * <li>With a maximum weight above 1, every exit is given a random weight from 1 up to it.</li>
+ * <li>A share of the passages are made one-way. Which way each one goes comes from a depth first search
+ * (Robbins' theorem): passages down the search tree point away from the start, the passages that close loops
+ * point back towards it, and bridges - passages on no loop at all - always stay two-way. Every cell can still
+ * reach every other, however many passages are made one-way.</li>
+ * </ol>
+ * A braider holds no state between mazes, so one can be shared.
+ */
+public class MazeBraider {
+
+    private static final int CHANCE_SCALE = 1 << 16;
+    // each passage is looked at once, from the cell above or to the left of it
+    private static final Direction[] FORWARD = {Direction.RIGHT, Direction.DOWN};
+
+    private final double deadEndFraction;
+    private final double oneWayFraction;
+    private final int maxWeight;
+
+    public MazeBraider(double deadEndFraction) {
+        this(deadEndFraction, 0, 1);
+    }
+
+    /**
+     * @param deadEndFraction the share of dead ends to open up, from 0 to 1
+     * @param oneWayFraction  the chance each passage has of being made one-way, from 0 to 1 - bridges are never made one-way
+     * @param maxWeight       the heaviest weight to give a passage, from 1 to {@link DirectedMaze#MAX_WEIGHT}
+     */
+    public MazeBraider(double deadEndFraction, double oneWayFraction, int maxWeight) {
+        if (deadEndFraction < 0 || deadEndFraction > 1 || oneWayFraction < 0 || oneWayFraction > 1) {
+            throw new IllegalArgumentException("Fractions must be between 0 and 1, not " + deadEndFraction
+                    + " and " + oneWayFraction);
+        }
+        if (maxWeight < 1 || maxWeight > DirectedMaze.MAX_WEIGHT) {
+            throw new IllegalArgumentException("The max weight must be between 1 and " + DirectedMaze.MAX_WEIGHT
+                    + ", not " + maxWeight);
+        }
+        this.deadEndFraction = deadEndFraction;
+        this.oneWayFraction = oneWayFraction;
+        this.maxWeight = maxWeight;
+    }
+
+    public DirectedMaze braid(Maze maze, MazeRandom random) {
+        DirectedMaze braided = DirectedMaze.of(maze);
+        removeDeadEnds(braided, random);
+        if (maxWeight > 1) {
+            weigh(braided, random);
+        }
+        if (oneWayFraction > 0) {
+            makeOneWay(braided, random);
+        }
+        return braided;
+    }
+
+    private void removeDeadEnds(DirectedMaze maze, MazeRandom random) {
+        int cellCount = maze.getCellCount();
+        int[] deadEnds = new int[cellCount];
+        int deadEndCount = 0;
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (isDeadEnd(maze, cell)) {
+                deadEnds[deadEndCount++] = cell;
+            }
+        }
+        int remaining = deadEndCount;
+        int wanted = deadEndCount - (int) Math.round(deadEndCount * deadEndFraction);
+
+        // visit the dead ends in a random order by shuffling as we go, stopping once enough are gone
+        Direction[] candidates = new Direction[4];
+        for (int i = 0; i < deadEndCount && remaining > wanted; i++) {
+            int pick = i + random.nextInt(deadEndCount - i);
+            int cell = deadEnds[pick];
+            deadEnds[pick] = deadEnds[i];
+            deadEnds[i] = cell;
+            if (!isDeadEnd(maze, cell)) {
+                continue;
+            }
+
+            int candidateCount = 0;
+            boolean deadEndNeighbour = false;
+            for (Direction direction : Direction.VALUES) {
+                int neighbour = maze.neighbour(cell, direction);
+                if (neighbour < 0 || maze.isOpen(cell, direction)) {
+                    continue;
+                }
+                boolean neighbourIsDeadEnd = isDeadEnd(maze, neighbour);
+                if (neighbourIsDeadEnd && !deadEndNeighbour) {
+                    deadEndNeighbour = true;
+                    candidateCount = 0;
+                }
+                if (neighbourIsDeadEnd || !deadEndNeighbour) {
+                    candidates[candidateCount++] = direction;
+                }
+            }
+            if (candidateCount == 0) {
+                // a cell boxed in by the edges of a maze one cell wide
+                continue;
+            }
+            maze.open(cell, candidates[random.nextInt(candidateCount)]);
+            remaining -= deadEndNeighbour ? 2 : 1;
+        }
+    }
+
+    private static boolean isDeadEnd(DirectedMaze maze, int cell) {
+        return Integer.bitCount(maze.exits(cell)) == 1;
+    }
+
+    private void weigh(DirectedMaze maze, MazeRandom random) {
+        for (int cell = 0; cell < maze.getCellCount(); cell++) {
+            for (Direction direction : Direction.VALUES) {
+                if (maze.isOpen(cell, direction)) {
+                    maze.setWeight(cell, direction, 1 + random.nextInt(maxWeight));
+                }
+            }
+        }
+    }
+
+    private void makeOneWay(DirectedMaze maze, MazeRandom random) {
+        int cellCount = maze.getCellCount();
+        int width = maze.getWidth();
+        int[] discovered = new int[cellCount];
+        int[] lowest = new int[cellCount];
+        int[] parents = new int[cellCount];
+        searchDepthFirst(maze, discovered, lowest, parents);
+
+        int threshold = (int) Math.round(oneWayFraction * CHANCE_SCALE);
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (discovered[cell] == 0) {
+                continue;
+            }
+            for (Direction direction : FORWARD) {
+                if (!maze.isOpen(cell, direction) || random.nextInt(CHANCE_SCALE) >= threshold) {
+                    continue;
+                }
+                int neighbour = cell + direction.yOffset * width + direction.xOffset;
+                if (parents[neighbour] == cell) {
+                    if (lowest[neighbour] <= discovered[cell]) {
+                        maze.closeOneWay(neighbour, direction.opposite());
+                    }
+                } else if (parents[cell] == neighbour) {
+                    if (lowest[cell] <= discovered[neighbour]) {
+                        maze.closeOneWay(cell, direction);
+                    }
+                } else if (discovered[cell] > discovered[neighbour]) {
+                    // a loop closing passage always runs from a cell back up to one of its ancestors
+                    maze.closeOneWay(neighbour, direction.opposite());
+                } else {
+                    maze.closeOneWay(cell, direction);
+                }
+            }
+        }
+    }
+
+    /**
+     * Numbers the cells in the order a depth first search from cell 0 reaches them, starting at 1, and works out
+     * the lowest number each cell's subtree has a passage back to - Tarjan's bridge finding, with an explicit
+     * stack so a million cell corridor can't overflow the thread's own.
+     */
+    private static void searchDepthFirst(DirectedMaze maze, int[] discovered, int[] lowest, int[] parents) {
+        int width = maze.getWidth();
+        int[] stack = new int[maze.getCellCount()];
+        byte[] nextDirection = new byte[maze.getCellCount()];
+        int depth = 0;
+        int order = 0;
+        stack[depth++] = 0;
+        parents[0] = -1;
+        discovered[0] = lowest[0] = ++order;
+
+        while (depth > 0) {
+            int cell = stack[depth - 1];
+            if (nextDirection[cell] == Direction.VALUES.length) {
+                depth--;
+                int parent = parents[cell];
+                if (parent >= 0) {
+                    lowest[parent] = Math.min(lowest[parent], lowest[cell]);
+                }
+                continue;
+            }
+            Direction direction = Direction.VALUES[nextDirection[cell]++];
+            if (!maze.isOpen(cell, direction)) {
+                continue;
+            }
+            int neighbour = cell + direction.yOffset * width + direction.xOffset;
+            if (discovered[neighbour] == 0) {
+                parents[neighbour] = cell;
+                discovered[neighbour] = lowest[neighbour] = ++order;
+                stack[depth++] = neighbour;
+            } else if (neighbour != parents[cell]) {
+                lowest[cell] = Math.min(lowest[cell], discovered[neighbour]);
+            }
+        }
+    }
+}
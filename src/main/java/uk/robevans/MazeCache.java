@@ -0,0 +1,202 @@
+package uk.robevans;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Keeps recently built mazes so that asking for the same width, height, seed and algorithm again is a lookup
+ * rather than a rebuild. A seeded maze is fully determined by those four values, so a cached maze is exactly the
+ * one {@code algorithm.newGenerator().generate(width, height, MazeRandom.seeded(seed))} would have carved.
+ * <p>
+ * The cache is bounded by the bytes its mazes take up rather than by how many it holds, and when it is full the
+ * least recently used mazes go first. Callers asking for a maze that is still being built wait for that build
+ * instead of starting their own, so a burst of identical requests only ever builds once.
+ * Mazes are stored as {@link PackedMaze}s, which nothing outside this package can write to, so they are safe
+ * to hand to any number of games at once.
+ */
+public class MazeCache {
+
+    // roughly what the key, the map entry and the maze object cost on top of the passage words themselves
+    private static final long ENTRY_OVERHEAD_BYTES = 128;
+
+    private final long maxBytes;
+    private final Function<MazeAlgorithm, MazeGenerator> generators;
+    // in access order, so iteration starts from the least recently used maze
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long sizeInBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public MazeCache(long maxBytes) {
+        this(maxBytes, MazeAlgorithm::newGenerator);
+    }
+
+    MazeCache(long maxBytes, Function<MazeAlgorithm, MazeGenerator> generators) {
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("The cache must be allowed at least 1 byte");
+        }
+        this.maxBytes = maxBytes;
+        this.generators = generators;
+    }
+
+    /**
+     * @return the cached maze for these settings, building it on the calling thread if no one has yet.
+     * A request that finds the same maze already being built by another thread waits for it and counts as a hit.
+     */
+    public Maze get(int width, int height, long seed, MazeAlgorithm algorithm) {
+        Key key = new Key(width, height, seed, algorithm);
+        Entry entry;
+        boolean building = false;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry();
+                entries.put(key, entry);
+                building = true;
+            }
+        }
+        if (!building) {
+            hits.increment();
+            return await(entry);
+        }
+
+        misses.increment();
+        PackedMaze maze;
+        try {
+            maze = PackedMaze.of(generators.apply(algorithm).generate(width, height, MazeRandom.seeded(seed)));
+        } catch (RuntimeException | Error e) {
+            synchronized (this) {
+                entries.remove(key, entry);
+            }
+            entry.maze.completeExceptionally(e);
+            throw e;
+        }
+        synchronized (this) {
+            // a clear() while we were building means the entry is no longer ours to account for
+            if (entries.get(key) == entry) {
+                long bytes = sizeInBytes(maze);
+                if (bytes > maxBytes) {
+                    // keeping it would mean evicting everything else and then it too
+                    entries.remove(key);
+                    evictions.increment();
+                } else {
+                    entry.bytes = bytes;
+                    sizeInBytes += bytes;
+                    evictToFit();
+                }
+            }
+        }
+        entry.maze.complete(maze);
+        return maze;
+    }
+
+    /**
+     * Drops the least recently used built mazes until the cache is back under its limit. Mazes still being
+     * built have no size yet and are left for their builders.
+     */
+    private void evictToFit() {
+        Iterator<Entry> eldestFirst = entries.values().iterator();
+        while (sizeInBytes > maxBytes && eldestFirst.hasNext()) {
+            Entry eldest = eldestFirst.next();
+            if (eldest.bytes > 0) {
+                eldestFirst.remove();
+                sizeInBytes -= eldest.bytes;
+                evictions.increment();
+            }
+        }
+    }
+
+    private static Maze await(Entry entry) {
+        try {
+            return entry.maze.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    static long sizeInBytes(PackedMaze maze) {
+        return ENTRY_OVERHEAD_BYTES + (long) maze.passageWords().length * Long.BYTES;
+    }
+
+    /**
+     * Forgets every built maze. Builds already under way still complete for the callers waiting on them.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        sizeInBytes = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getSizeInBytes() {
+        return sizeInBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    private static final class Entry {
+        final CompletableFuture<PackedMaze> maze = new CompletableFuture<>();
+        // zero until the maze has been built
+        long bytes;
+    }
+
+    private static final class Key {
+        private final int width;
+        private final int height;
+        private final long seed;
+        private final MazeAlgorithm algorithm;
+
+        Key(int width, int height, long seed, MazeAlgorithm algorithm) {
+            this.width = width;
+            this.height = height;
+            this.seed = seed;
+            this.algorithm = algorithm;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return width == key.width && height == key.height && seed == key.seed && algorithm == key.algorithm;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 31 * width + height;
+            hash = 31 * hash + Long.hashCode(seed);
+            return 31 * hash + algorithm.hashCode();
+        }
+    }
+}
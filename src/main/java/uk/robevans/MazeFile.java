@@ -0,0 +1,116 @@
+package uk.robevans;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Saves mazes in a compact binary format and maps them back in without deserialising them.
+ * <pre>
+ *  offset  size  field
+ *       0     4  magic "MAZE"
+ *       4     2  format version
+ *       6     2  algorithm (MazeAlgorithm ordinal)
+ *       8     4  width
+ *      12     4  height
+ *      16     8  seed
+ *      24     8  reserved
+ *      32     -  passages: two bits per cell (open RIGHT, open DOWN), 32 cells per little endian long
+ * </pre>
+ * The passages are laid out exactly as {@link PackedMaze} holds them in memory, so writing one is a bulk copy
+ * and a mapped file can be read as a {@link Maze} in place.
+ */
+public final class MazeFile {
+
+    static final int MAGIC = 0x4D415A45;
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 32;
+
+    private MazeFile() {
+    }
+
+    public static void write(Path path, Maze maze, long seed, MazeAlgorithm algorithm) throws IOException {
+        int words = BitPackedMaze.wordCount(maze.getCellCount());
+        try (FileChannel channel = FileChannel.open(path, CREATE, TRUNCATE_EXISTING, READ, WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) words * Long.BYTES);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC)
+                    .putShort(VERSION)
+                    .putShort((short) algorithm.ordinal())
+                    .putInt(maze.getWidth())
+                    .putInt(maze.getHeight())
+                    .putLong(seed)
+                    .putLong(0L);
+
+            LongBuffer passages = buffer.asLongBuffer();
+            if (maze instanceof PackedMaze) {
+                passages.put(((PackedMaze) maze).passageWords());
+            } else {
+                putPassagesOf(maze, passages, words);
+            }
+            buffer.force();
+        }
+    }
+
+    /**
+     * Maps a saved maze read only. The mapping stays valid after this returns and is released when the maze
+     * is garbage collected.
+     */
+    public static MappedMaze map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException(path + " is too short to be a maze file");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException(path + " is not a maze file");
+            }
+            if (buffer.getShort(4) != VERSION) {
+                throw new IOException(path + " has unsupported maze file version " + buffer.getShort(4));
+            }
+            int algorithm = buffer.getShort(6);
+            int width = buffer.getInt(8);
+            int height = buffer.getInt(12);
+            long seed = buffer.getLong(16);
+            if (algorithm < 0 || algorithm >= MazeAlgorithm.values().length) {
+                throw new IOException(path + " was generated by an unknown algorithm " + algorithm);
+            }
+            long expectedSize = HEADER_SIZE + (long) BitPackedMaze.wordCount((long) width * height) * Long.BYTES;
+            if (width < 1 || height < 1 || channel.size() != expectedSize) {
+                throw new IOException(path + " should be " + expectedSize + " bytes for a " + width + "x" + height + " maze");
+            }
+
+            buffer.position(HEADER_SIZE);
+            ByteBuffer body = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+            return new MappedMaze(width, height, seed, MazeAlgorithm.values()[algorithm], body.asLongBuffer());
+        }
+    }
+
+    private static void putPassagesOf(Maze maze, LongBuffer passages, int words) {
+        int cellCount = maze.getCellCount();
+        for (int word = 0; word < words; word++) {
+            long bits = 0L;
+            int firstCell = word << 5;
+            int lastCell = Math.min(firstCell + 32, cellCount);
+            for (int cell = firstCell; cell < lastCell; cell++) {
+                if (maze.isOpen(cell, Direction.RIGHT)) {
+                    bits |= BitPackedMaze.passageMask(cell, BitPackedMaze.RIGHT_BIT);
+                }
+                if (maze.isOpen(cell, Direction.DOWN)) {
+                    bits |= BitPackedMaze.passageMask(cell, BitPackedMaze.DOWN_BIT);
+                }
+            }
+            passages.put(bits);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package uk.robevans;
+
+/**
+ * Carves a perfect maze - exactly one path between any two cells - into a width x height grid.
+ */
+public interface MazeGenerator {
+
+    /**
+     * Generators keep no state between calls, so one generator can be shared by many threads as long as each
+     * passes in its own random. The same seeded random always gives the same maze.
+     */
+    Maze generate(int width, int height, MazeRandom random);
+
+    default Maze generate(int width, int height) {
+        return generate(width, height, MazeRandom.unseeded());
+    }
+}
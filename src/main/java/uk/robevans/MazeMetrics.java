@@ -0,0 +1,227 @@
+package uk.robevans;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Times and counts the expensive parts of building and playing a maze, for sizing the fleet and catching
+ * regressions. Instrumented code takes the shared instance from {@link #get()} and brackets an operation like so:
+ * <pre>
+ *   MazeMetrics metrics = MazeMetrics.get();
+ *   long started = metrics.startTime();
+ *   long allocated = metrics.allocatedBytes();
+ *   ...
+ *   metrics.record(MazeMetrics.Operation.SPANNING_TREE_BUILD, started, allocated);
+ * </pre>
+ * The shared instance is picked once, from the {@code uk.robevans.metrics} system property, and kept in a static
+ * final field. Metrics are off unless it is set to {@code on}: off picks an implementation whose methods are
+ * empty, which the JIT inlines down to nothing, so switched off metrics cost the hot paths nothing at all. Setting
+ * it to {@code jfr} also commits a {@link MazeOperationEvent} for every operation, for recordings taken with Flight
+ * Recorder. Only whole operations are bracketed - a build, a solve, a game - never a step within one, so even
+ * switched on the cost is a few reads of the clock per operation.
+ * <p>
+ * Readings are pulled with {@link #snapshot()}; nothing is pushed anywhere.
+ */
+public abstract class MazeMetrics {
+
+    public static final String PROPERTY = "uk.robevans.metrics";
+
+    private static final MazeMetrics INSTANCE = fromProperty(System.getProperty(PROPERTY, "off"));
+
+    public enum Operation {
+        SPANNING_TREE_BUILD,
+        INIT_EDGE_MAP,
+        GAME_CONSTRUCTION,
+        MAZE_GENERATION,
+        MAZE_SOLVE
+    }
+
+    public enum Counter {
+        CELLS_PROCESSED,
+        HEAP_INSERTS,
+        HEAP_DECREASE_KEYS,
+        HEAP_POLLS
+    }
+
+    public enum Distribution {
+        /**
+         * The most cells waiting on the frontier at once during one Prim build
+         */
+        PEAK_FRONTIER_SIZE
+    }
+
+    public static MazeMetrics get() {
+        return INSTANCE;
+    }
+
+    static MazeMetrics fromProperty(String setting) {
+        switch (setting) {
+            case "on":
+                return new Recording(false);
+            case "jfr":
+                return new Recording(true);
+            default:
+                return noOp();
+        }
+    }
+
+    public static MazeMetrics noOp() {
+        return NoOp.INSTANCE;
+    }
+
+    /**
+     * A fresh set of metrics to record into, separate from the shared one.
+     */
+    public static MazeMetrics recording() {
+        return new Recording(false);
+    }
+
+    /**
+     * @return a timestamp to pass to {@link #record}, or 0 when metrics are off
+     */
+    public abstract long startTime();
+
+    /**
+     * @return the bytes the calling thread has allocated so far, or 0 when metrics are off or the JVM cannot say
+     */
+    public abstract long allocatedBytes();
+
+    /**
+     * Records how long an operation took and how much the calling thread allocated doing it.
+     */
+    public abstract void record(Operation operation, long startTime, long allocatedBytesAtStart);
+
+    public abstract void count(Counter counter, long amount);
+
+    public abstract void record(Distribution distribution, long value);
+
+    public abstract MetricsSnapshot snapshot();
+
+    private static final class NoOp extends MazeMetrics {
+
+        private static final NoOp INSTANCE = new NoOp();
+        private static final MetricsSnapshot EMPTY = new Recording(false).snapshot();
+
+        @Override
+        public long startTime() {
+            return 0;
+        }
+
+        @Override
+        public long allocatedBytes() {
+            return 0;
+        }
+
+        @Override
+        public void record(Operation operation, long startTime, long allocatedBytesAtStart) {
+        }
+
+        @Override
+        public void count(Counter counter, long amount) {
+        }
+
+        @Override
+        public void record(Distribution distribution, long value) {
+        }
+
+        @Override
+        public MetricsSnapshot snapshot() {
+            return EMPTY;
+        }
+    }
+
+    private static final class Recording extends MazeMetrics {
+
+        private final boolean jfrEvents;
+        private final com.sun.management.ThreadMXBean allocations;
+        private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+        private final Map<Operation, LongAdder> allocatedBytes = new EnumMap<>(Operation.class);
+        private final Map<Counter, LongAdder> counters = new EnumMap<>(Counter.class);
+        private final Map<Distribution, Histogram> distributions = new EnumMap<>(Distribution.class);
+
+        Recording(boolean jfrEvents) {
+            this.jfrEvents = jfrEvents;
+            this.allocations = allocationCounter();
+            for (Operation operation : Operation.values()) {
+                latencies.put(operation, new Histogram());
+                allocatedBytes.put(operation, new LongAdder());
+            }
+            for (Counter counter : Counter.values()) {
+                counters.put(counter, new LongAdder());
+            }
+            for (Distribution distribution : Distribution.values()) {
+                distributions.put(distribution, new Histogram());
+            }
+        }
+
+        private static com.sun.management.ThreadMXBean allocationCounter() {
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            if (threads instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) threads;
+                if (counter.isThreadAllocatedMemorySupported() && counter.isThreadAllocatedMemoryEnabled()) {
+                    return counter;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public long startTime() {
+            return System.nanoTime();
+        }
+
+        @Override
+        public long allocatedBytes() {
+            return allocations == null ? 0 : allocations.getCurrentThreadAllocatedBytes();
+        }
+
+        @Override
+        public void record(Operation operation, long startTime, long allocatedBytesAtStart) {
+            long nanos = System.nanoTime() - startTime;
+            long allocated = allocations == null ? 0 : allocations.getCurrentThreadAllocatedBytes() - allocatedBytesAtStart;
+            latencies.get(operation).record(nanos);
+            allocatedBytes.get(operation).add(allocated);
+            if (jfrEvents) {
+                MazeOperationEvent event = new MazeOperationEvent();
+                if (event.isEnabled()) {
+                    event.operation = operation.name();
+                    event.nanos = nanos;
+                    event.allocatedBytes = allocated;
+                    event.commit();
+                }
+            }
+        }
+
+        @Override
+        public void count(Counter counter, long amount) {
+            counters.get(counter).add(amount);
+        }
+
+        @Override
+        public void record(Distribution distribution, long value) {
+            distributions.get(distribution).record(value);
+        }
+
+        @Override
+        public MetricsSnapshot snapshot() {
+            Map<Operation, Histogram.Snapshot> latencySnapshots = new EnumMap<>(Operation.class);
+            Map<Operation, Long> allocationSnapshots = new EnumMap<>(Operation.class);
+            for (Operation operation : Operation.values()) {
+                latencySnapshots.put(operation, latencies.get(operation).snapshot());
+                allocationSnapshots.put(operation, allocatedBytes.get(operation).sum());
+            }
+            Map<Counter, Long> counterSnapshots = new EnumMap<>(Counter.class);
+            for (Counter counter : Counter.values()) {
+                counterSnapshots.put(counter, counters.get(counter).sum());
+            }
+            Map<Distribution, Histogram.Snapshot> distributionSnapshots = new EnumMap<>(Distribution.class);
+            for (Distribution distribution : Distribution.values()) {
+                distributionSnapshots.put(distribution, distributions.get(distribution).snapshot());
+            }
+            return new MetricsSnapshot(latencySnapshots, allocationSnapshots, counterSnapshots, distributionSnapshots);
+        }
+    }
+}
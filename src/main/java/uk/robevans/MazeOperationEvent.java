@@ -0,0 +1,30 @@
+package uk.robevans;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * A Flight Recorder event for one timed maze operation, committed when metrics run with
+ * {@code -Duk.robevans.metrics=jfr} and a recording has the event enabled.
+ */
+@Name("uk.robevans.MazeOperation")
+@Label("Maze Operation")
+@Category("Maze")
+@Description("One spanning tree build, maze generation, solve or other timed maze operation")
+class MazeOperationEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long nanos;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocatedBytes;
+}
@@ -0,0 +1,65 @@
+package uk.robevans;
+
+/**
+ * The source of randomness behind maze generation and player placement. Everything is driven off a single
+ * seed: the same seed gives the same maze, mouse and cheese. Each worker or stage takes its own
+ * {@link #split()} rather than sharing one generator, so parallel generation has no shared state to contend on.
+ * Implementations are not thread safe.
+ */
+public interface MazeRandom {
+
+    long nextLong();
+
+    /**
+     * @return a new, independent generator whose sequence is fixed by this one's current state
+     */
+    MazeRandom split();
+
+    default int nextInt() {
+        return (int) (nextLong() >>> 32);
+    }
+
+    /**
+     * @return a uniformly distributed int in [0, bound), using Lemire's multiply and shift with rejection
+     */
+    default int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive");
+        }
+        long product = (nextInt() & 0xFFFFFFFFL) * bound;
+        long low = product & 0xFFFFFFFFL;
+        if (low < bound) {
+            long threshold = (0x100000000L - bound) % bound;
+            while (low < threshold) {
+                product = (nextInt() & 0xFFFFFFFFL) * bound;
+                low = product & 0xFFFFFFFFL;
+            }
+        }
+        return (int) (product >>> 32);
+    }
+
+    /**
+     * Fills part of an array with {@link #nextInt()}s, in order, so a row of weights costs one call rather than one
+     * per cell. The ints are exactly those that calling nextInt() that many times would give.
+     *
+     * @param from the first index filled
+     * @param to   one past the last index filled
+     */
+    default void nextInts(int[] into, int from, int to) {
+        for (int i = from; i < to; i++) {
+            into[i] = nextInt();
+        }
+    }
+
+    default boolean nextBoolean() {
+        return nextLong() < 0;
+    }
+
+    static MazeRandom seeded(long seed) {
+        return new SplittableMazeRandom(seed);
+    }
+
+    static MazeRandom unseeded() {
+        return new SplittableMazeRandom();
+    }
+}
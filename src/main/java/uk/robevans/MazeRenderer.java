@@ -0,0 +1,488 @@
+package uk.robevans;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Draws a maze as text or as an image straight from its passages, a row at a time, into one reusable direct
+ * {@link ByteBuffer} that is drained into a channel - a {@link java.nio.channels.FileChannel}, a socket, or
+ * {@link java.nio.channels.Channels#newChannel} over a stream - whenever it fills. Nothing is built per cell: each
+ * row of the drawing is worked out into a small array of what is at each spot (wall, open, path, mouse, cheese)
+ * and encoded from there, and every array is kept for the next render, so after the first render of a given size
+ * drawing allocates nothing at all.
+ * <p>
+ * The drawing is a grid 2 * width + 1 spots across and 2 * height + 1 down: cells on the odd rows and columns,
+ * the walls and passages between them on the even ones. Text comes out as {@code #} walls or Unicode box drawing;
+ * images as uncompressed binary PPM or as an indexed PNG deflated as it streams, each spot {@link #setScale scale}
+ * pixels square. The mouse, the cheese and a path set with {@link #setPath} are drawn over the maze.
+ * <p>
+ * A renderer holds a {@link Deflater}, so close it when done. It is not thread safe; give each thread its own.
+ */
+public class MazeRenderer implements AutoCloseable {
+
+    public enum Format {
+        ASCII,
+        UNICODE,
+        PPM,
+        PNG
+    }
+
+    private static final int DEFAULT_BUFFER_BYTES = 64 * 1024;
+    private static final int NONE = -1;
+
+    private static final byte OPEN = 0;
+    private static final byte WALL = 1;
+    private static final byte PATH = 2;
+    private static final byte MOUSE = 3;
+    private static final byte CHEESE = 4;
+
+    private static final byte[] ASCII_SPOTS = {' ', '#', '.', 'M', 'C'};
+    private static final byte[][] UNICODE_SPOTS = utf8(" ", "#", "·", "M", "C");
+    // box drawing corners and crossings, indexed by which arms have a wall: up 1, down 2, left 4, right 8
+    private static final byte[][] UNICODE_JUNCTIONS = utf8(" ", "╵", "╷", "│", "╴", "┘",
+            "┐", "┤", "╶", "└", "┌", "├", "─", "┴", "┬", "┼");
+    private static final byte[] UNICODE_HORIZONTAL = UNICODE_JUNCTIONS[12];
+    private static final byte[] UNICODE_VERTICAL = UNICODE_JUNCTIONS[3];
+    // open, wall, path, mouse and cheese colours, indexed by spot
+    private static final byte[] PALETTE = {
+            (byte) 255, (byte) 255, (byte) 255,
+            (byte) 32, (byte) 32, (byte) 32,
+            (byte) 66, (byte) 133, (byte) 244,
+            (byte) 128, (byte) 128, (byte) 128,
+            (byte) 255, (byte) 200, (byte) 0
+    };
+    // 8 bit indexed colour, deflate, adaptive filtering, no interlace
+    private static final byte[] PNG_IMAGE_TYPE = {8, 3, 0, 0, 0};
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    private final ByteBuffer buffer;
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final CRC32 crc = new CRC32();
+    private final byte[] chunkHeader = new byte[8];
+    private final byte[] imageSize = new byte[8];
+    private final byte[] deflated = new byte[DEFAULT_BUFFER_BYTES];
+    private WritableByteChannel out;
+    private int scale = 2;
+
+    private int mouseCell = NONE;
+    private int cheeseCell = NONE;
+    private int[] pathCells = new int[0];
+    private int pathLength;
+
+    // grown to fit the largest maze rendered so far and reused
+    private long[] onPath = new long[0];
+    private long[] pathPassages = new long[0];
+    private byte[] above = new byte[0];
+    private byte[] row = new byte[0];
+    private byte[] below = new byte[0];
+    private byte[] encoded = new byte[0];
+
+    public MazeRenderer() {
+        this(DEFAULT_BUFFER_BYTES);
+    }
+
+    public MazeRenderer(int bufferBytes) {
+        this.buffer = ByteBuffer.allocateDirect(Math.max(bufferBytes, 64));
+    }
+
+    /**
+     * @param pixelsPerSpot how many pixels square each wall, passage and cell is drawn in images
+     */
+    public void setScale(int pixelsPerSpot) {
+        if (pixelsPerSpot < 1) {
+            throw new IllegalArgumentException("The scale must be at least 1 pixel, not " + pixelsPerSpot);
+        }
+        this.scale = pixelsPerSpot;
+    }
+
+    /**
+     * @param cell the mouse's cell, or -1 to leave it out
+     */
+    public void setMouse(int cell) {
+        mouseCell = cell;
+    }
+
+    /**
+     * @param cell the cheese's cell, or -1 to leave it out
+     */
+    public void setCheese(int cell) {
+        cheeseCell = cell;
+    }
+
+    /**
+     * Copies a path to draw, such as the first {@link MazeSolver#getPathLength()} cells of
+     * {@link MazeSolver#getPath()}. Consecutive cells must be next to each other.
+     */
+    public void setPath(int[] cells, int length) {
+        if (pathCells.length < length) {
+            pathCells = new int[length];
+        }
+        System.arraycopy(cells, 0, pathCells, 0, length);
+        pathLength = length;
+    }
+
+    public void clearOverlays() {
+        mouseCell = NONE;
+        cheeseCell = NONE;
+        pathLength = 0;
+    }
+
+    public void render(Maze maze, Format format, WritableByteChannel channel) throws IOException {
+        out = channel;
+        buffer.clear();
+        prepare(maze);
+        try {
+            switch (format) {
+                case ASCII:
+                case UNICODE:
+                    renderText(maze, format == Format.UNICODE);
+                    break;
+                case PPM:
+                    renderPpm(maze);
+                    break;
+                default:
+                    renderPng(maze);
+                    break;
+            }
+            drain();
+        } finally {
+            out = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        deflater.end();
+    }
+
+    private void renderText(Maze maze, boolean unicode) throws IOException {
+        int rows = 2 * maze.getHeight() + 1;
+        int columns = 2 * maze.getWidth() + 1;
+        // a box drawing character is three bytes of UTF-8
+        growEncoded(3 * columns + 1);
+        fillRow(maze, 0, row);
+        for (int gridY = 0; gridY < rows; gridY++) {
+            fillRow(maze, gridY + 1, below);
+            int length = 0;
+            for (int gridX = 0; gridX < columns; gridX++) {
+                byte spot = row[gridX];
+                if (!unicode) {
+                    encoded[length++] = ASCII_SPOTS[spot];
+                    continue;
+                }
+                byte[] character;
+                if (spot != WALL) {
+                    character = UNICODE_SPOTS[spot];
+                } else if ((gridY & 1) == 1) {
+                    character = UNICODE_VERTICAL;
+                } else if ((gridX & 1) == 1) {
+                    character = UNICODE_HORIZONTAL;
+                } else {
+                    int arms = (gridY > 0 && above[gridX] == WALL ? 1 : 0)
+                            | (gridY < rows - 1 && below[gridX] == WALL ? 2 : 0)
+                            | (gridX > 0 && row[gridX - 1] == WALL ? 4 : 0)
+                            | (gridX < columns - 1 && row[gridX + 1] == WALL ? 8 : 0);
+                    character = UNICODE_JUNCTIONS[arms];
+                }
+                for (byte b : character) {
+                    encoded[length++] = b;
+                }
+            }
+            encoded[length++] = '\n';
+            put(encoded, 0, length);
+            rollRows();
+        }
+    }
+
+    private void renderPpm(Maze maze) throws IOException {
+        int rows = 2 * maze.getHeight() + 1;
+        int columns = 2 * maze.getWidth() + 1;
+        int rowBytes = columns * scale * 3;
+        // "P6\n", two sizes of up to ten digits with a space and a newline, then "255\n"
+        growEncoded(Math.max(rowBytes, 29));
+        int length = writeAscii("P6\n", 0);
+        length = writeDigits(columns * scale, length);
+        encoded[length++] = ' ';
+        length = writeDigits(rows * scale, length);
+        length = writeAscii("\n255\n", length);
+        put(encoded, 0, length);
+        for (int gridY = 0; gridY < rows; gridY++) {
+            fillRow(maze, gridY, row);
+            int pixel = 0;
+            for (int gridX = 0; gridX < columns; gridX++) {
+                int colour = row[gridX] * 3;
+                for (int i = 0; i < scale; i++) {
+                    encoded[pixel++] = PALETTE[colour];
+                    encoded[pixel++] = PALETTE[colour + 1];
+                    encoded[pixel++] = PALETTE[colour + 2];
+                }
+            }
+            for (int i = 0; i < scale; i++) {
+                put(encoded, 0, rowBytes);
+            }
+        }
+    }
+
+    private void renderPng(Maze maze) throws IOException {
+        int rows = 2 * maze.getHeight() + 1;
+        int columns = 2 * maze.getWidth() + 1;
+        int imageWidth = columns * scale;
+        put(PNG_SIGNATURE);
+
+        writeInt(imageSize, 0, imageWidth);
+        writeInt(imageSize, 4, rows * scale);
+        startChunk("IHDR", imageSize.length + PNG_IMAGE_TYPE.length);
+        chunkData(imageSize, 0, imageSize.length);
+        chunkData(PNG_IMAGE_TYPE, 0, PNG_IMAGE_TYPE.length);
+        endChunk();
+        startChunk("PLTE", PALETTE.length);
+        chunkData(PALETTE, 0, PALETTE.length);
+        endChunk();
+
+        // every scanline starts with its filter type, 0 for none
+        int scanlineBytes = imageWidth + 1;
+        growEncoded(scanlineBytes);
+        encoded[0] = 0;
+        deflater.reset();
+        int deflatedLength = 0;
+        for (int gridY = 0; gridY < rows; gridY++) {
+            fillRow(maze, gridY, row);
+            int pixel = 1;
+            for (int gridX = 0; gridX < columns; gridX++) {
+                byte spot = row[gridX];
+                for (int i = 0; i < scale; i++) {
+                    encoded[pixel++] = spot;
+                }
+            }
+            for (int i = 0; i < scale; i++) {
+                deflater.setInput(encoded, 0, scanlineBytes);
+                while (!deflater.needsInput()) {
+                    deflatedLength = deflateInto(deflatedLength);
+                }
+            }
+        }
+        deflater.finish();
+        while (!deflater.finished()) {
+            deflatedLength = deflateInto(deflatedLength);
+        }
+        if (deflatedLength > 0) {
+            writeImageData(deflatedLength);
+        }
+        startChunk("IEND", 0);
+        endChunk();
+    }
+
+    /**
+     * Deflates into what is left of the output array, writing it out as an IDAT chunk once it is full.
+     *
+     * @return how much of the output array is now in use
+     */
+    private int deflateInto(int used) throws IOException {
+        used += deflater.deflate(deflated, used, deflated.length - used);
+        if (used == deflated.length) {
+            writeImageData(used);
+            return 0;
+        }
+        return used;
+    }
+
+    private void writeImageData(int length) throws IOException {
+        startChunk("IDAT", length);
+        chunkData(deflated, 0, length);
+        endChunk();
+    }
+
+    private void startChunk(String type, int length) throws IOException {
+        writeInt(chunkHeader, 0, length);
+        for (int i = 0; i < 4; i++) {
+            chunkHeader[4 + i] = (byte) type.charAt(i);
+        }
+        put(chunkHeader, 0, 8);
+        crc.reset();
+        crc.update(chunkHeader, 4, 4);
+    }
+
+    private void chunkData(byte[] data, int offset, int length) throws IOException {
+        crc.update(data, offset, length);
+        put(data, offset, length);
+    }
+
+    private void endChunk() throws IOException {
+        writeInt(chunkHeader, 0, (int) crc.getValue());
+        put(chunkHeader, 0, 4);
+    }
+
+    private static void writeInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    /**
+     * Sizes the reusable rows for the maze and marks the path's cells and the passages between them.
+     */
+    private void prepare(Maze maze) {
+        int cellCount = maze.getCellCount();
+        int columns = 2 * maze.getWidth() + 1;
+        if (row.length < columns) {
+            above = new byte[columns];
+            row = new byte[columns];
+            below = new byte[columns];
+        }
+        // a cell takes one bit of onPath but two of pathPassages, so each is sized by its own count of words
+        int cellWords = (cellCount + 63) >>> 6;
+        if (onPath.length < cellWords) {
+            onPath = new long[cellWords];
+        } else {
+            Arrays.fill(onPath, 0, cellWords, 0L);
+        }
+        int passageWords = BitPackedMaze.wordCount(cellCount);
+        if (pathPassages.length < passageWords) {
+            pathPassages = new long[passageWords];
+        } else {
+            Arrays.fill(pathPassages, 0, passageWords, 0L);
+        }
+        int width = maze.getWidth();
+        for (int i = 0; i < pathLength; i++) {
+            int cell = pathCells[i];
+            onPath[cell >>> 6] |= 1L << cell;
+            if (i > 0) {
+                // vertical steps are checked first, as in a maze one cell wide the cell below is also the next index
+                int previous = pathCells[i - 1];
+                int difference = cell - previous;
+                int owner = Math.min(cell, previous);
+                int bit = difference == width || difference == -width ? BitPackedMaze.DOWN_BIT : BitPackedMaze.RIGHT_BIT;
+                pathPassages[owner >>> 5] |= BitPackedMaze.passageMask(owner, bit);
+            }
+        }
+    }
+
+    /**
+     * Works out what is at every spot along one row of the drawing.
+     */
+    private void fillRow(Maze maze, int gridY, byte[] spots) {
+        int width = maze.getWidth();
+        int height = maze.getHeight();
+        if (gridY > 2 * height) {
+            return;
+        }
+        if ((gridY & 1) == 1) {
+            // a row of cells, with the walls between them
+            int rowStart = (gridY >> 1) * width;
+            spots[0] = WALL;
+            for (int x = 0; x < width; x++) {
+                int cell = rowStart + x;
+                spots[2 * x + 1] = cellSpot(cell);
+                spots[2 * x + 2] = x == width - 1 ? WALL : passageSpot(maze, cell, Direction.RIGHT);
+            }
+            return;
+        }
+        // a row of walls, between the cells above and below
+        int y = gridY >> 1;
+        for (int x = 0; x < width; x++) {
+            spots[2 * x + 1] = y == 0 || y == height ? WALL : passageSpot(maze, (y - 1) * width + x, Direction.DOWN);
+        }
+        for (int x = 0; x <= width; x++) {
+            // a corner is only left out when all four walls meeting at it are, as in an open square of a braided maze
+            boolean open = y > 0 && y < height && x > 0 && x < width
+                    && spots[2 * x - 1] != WALL && spots[2 * x + 1] != WALL
+                    && maze.isOpen((y - 1) * width + x - 1, Direction.RIGHT)
+                    && maze.isOpen(y * width + x - 1, Direction.RIGHT);
+            spots[2 * x] = open ? OPEN : WALL;
+        }
+    }
+
+    private byte cellSpot(int cell) {
+        if (cell == mouseCell) {
+            return MOUSE;
+        }
+        if (cell == cheeseCell) {
+            return CHEESE;
+        }
+        return (onPath[cell >>> 6] & (1L << cell)) != 0 ? PATH : OPEN;
+    }
+
+    private byte passageSpot(Maze maze, int cell, Direction direction) {
+        if (!maze.isOpen(cell, direction)) {
+            return WALL;
+        }
+        int bit = direction == Direction.RIGHT ? BitPackedMaze.RIGHT_BIT : BitPackedMaze.DOWN_BIT;
+        return (pathPassages[cell >>> 5] & BitPackedMaze.passageMask(cell, bit)) != 0 ? PATH : OPEN;
+    }
+
+    private void rollRows() {
+        byte[] oldest = above;
+        above = row;
+        row = below;
+        below = oldest;
+    }
+
+    /**
+     * @return where in {@link #encoded} the text ended
+     */
+    private int writeAscii(String text, int at) {
+        for (int i = 0; i < text.length(); i++) {
+            encoded[at++] = (byte) text.charAt(i);
+        }
+        return at;
+    }
+
+    /**
+     * @return where in {@link #encoded} the digits of the non-negative value ended
+     */
+    private int writeDigits(int value, int at) {
+        int end = at;
+        for (int rest = value; rest >= 10; rest /= 10) {
+            end++;
+        }
+        for (int i = end; i >= at; i--) {
+            encoded[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return end + 1;
+    }
+
+    private void growEncoded(int length) {
+        if (encoded.length < length) {
+            encoded = new byte[length];
+        }
+    }
+
+    private void put(byte[] bytes) throws IOException {
+        put(bytes, 0, bytes.length);
+    }
+
+    private void put(byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            int chunk = Math.min(length, buffer.remaining());
+            buffer.put(bytes, offset, chunk);
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static byte[][] utf8(String... characters) {
+        byte[][] encoded = new byte[characters.length][];
+        for (int i = 0; i < characters.length; i++) {
+            encoded[i] = characters[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return encoded;
+    }
+}
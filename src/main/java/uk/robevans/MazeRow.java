@@ -0,0 +1,48 @@
+package uk.robevans;
+
+import java.util.Arrays;
+
+/**
+ * One row of a maze as it streams out of an {@link EllerMazeGenerator}. Each cell holds a flag per open
+ * {@link Direction}, set at bit position direction.ordinal(). The same instance is refilled for every row,
+ * so take a {@link #copy()} of it if it has to outlive the callback or iteration step that produced it.
+ */
+public class MazeRow {
+
+    private final byte[] openings;
+    private long row;
+
+    MazeRow(int width) {
+        this.openings = new byte[width];
+    }
+
+    private MazeRow(byte[] openings, long row) {
+        this.openings = openings;
+        this.row = row;
+    }
+
+    public long getRow() {
+        return row;
+    }
+
+    public int getWidth() {
+        return openings.length;
+    }
+
+    public boolean isOpen(int col, Direction direction) {
+        return (openings[col] & (1 << direction.ordinal())) != 0;
+    }
+
+    public MazeRow copy() {
+        return new MazeRow(openings.clone(), row);
+    }
+
+    void reset(long row) {
+        this.row = row;
+        Arrays.fill(openings, (byte) 0);
+    }
+
+    void open(int col, Direction direction) {
+        openings[col] = (byte) (openings[col] | 1 << direction.ordinal());
+    }
+}
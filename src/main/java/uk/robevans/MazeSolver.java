@@ -0,0 +1,155 @@
+package uk.robevans;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A* search from one cell of a {@link Maze} to another, using the Manhattan distance as the heuristic -
+ * it never over estimates in a grid where every step moves one cell UP, DOWN, LEFT or RIGHT, so the path
+ * found is always a shortest one.
+ * <p>
+ * Everything a search needs is allocated once per solver and reused. Rather than clearing the g-score and
+ * parent arrays before each search, every search takes a new stamp and a cell's entries only count if its stamp
+ * matches, so starting a search is O(1) and no search allocates per node.
+ * A solver is not thread safe; give each thread its own.
+ */
+public class MazeSolver {
+
+    public static final int NO_PATH = -1;
+
+    private final Maze maze;
+    private final int width;
+    private final int[] gScores;
+    private final int[] parents;
+    private final int[] openedStamps;
+    private final int[] closedStamps;
+    private final IndexedMinHeap openSet;
+    private final int[] path;
+    private int pathLength;
+    private int stamp;
+
+    public MazeSolver(Maze maze) {
+        int cellCount = maze.getCellCount();
+        this.maze = maze;
+        this.width = maze.getWidth();
+        this.gScores = new int[cellCount];
+        this.parents = new int[cellCount];
+        this.openedStamps = new int[cellCount];
+        this.closedStamps = new int[cellCount];
+        this.openSet = new IndexedMinHeap(cellCount);
+        this.path = new int[cellCount];
+    }
+
+    /**
+     * Finds a shortest path between two cells. The cells on it, start and goal included, can then be read
+     * from {@link #getPath()}.
+     *
+     * @return the number of moves on the path, or {@link #NO_PATH} if the goal can't be reached
+     */
+    public int solve(int startCell, int goalCell) {
+        MazeMetrics metrics = MazeMetrics.get();
+        long started = metrics.startTime();
+        long allocated = metrics.allocatedBytes();
+        int moves = search(startCell, goalCell);
+        metrics.record(MazeMetrics.Operation.MAZE_SOLVE, started, allocated);
+        return moves;
+    }
+
+    private int search(int startCell, int goalCell) {
+        nextStamp();
+        openSet.clear();
+        pathLength = 0;
+
+        int goalX = goalCell % width;
+        int goalY = goalCell / width;
+        gScores[startCell] = 0;
+        parents[startCell] = -1;
+        openedStamps[startCell] = stamp;
+        openSet.insert(startCell, manhattanDistance(startCell, goalX, goalY));
+
+        while (!openSet.isEmpty()) {
+            int cell = openSet.pollMin();
+            if (cell == goalCell) {
+                return tracePathBackFrom(goalCell);
+            }
+            closedStamps[cell] = stamp;
+
+            int tentativeScore = gScores[cell] + 1;
+            for (Direction direction : Direction.VALUES) {
+                if (!maze.isOpen(cell, direction)) {
+                    continue;
+                }
+                int neighbour = cell + direction.yOffset * width + direction.xOffset;
+                if (closedStamps[neighbour] == stamp) {
+                    continue;
+                }
+                if (openedStamps[neighbour] != stamp) {
+                    openedStamps[neighbour] = stamp;
+                    gScores[neighbour] = tentativeScore;
+                    parents[neighbour] = cell;
+                    openSet.insert(neighbour, tentativeScore + manhattanDistance(neighbour, goalX, goalY));
+                } else if (tentativeScore < gScores[neighbour]) {
+                    gScores[neighbour] = tentativeScore;
+                    parents[neighbour] = cell;
+                    openSet.decreaseKey(neighbour, tentativeScore + manhattanDistance(neighbour, goalX, goalY));
+                }
+            }
+        }
+        return NO_PATH;
+    }
+
+    /**
+     * @return the cells of the last path found, start first. Only the first {@link #getPathLength()} entries
+     * are valid and the array is overwritten by the next search.
+     */
+    public int[] getPath() {
+        return path;
+    }
+
+    public int getPathLength() {
+        return pathLength;
+    }
+
+    /**
+     * Convenience for callers working with points, such as the cheat button. Allocates the returned list.
+     *
+     * @return the points from the mouse to the cheese inclusive, or an empty list if there is no way through
+     */
+    public List<Point> findPath(Point from, Point to) {
+        List<Point> points = new ArrayList<>();
+        if (solve(maze.index(from.x, from.y), maze.index(to.x, to.y)) == NO_PATH) {
+            return points;
+        }
+        for (int i = 0; i < pathLength; i++) {
+            points.add(new Point(path[i] % width, path[i] / width));
+        }
+        return points;
+    }
+
+    private int tracePathBackFrom(int goalCell) {
+        int length = gScores[goalCell] + 1;
+        int cell = goalCell;
+        for (int i = length - 1; i >= 0; i--) {
+            path[i] = cell;
+            cell = parents[cell];
+        }
+        pathLength = length;
+        return length - 1;
+    }
+
+    private int manhattanDistance(int cell, int goalX, int goalY) {
+        return Math.abs(cell % width - goalX) + Math.abs(cell / width - goalY);
+    }
+
+    private void nextStamp() {
+        stamp++;
+        if (stamp == 0) {
+            // wrapped round after 2^32 searches - old stamps could now look current, so start afresh
+            Arrays.fill(openedStamps, 0);
+            Arrays.fill(closedStamps, 0);
+            stamp = 1;
+        }
+    }
+}
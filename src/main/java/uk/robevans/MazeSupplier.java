@@ -0,0 +1,155 @@
+package uk.robevans;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Builds mazes before anyone asks for them, so starting a game takes a ready maze instead of waiting for one.
+ * Each prepared size gets its own background thread filling a bounded lock-free {@link MpmcRingBuffer}.
+ * A full buffer stops its thread, which sleeps until takers drain the buffer down to the refill watermark and
+ * then tops it back up to capacity. Taking a maze is a single poll of the buffer. When a buffer has run dry, or
+ * the size was never prepared, the maze is built on the calling thread instead, so {@link #get} never waits on
+ * the background threads.
+ * <p>
+ * Prepared mazes are unseeded; reproducible games should use a {@link MazeCache} instead.
+ */
+public class MazeSupplier implements AutoCloseable {
+
+    private final MazeGenerator generator;
+    private final int capacity;
+    private final int refillWatermark;
+    private final Map<Long, Worker> workers = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    private final LongAdder prepared = new LongAdder();
+    private final LongAdder builtOnDemand = new LongAdder();
+
+    /**
+     * @param capacity        how many mazes to keep ready for each size, rounded up to a power of two
+     * @param refillWatermark a worker starts building again once no more than this many mazes are left ready
+     */
+    public MazeSupplier(MazeAlgorithm algorithm, int capacity, int refillWatermark) {
+        this(algorithm.newGenerator(), capacity, refillWatermark);
+    }
+
+    public MazeSupplier(MazeGenerator generator, int capacity, int refillWatermark) {
+        if (refillWatermark < 0 || refillWatermark >= capacity) {
+            throw new IllegalArgumentException("The refill watermark must be at least 0 and below the capacity of "
+                    + capacity + " but was " + refillWatermark);
+        }
+        this.generator = generator;
+        this.capacity = capacity;
+        this.refillWatermark = refillWatermark;
+    }
+
+    /**
+     * Starts a background thread keeping mazes of this size ready. Preparing a size twice does nothing.
+     */
+    public void prepare(int width, int height) {
+        if (closed) {
+            throw new IllegalStateException("The maze supplier has been closed");
+        }
+        workers.computeIfAbsent(key(width, height), key -> {
+            Worker worker = new Worker(width, height);
+            worker.thread.start();
+            return worker;
+        });
+    }
+
+    /**
+     * @return a ready maze of this size if there is one, otherwise one built now on the calling thread
+     */
+    public Maze get(int width, int height) {
+        Worker worker = workers.get(key(width, height));
+        if (worker != null) {
+            Maze maze = worker.ready.poll();
+            if (maze != null) {
+                worker.taken();
+                prepared.increment();
+                return maze;
+            }
+        }
+        builtOnDemand.increment();
+        return generator.generate(width, height);
+    }
+
+    /**
+     * @return how many mazes of this size are ready to take right now
+     */
+    public int getReadyCount(int width, int height) {
+        Worker worker = workers.get(key(width, height));
+        return worker == null ? 0 : worker.ready.size();
+    }
+
+    public long getPreparedCount() {
+        return prepared.sum();
+    }
+
+    public long getBuiltOnDemandCount() {
+        return builtOnDemand.sum();
+    }
+
+    /**
+     * Stops every background thread. Mazes already taken are unaffected, and later calls to {@link #get}
+     * build on the calling thread.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Worker worker : workers.values()) {
+            LockSupport.unpark(worker.thread);
+        }
+        workers.clear();
+    }
+
+    private static long key(int width, int height) {
+        return ((long) width << 32) | (height & 0xFFFFFFFFL);
+    }
+
+    private class Worker implements Runnable {
+
+        private final int width;
+        private final int height;
+        private final MpmcRingBuffer<Maze> ready = new MpmcRingBuffer<>(capacity);
+        private final Thread thread;
+        private volatile boolean sleeping;
+
+        Worker(int width, int height) {
+            this.width = width;
+            this.height = height;
+            this.thread = new Thread(this, "maze-supplier-" + width + "x" + height);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            MazeRandom random = MazeRandom.unseeded();
+            while (!closed) {
+                Maze maze = generator.generate(width, height, random);
+                while (!ready.offer(maze) && !closed) {
+                    sleepUntilDrained();
+                }
+            }
+        }
+
+        /**
+         * Parks until takers leave no more than the watermark ready. The flag is set before the size is checked
+         * and read by takers after they poll, so one side always sees the other and no wake up is lost.
+         */
+        private void sleepUntilDrained() {
+            sleeping = true;
+            while (ready.size() > refillWatermark && !closed) {
+                LockSupport.park(this);
+            }
+            sleeping = false;
+        }
+
+        void taken() {
+            if (sleeping && ready.size() <= refillWatermark) {
+                LockSupport.unpark(thread);
+            }
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package uk.robevans;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Answers shortest path questions between any two cells of a perfect maze without searching.
+ * A perfect maze is a tree, so the one path between two cells runs up from each of them to their lowest common
+ * ancestor. The maze is rooted once, then binary lifting tables (the 2^k-th ancestor of every cell) find that
+ * ancestor in O(log n), and the distance is depth(a) + depth(b) - 2 * depth(ancestor).
+ * <p>
+ * Once built the index is read only, so batches of queries - every mouse against every cheese in a room, say -
+ * are split across a ForkJoinPool. Only mazes without loops are supported; see {@link MazeSolver} otherwise.
+ */
+public class MazeTreeIndex {
+
+    private static final int SEQUENTIAL_THRESHOLD = 1024;
+
+    private final Maze maze;
+    private final int width;
+    private final int[] depths;
+    // ancestors[k][cell] is the 2^k-th ancestor of cell, with the root as its own ancestor
+    private final int[][] ancestors;
+    private final ForkJoinPool pool;
+
+    public MazeTreeIndex(Maze maze) {
+        this(maze, ForkJoinPool.commonPool());
+    }
+
+    public MazeTreeIndex(Maze maze, ForkJoinPool pool) {
+        int cellCount = maze.getCellCount();
+        this.maze = maze;
+        this.width = maze.getWidth();
+        this.pool = pool;
+        this.depths = new int[cellCount];
+        int levels = Math.max(1, 32 - Integer.numberOfLeadingZeros(cellCount - 1));
+        this.ancestors = new int[levels][];
+        this.ancestors[0] = rootTreeAt(0);
+        for (int k = 1; k < levels; k++) {
+            int[] halfway = ancestors[k - 1];
+            int[] level = new int[cellCount];
+            for (int cell = 0; cell < cellCount; cell++) {
+                level[cell] = halfway[halfway[cell]];
+            }
+            ancestors[k] = level;
+        }
+    }
+
+    /**
+     * Breadth first from the root, recording each cell's parent and depth.
+     */
+    private int[] rootTreeAt(int root) {
+        int cellCount = maze.getCellCount();
+        int[] parents = new int[cellCount];
+        int[] queue = new int[cellCount];
+        Arrays.fill(parents, -1);
+        int head = 0;
+        int tail = 0;
+        parents[root] = root;
+        queue[tail++] = root;
+        while (head < tail) {
+            int cell = queue[head++];
+            for (Direction direction : Direction.VALUES) {
+                if (maze.isOpen(cell, direction)) {
+                    int neighbour = cell + direction.yOffset * width + direction.xOffset;
+                    if (parents[neighbour] < 0) {
+                        parents[neighbour] = cell;
+                        depths[neighbour] = depths[cell] + 1;
+                        queue[tail++] = neighbour;
+                    }
+                }
+            }
+        }
+        if (tail != cellCount) {
+            throw new IllegalArgumentException("Only " + tail + " of " + cellCount + " cells are connected - the maze must be a spanning tree");
+        }
+        return parents;
+    }
+
+    public int lowestCommonAncestor(int first, int second) {
+        if (depths[first] < depths[second]) {
+            int swap = first;
+            first = second;
+            second = swap;
+        }
+        first = ancestorAtDepth(first, depths[second]);
+        if (first == second) {
+            return first;
+        }
+        for (int k = ancestors.length - 1; k >= 0; k--) {
+            if (ancestors[k][first] != ancestors[k][second]) {
+                first = ancestors[k][first];
+                second = ancestors[k][second];
+            }
+        }
+        return ancestors[0][first];
+    }
+
+    /**
+     * @return the number of moves on the one path between the two cells
+     */
+    public int distance(int from, int to) {
+        return depths[from] + depths[to] - 2 * depths[lowestCommonAncestor(from, to)];
+    }
+
+    /**
+     * Writes the cells on the path between the two cells, both included, into the buffer.
+     *
+     * @return the number of cells written
+     */
+    public int path(int from, int to, int[] buffer) {
+        int meetingPoint = lowestCommonAncestor(from, to);
+        int length = depths[from] + depths[to] - 2 * depths[meetingPoint] + 1;
+        int i = 0;
+        for (int cell = from; cell != meetingPoint; cell = ancestors[0][cell]) {
+            buffer[i++] = cell;
+        }
+        buffer[i] = meetingPoint;
+        int j = length - 1;
+        for (int cell = to; cell != meetingPoint; cell = ancestors[0][cell]) {
+            buffer[j--] = cell;
+        }
+        return length;
+    }
+
+    /**
+     * @return the cells on the path between the two points, both included, walked straight off the tree so only
+     * the path itself is allocated
+     */
+    public List<Point> findPath(Point from, Point to) {
+        int fromCell = maze.index(from.x, from.y);
+        int toCell = maze.index(to.x, to.y);
+        int meetingPoint = lowestCommonAncestor(fromCell, toCell);
+        List<Point> points = new ArrayList<>(depths[fromCell] + depths[toCell] - 2 * depths[meetingPoint] + 1);
+        for (int cell = fromCell; cell != meetingPoint; cell = ancestors[0][cell]) {
+            points.add(new Point(cell % width, cell / width));
+        }
+        points.add(new Point(meetingPoint % width, meetingPoint / width));
+        // the far side is walked up from the end, so it goes on backwards and is turned round
+        int farSide = points.size();
+        for (int cell = toCell; cell != meetingPoint; cell = ancestors[0][cell]) {
+            points.add(new Point(cell % width, cell / width));
+        }
+        Collections.reverse(points.subList(farSide, points.size()));
+        return points;
+    }
+
+    /**
+     * @return the distance for each pair, from[i] to to[i], worked out in parallel for large batches
+     */
+    public int[] distances(int[] from, int[] to) {
+        if (from.length != to.length) {
+            throw new IllegalArgumentException("Every query needs a start and an end cell");
+        }
+        int[] results = new int[from.length];
+        pool.invoke(new BatchTask(query -> results[query] = distance(from[query], to[query]),
+                SEQUENTIAL_THRESHOLD, 0, from.length));
+        return results;
+    }
+
+    /**
+     * @return for each mouse, the index into cheeses of the cheese it is closest to along the maze's paths
+     */
+    public int[] nearestCheeses(int[] mice, int[] cheeses) {
+        int[] results = new int[mice.length];
+        // each mouse is compared against every cheese, so fewer mice make a worthwhile chunk of work
+        int threshold = Math.max(1, SEQUENTIAL_THRESHOLD / Math.max(1, cheeses.length));
+        pool.invoke(new BatchTask(mouse -> {
+            int nearest = -1;
+            int nearestDistance = Integer.MAX_VALUE;
+            for (int cheese = 0; cheese < cheeses.length; cheese++) {
+                int distance = distance(mice[mouse], cheeses[cheese]);
+                if (distance < nearestDistance) {
+                    nearest = cheese;
+                    nearestDistance = distance;
+                }
+            }
+            results[mouse] = nearest;
+        }, threshold, 0, mice.length));
+        return results;
+    }
+
+    public int getDepth(int cell) {
+        return depths[cell];
+    }
+
+    private int ancestorAtDepth(int cell, int depth) {
+        int climb = depths[cell] - depth;
+        for (int k = 0; climb > 0; k++, climb >>>= 1) {
+            if ((climb & 1) != 0) {
+                cell = ancestors[k][cell];
+            }
+        }
+        return cell;
+    }
+
+    /**
+     * Splits a range of queries in half until it is small enough to answer on one thread.
+     */
+    @SuppressWarnings("serial") // a RecursiveAction is Serializable, but these are only ever forked, never written out
+    private static class BatchTask extends RecursiveAction {
+
+        private final IntConsumer answer;
+        private final int threshold;
+        private final int start;
+        private final int end;
+
+        BatchTask(IntConsumer answer, int threshold, int start, int end) {
+            this.answer = answer;
+            this.threshold = threshold;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= threshold) {
+                for (int query = start; query < end; query++) {
+                    answer.accept(query);
+                }
+                return;
+            }
+            int middle = (start + end) >>> 1;
+            invokeAll(new BatchTask(answer, threshold, start, middle), new BatchTask(answer, threshold, middle, end));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package uk.robevans;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Everything {@link MazeMetrics} had recorded at one moment, to be read, logged or exported as a whole.
+ * Counts only ever grow, so the difference between two snapshots is what happened in between.
+ */
+public final class MetricsSnapshot {
+
+    private final Map<MazeMetrics.Operation, Histogram.Snapshot> latencies;
+    private final Map<MazeMetrics.Operation, Long> allocatedBytes;
+    private final Map<MazeMetrics.Counter, Long> counters;
+    private final Map<MazeMetrics.Distribution, Histogram.Snapshot> distributions;
+
+    MetricsSnapshot(Map<MazeMetrics.Operation, Histogram.Snapshot> latencies,
+                    Map<MazeMetrics.Operation, Long> allocatedBytes,
+                    Map<MazeMetrics.Counter, Long> counters,
+                    Map<MazeMetrics.Distribution, Histogram.Snapshot> distributions) {
+        this.latencies = Collections.unmodifiableMap(latencies);
+        this.allocatedBytes = Collections.unmodifiableMap(allocatedBytes);
+        this.counters = Collections.unmodifiableMap(counters);
+        this.distributions = Collections.unmodifiableMap(distributions);
+    }
+
+    /**
+     * @return how long each run of the operation took, in nanoseconds
+     */
+    public Histogram.Snapshot getLatency(MazeMetrics.Operation operation) {
+        return latencies.get(operation);
+    }
+
+    public long getCount(MazeMetrics.Operation operation) {
+        return latencies.get(operation).getCount();
+    }
+
+    /**
+     * @return the bytes allocated by every run of the operation together, as seen by the thread running it
+     */
+    public long getAllocatedBytes(MazeMetrics.Operation operation) {
+        return allocatedBytes.get(operation);
+    }
+
+    public double getAllocatedBytesPerOperation(MazeMetrics.Operation operation) {
+        long count = getCount(operation);
+        return count == 0 ? 0 : (double) getAllocatedBytes(operation) / count;
+    }
+
+    public long getCount(MazeMetrics.Counter counter) {
+        return counters.get(counter);
+    }
+
+    public Histogram.Snapshot getDistribution(MazeMetrics.Distribution distribution) {
+        return distributions.get(distribution);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (MazeMetrics.Operation operation : MazeMetrics.Operation.values()) {
+            if (getCount(operation) > 0) {
+                text.append(operation).append(" nanos: ").append(getLatency(operation))
+                        .append(" allocatedPerOp=").append(Math.round(getAllocatedBytesPerOperation(operation)))
+                        .append('\n');
+            }
+        }
+        for (MazeMetrics.Counter counter : MazeMetrics.Counter.values()) {
+            text.append(counter).append('=').append(getCount(counter)).append('\n');
+        }
+        for (MazeMetrics.Distribution distribution : MazeMetrics.Distribution.values()) {
+            text.append(distribution).append(": ").append(getDistribution(distribution)).append('\n');
+        }
+        return text.toString();
+    }
+}
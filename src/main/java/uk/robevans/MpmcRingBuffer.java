@@ -0,0 +1,98 @@
+package uk.robevans;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded queue any number of threads can offer to and poll from without taking a lock.
+ * Every slot carries a sequence number saying whose turn it is: a producer may fill slot {@code pos & mask}
+ * once its sequence equals {@code pos}, and a consumer may empty it once the sequence is {@code pos + 1}.
+ * Claiming a turn is one compare-and-set on the head or tail, so neither side ever blocks the other.
+ * A full queue refuses offers rather than waiting, which is how producers feel back-pressure.
+ */
+final class MpmcRingBuffer<E> {
+
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * @param capacity rounded up to the next power of two so a position maps to its slot with a mask
+     */
+    MpmcRingBuffer(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30 but was " + capacity);
+        }
+        int slots = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = slots - 1;
+        this.sequences = new AtomicLongArray(slots);
+        this.elements = new AtomicReferenceArray<>(slots);
+        for (int slot = 0; slot < slots; slot++) {
+            sequences.set(slot, slot);
+        }
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * @return false without waiting if the queue is full
+     */
+    boolean offer(E element) {
+        long position = tail.get();
+        while (true) {
+            int slot = (int) position & mask;
+            long turn = sequences.get(slot) - position;
+            if (turn == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(slot, element);
+                    // publishing the sequence is what hands the element to consumers
+                    sequences.set(slot, position + 1);
+                    return true;
+                }
+            } else if (turn < 0) {
+                return false;
+            }
+            position = tail.get();
+        }
+    }
+
+    /**
+     * @return the oldest element, or null without waiting if the queue is empty
+     */
+    E poll() {
+        long position = head.get();
+        while (true) {
+            int slot = (int) position & mask;
+            long turn = sequences.get(slot) - (position + 1);
+            if (turn == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    E element = elements.get(slot);
+                    elements.lazySet(slot, null);
+                    // hand the slot back to producers one lap later
+                    sequences.set(slot, position + mask + 1);
+                    return element;
+                }
+            } else if (turn < 0) {
+                return null;
+            }
+            position = head.get();
+        }
+    }
+
+    /**
+     * @return how many elements are queued. Only a snapshot while other threads are offering or polling.
+     */
+    int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+}
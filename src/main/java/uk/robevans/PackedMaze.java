@@ -0,0 +1,100 @@
+package uk.robevans;
+
+import java.util.Arrays;
+
+/**
+ * A maze held on the heap as two bits per cell, so a million cell maze fits in 256KB.
+ * Mazes are carved by the generators in this package; once handed out they are never written to again,
+ * so any number of threads can read one at the same time. A {@link #copy()} is built with its passages already
+ * in place, so its final field makes it safe to hand to other threads however it is published.
+ */
+public final class PackedMaze extends BitPackedMaze {
+
+    private final long[] passages;
+
+    PackedMaze(int width, int height) {
+        this(width, height, new long[wordCount((long) width * height)]);
+    }
+
+    PackedMaze(int width, int height, long[] passages) {
+        super(width, height);
+        this.passages = passages;
+    }
+
+    /**
+     * @return the maze itself if it is already packed, otherwise a packed copy of its passages
+     */
+    static PackedMaze of(Maze maze) {
+        if (maze instanceof PackedMaze) {
+            return (PackedMaze) maze;
+        }
+        PackedMaze packed = new PackedMaze(maze.getWidth(), maze.getHeight());
+        for (int cell = 0; cell < maze.getCellCount(); cell++) {
+            if (maze.isOpen(cell, Direction.RIGHT)) {
+                packed.setPassageBit(cell, RIGHT_BIT);
+            }
+            if (maze.isOpen(cell, Direction.DOWN)) {
+                packed.setPassageBit(cell, DOWN_BIT);
+            }
+        }
+        return packed;
+    }
+
+    @Override
+    long passageWord(int wordIndex) {
+        return passages[wordIndex];
+    }
+
+    /**
+     * Knocks down the wall between a cell and its neighbour. Callers make sure the neighbour is on the grid.
+     */
+    void open(int cell, Direction direction) {
+        switch (direction) {
+            case UP:
+                setPassageBit(cell - width, DOWN_BIT);
+                break;
+            case DOWN:
+                setPassageBit(cell, DOWN_BIT);
+                break;
+            case LEFT:
+                setPassageBit(cell - 1, RIGHT_BIT);
+                break;
+            default:
+                setPassageBit(cell, RIGHT_BIT);
+                break;
+        }
+    }
+
+    /**
+     * Knocks down the wall between two cells that sit next to each other.
+     */
+    void openBetween(int cell, int neighbour) {
+        // vertical steps are checked first, as in a maze one cell wide the cell below is also the next index
+        int difference = neighbour - cell;
+        if (difference == width) {
+            setPassageBit(cell, DOWN_BIT);
+        } else if (difference == -width) {
+            setPassageBit(neighbour, DOWN_BIT);
+        } else if (difference > 0) {
+            setPassageBit(cell, RIGHT_BIT);
+        } else {
+            setPassageBit(neighbour, RIGHT_BIT);
+        }
+    }
+
+    void clear() {
+        Arrays.fill(passages, 0L);
+    }
+
+    PackedMaze copy() {
+        return new PackedMaze(width, height, passages.clone());
+    }
+
+    long[] passageWords() {
+        return passages;
+    }
+
+    private void setPassageBit(int cell, int bit) {
+        passages[cell >>> 5] |= passageMask(cell, bit);
+    }
+}
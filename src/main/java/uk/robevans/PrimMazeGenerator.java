@@ -0,0 +1,12 @@
+package uk.robevans;
+
+/**
+ * Randomised Prim's algorithm, via a {@link SpanningTree} over randomly weighted edges.
+ */
+public class PrimMazeGenerator implements MazeGenerator {
+
+    @Override
+    public Maze generate(int width, int height, MazeRandom random) {
+        return new SpanningTree(random).build(width, height).getMaze();
+    }
+}
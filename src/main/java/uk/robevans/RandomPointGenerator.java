@@ -1,13 +1,37 @@
 package uk.robevans;
 
 import java.awt.Point;
-import java.util.Random;
 
 public class RandomPointGenerator {
 
+    private final MazeRandom random;
+    // kept for the next placement in the same maze, so its arrays are not allocated again for every cheese
+    private CheesePlacer placer;
+
+    public RandomPointGenerator() {
+        this(MazeRandom.unseeded());
+    }
+
+    public RandomPointGenerator(MazeRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * @return a cell the mouse can reach, uniformly chosen among those far enough away under the rule. The placer
+     * for the last maze and rule asked about is kept, along with its two int arrays the size of the maze, so
+     * placing the cheese again in the same maze allocates nothing more.
+     * @see CheesePlacer
+     */
+    public Point getCheeseLocation(Maze maze, Point mouseLocation, CheesePlacer.DistanceRule rule) {
+        if (placer == null || !placer.isFor(maze, rule)) {
+            placer = new CheesePlacer(maze, rule);
+        }
+        return placer.place(mouseLocation, random);
+    }
+
     public Point getPlayerStartLocation(int width, int height) {
-        int start_x = new Random().nextInt(width);
-        int start_y = new Random().nextInt(height);
+        int start_x = random.nextInt(width);
+        int start_y = random.nextInt(height);
         return new Point(start_x, start_y);
     }
 }
@@ -0,0 +1,45 @@
+package uk.robevans;
+
+import java.util.BitSet;
+
+/**
+ * The recursive backtracker: a randomised depth first search that carves into an unvisited neighbour
+ * until it gets stuck, then backs up. The recursion is kept on an explicit int[] stack so very large
+ * grids can't overflow the thread's stack. Produces long, winding corridors with few dead ends.
+ */
+public class RecursiveBacktrackerMazeGenerator implements MazeGenerator {
+
+    @Override
+    public Maze generate(int width, int height, MazeRandom random) {
+        int cellCount = width * height;
+        PackedMaze maze = new PackedMaze(width, height);
+        BitSet visited = new BitSet(cellCount);
+        int[] stack = new int[cellCount];
+        int[] candidates = new int[4];
+        int stackSize = 0;
+
+        int start = random.nextInt(cellCount);
+        visited.set(start);
+        stack[stackSize++] = start;
+        while (stackSize > 0) {
+            int cell = stack[stackSize - 1];
+            int candidateCount = 0;
+            for (Direction direction : Direction.VALUES) {
+                int neighbour = maze.neighbour(cell, direction);
+                if (neighbour >= 0 && !visited.get(neighbour)) {
+                    candidates[candidateCount++] = neighbour;
+                }
+            }
+
+            if (candidateCount == 0) {
+                stackSize--;
+            } else {
+                int next = candidates[random.nextInt(candidateCount)];
+                maze.openBetween(cell, next);
+                visited.set(next);
+                stack[stackSize++] = next;
+            }
+        }
+        return maze;
+    }
+}
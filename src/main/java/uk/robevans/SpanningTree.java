@@ -1,14 +1,14 @@
 package uk.robevans;
 
 import java.awt.Point;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
 
-import static java.util.stream.Collectors.toList;
 import static uk.robevans.Direction.*;
 
 public class SpanningTree {
@@ -17,60 +17,231 @@ public class SpanningTree {
     private final List<Point> nodesToProcess;
     private final List<Point> visitedNodes;
     private final List<Point> unvisitedNeighbouringNodes;
-    private final Map<Point, Map<Direction, Integer>> bidirectionalEdgeMap;
-    private final Map<Point, List<Point>> mazePaths;
-    private final Random random;
+    private final MazeRandom random;
+    private GridGraph graph;
+    private int[] processedOrder;
+    private int processedCount;
+    // cells still to process are kept densely packed, with each cell's slot tracked so removal is a swap with the last
+    private int[] cellsToProcess;
+    private int[] positionToProcess;
+    private int toProcessCount;
+    private BitSet visited;
+    private int[] visitOrder;
+    private int visitedCount;
+    private int decreaseKeys;
 
 
     public SpanningTree() {
-        this.processedNodes = new ArrayList<>();
-        this.nodesToProcess = new ArrayList<>();
-        this.bidirectionalEdgeMap = new HashMap<>();
-        this.visitedNodes = new ArrayList<>();
+        this(MazeRandom.unseeded());
+    }
+
+    public SpanningTree(MazeRandom random) {
+        this.processedNodes = new CellPoints() {
+            @Override
+            int cellAt(int index) {
+                return processedOrder[index];
+            }
+
+            @Override
+            public int size() {
+                return processedCount;
+            }
+        };
+        this.nodesToProcess = new CellPoints() {
+            @Override
+            int cellAt(int index) {
+                return cellsToProcess[index];
+            }
+
+            @Override
+            public int size() {
+                return toProcessCount;
+            }
+        };
+        this.visitedNodes = new CellPoints() {
+            @Override
+            int cellAt(int index) {
+                return visitOrder[index];
+            }
+
+            @Override
+            public int size() {
+                return visitedCount;
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof Point && isVisited((Point) o);
+            }
+        };
         this.unvisitedNeighbouringNodes = new ArrayList<>();
-        this.mazePaths = new HashMap<>();
-        random = new Random();
+        this.random = random;
+        allocate(new GridGraph(0, 0));
     }
 
-    private void init(String[][] cells) {
+    void init(int width, int height) {
+        allocate(new GridGraph(width, height));
         resetState();
 
-        addAllNodesToProcessingList(cells);
+        addAllNodesToProcessingList();
+    }
+
+    /**
+     * @deprecated only the array's size was ever used - use {@link #init(int, int)}
+     */
+    @Deprecated
+    void init(String[][] cells) {
+        init(cells[0].length, cells.length);
+    }
+
+    private void allocate(GridGraph newGraph) {
+        int cellCount = newGraph.getCellCount();
+        graph = newGraph;
+        processedOrder = new int[cellCount];
+        cellsToProcess = new int[cellCount];
+        positionToProcess = new int[cellCount];
+        visited = new BitSet(cellCount);
+        visitOrder = new int[cellCount];
     }
 
     public void resetState() {
-        processedNodes.clear();
-        nodesToProcess.clear();
-        bidirectionalEdgeMap.clear();
-        mazePaths.clear();
-        visitedNodes.clear();
+        processedCount = 0;
+        toProcessCount = 0;
+        graph.clear();
+        visited.clear();
+        visitedCount = 0;
         unvisitedNeighbouringNodes.clear();
-        bidirectionalEdgeMap.clear();
     }
 
-    private void addAllNodesToProcessingList(String[][] cells) {
-        for (int row = 0; row < cells.length; row++) {
-            for (int col = 0; col < cells[0].length; col++) {
-                nodesToProcess.add(new Point(row, col));
-            }
+    private void addAllNodesToProcessingList() {
+        int cellCount = graph.getCellCount();
+        for (int cell = 0; cell < cellCount; cell++) {
+            cellsToProcess[cell] = cell;
+            positionToProcess[cell] = cell;
+        }
+        toProcessCount = cellCount;
+    }
+
+    /**
+     * Marks the cell as visited and takes it out of the cells left to process, both in constant time.
+     *
+     * @return false if the cell had already been visited
+     */
+    private boolean markVisited(int cell) {
+        if (visited.get(cell)) {
+            return false;
+        }
+        visited.set(cell);
+        visitOrder[visitedCount++] = cell;
+
+        // after resetState() nothing is left to process, so there is nothing to take the cell out of
+        int position = positionToProcess[cell];
+        if (position < toProcessCount && cellsToProcess[position] == cell) {
+            int last = cellsToProcess[--toProcessCount];
+            cellsToProcess[position] = last;
+            positionToProcess[last] = position;
         }
+        return true;
     }
 
+    /**
+     * @deprecated only the array's size was ever used - use {@link #build(int, int)}
+     */
+    @Deprecated
     public SpanningTree build(String[][] cells) {
-        init(cells);
+        return build(cells[0].length, cells.length);
+    }
 
-        // starting point does not matter here - we will always get the minimal graph regardless of where we start
-        // We'll start by going in reverse order so we are always looking at the tail of the array...
+    public SpanningTree build(int width, int height) {
+        MazeMetrics metrics = MazeMetrics.get();
+        long started = metrics.startTime();
+        long allocated = metrics.allocatedBytes();
 
+        init(width, height);
+        long edgeMapStarted = metrics.startTime();
+        long edgeMapAllocated = metrics.allocatedBytes();
+        initEdgeMap();
+        metrics.record(MazeMetrics.Operation.INIT_EDGE_MAP, edgeMapStarted, edgeMapAllocated);
 
+        // starting point does not matter here - we will always get the minimal graph regardless of where we start
+        growTreeFrom(0);
+
+        metrics.record(MazeMetrics.Operation.SPANNING_TREE_BUILD, started, allocated);
         return this;
     }
 
-    private boolean isEdgePoint(Point point, String[][] cells) {
-        return isFirstCol(point.x)
-                || isTopRow(point)
-                || isLastCol(point, cells)
-                || isBottomRow(point, cells);
+    /**
+     * Prim's algorithm. The frontier holds every cell that touches the tree, keyed on cell index and
+     * prioritised by the weight of the cheapest edge joining it to the tree so far. Finding a cheaper edge
+     * to a frontier cell is a decrease-key rather than a second heap entry, so the build is O(E log V).
+     */
+    private void growTreeFrom(int startCell) {
+        int cellCount = graph.getCellCount();
+        int width = graph.getWidth();
+        IndexedMinHeap frontier = new IndexedMinHeap(cellCount);
+        int[] treeParent = new int[cellCount];
+
+        treeParent[startCell] = -1;
+        frontier.insert(startCell, Integer.MIN_VALUE);
+        decreaseKeys = 0;
+        int peakFrontier = 0;
+        while (!frontier.isEmpty()) {
+            peakFrontier = Math.max(peakFrontier, frontier.size());
+            int cell = frontier.pollMin();
+            markVisited(cell);
+            processedOrder[processedCount++] = cell;
+            if (treeParent[cell] >= 0) {
+                graph.openPassage(treeParent[cell], directionBetween(treeParent[cell], cell));
+            }
+
+            int x = graph.getX(cell);
+            if (cell >= width) {
+                relax(frontier, treeParent, cell, cell - width, graph.getWeight(cell, UP));
+            }
+            if (cell < cellCount - width) {
+                relax(frontier, treeParent, cell, cell + width, graph.getWeight(cell, DOWN));
+            }
+            if (x > 0) {
+                relax(frontier, treeParent, cell, cell - 1, graph.getWeight(cell, LEFT));
+            }
+            if (x < width - 1) {
+                relax(frontier, treeParent, cell, cell + 1, graph.getWeight(cell, RIGHT));
+            }
+        }
+
+        // every cell goes into the heap once and comes out once, so only the decrease-keys need counting
+        MazeMetrics metrics = MazeMetrics.get();
+        metrics.count(MazeMetrics.Counter.CELLS_PROCESSED, processedCount);
+        metrics.count(MazeMetrics.Counter.HEAP_INSERTS, processedCount);
+        metrics.count(MazeMetrics.Counter.HEAP_POLLS, processedCount);
+        metrics.count(MazeMetrics.Counter.HEAP_DECREASE_KEYS, decreaseKeys);
+        metrics.record(MazeMetrics.Distribution.PEAK_FRONTIER_SIZE, peakFrontier);
+    }
+
+    private void relax(IndexedMinHeap frontier, int[] treeParent, int cell, int neighbour, int weight) {
+        if (visited.get(neighbour)) {
+            return;
+        }
+        if (!frontier.contains(neighbour)) {
+            frontier.insert(neighbour, weight);
+            treeParent[neighbour] = cell;
+        } else if (weight < frontier.priorityOf(neighbour)) {
+            frontier.decreaseKey(neighbour, weight);
+            treeParent[neighbour] = cell;
+            decreaseKeys++;
+        }
+    }
+
+    private Direction directionBetween(int fromCell, int toCell) {
+        int difference = toCell - fromCell;
+        if (difference == graph.getWidth()) {
+            return DOWN;
+        } else if (difference == -graph.getWidth()) {
+            return UP;
+        } else if (difference > 0) {
+            return RIGHT;
+        }
+        return LEFT;
     }
 
     /**
@@ -80,27 +251,41 @@ public class SpanningTree {
      * since every node will end up connected via some path to every other node.
      * Without randomized weights we could just select a random edge connecting our node set
      * to the other nodes until all nodes were connected.
+     * <p>
+     * The weights are filled a row at a time straight into the graph's weight arrays - see
+     * {@link GridGraph#fillRandomWeights} - with no per-cell corner and edge checks.
      */
-    private void initEdgeMap(String[][] cells) {
-        // bidirectionalEdgeMap fills from top left, down to the right
-        for (int row = 0; row < cells.length; row++) {
-            for (int col = 0; col < cells[0].length; col++) {
-                Point point = new Point(row, col);
+    void initEdgeMap() {
+        graph.fillRandomWeights(random);
+    }
+
+    /**
+     * The original edge weighting: every cell classified as a corner, an edge or the middle, with a point and a
+     * list of directions for each. It gives exactly the weights {@link #initEdgeMap()} does, and is kept as the
+     * baseline for SpanningTreeBenchmark and to check the row fill against.
+     */
+    void initEdgeMapCellByCell() {
+        int width = graph.getWidth();
+        int height = graph.getHeight();
+        // the edge weights fill from top left, down to the right
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                Point point = new Point(col, row);
                 if (isTopLeftCorner(point)) {
                     addTopLeftCornerEdges(point);
-                } else if (isTopRightCorner(point, cells)) {
+                } else if (isTopRightCorner(point, width)) {
                     addTopRightCornerEdges(point);
-                } else if (isTopEdgeOnly(point, cells)) {
+                } else if (isTopEdgeOnly(point, width)) {
                     addTopEdges(point);
-                } else if (isBottomLeftCorner(point, cells)) {
+                } else if (isBottomLeftCorner(point, height)) {
                     addBottomLeftCornerEdges(point);
-                } else if (isBottomRightCorner(point, cells)) {
+                } else if (isBottomRightCorner(point, width, height)) {
                     addBottomRightCornerEdges(point);
-                } else if (isLeftEdgeOnly(point, cells)) {
+                } else if (isLeftEdgeOnly(point, height)) {
                     addLeftEdges(point);
-                } else if (isRightEdgeOnly(point, cells)) {
+                } else if (isRightEdgeOnly(point, width, height)) {
                     addRightEdges(point);
-                } else if (isBottomEdgeOnly(point, cells)) {
+                } else if (isBottomEdgeOnly(point, width, height)) {
                     addBottomEdges(point);
                 } else { // somewhere in the middle - not an edge/corner
                     addCentrePointEdges(point);
@@ -109,32 +294,56 @@ public class SpanningTree {
         }
     }
 
+    /**
+     * @deprecated the edges are sized from the graph made by {@link #init(int, int)} - use {@link #initEdgeMap()}
+     */
+    @Deprecated
+    void initEdgeMap(String[][] cells) {
+        initEdgeMap();
+    }
+
     public boolean isRightEdgeOnly(Point point, String[][] cells) {
-        return isLastCol(point, cells) && !isTopRow(point) && !isBottomRow(point, cells);
+        return isRightEdgeOnly(point, cells[0].length, cells.length);
+    }
+
+    private boolean isRightEdgeOnly(Point point, int width, int height) {
+        return isLastCol(point, width) && !isTopRow(point) && !isBottomRow(point, height);
     }
 
     public boolean isLeftEdgeOnly(Point point, String[][] cells) {
-        return isFirstCol(point.x) && !isTopRow(point) && !isBottomRow(point, cells);
+        return isLeftEdgeOnly(point, cells.length);
+    }
+
+    private boolean isLeftEdgeOnly(Point point, int height) {
+        return isFirstCol(point.x) && !isTopRow(point) && !isBottomRow(point, height);
     }
 
     public boolean isBottomRightCorner(Point point, String[][] cells) {
-        return isLastCol(point, cells) && isBottomRow(point, cells);
+        return isBottomRightCorner(point, cells[0].length, cells.length);
+    }
+
+    private boolean isBottomRightCorner(Point point, int width, int height) {
+        return isLastCol(point, width) && isBottomRow(point, height);
     }
 
-    private boolean isBottomRow(Point point, String[][] cells) {
-        return point.y == (cells.length - 1);
+    private boolean isBottomRow(Point point, int height) {
+        return point.y == height - 1;
     }
 
     public boolean isBottomLeftCorner(Point point, String[][] cells) {
-        return isFirstCol(point.x) && isBottomRow(point, cells);
+        return isBottomLeftCorner(point, cells.length);
+    }
+
+    private boolean isBottomLeftCorner(Point point, int height) {
+        return isFirstCol(point.x) && isBottomRow(point, height);
     }
 
     public Point offsetPoint(Point point, Direction direction) {
         return new Point(point.x + direction.xOffset, point.y + direction.yOffset);
     }
 
-    private boolean isTopEdgeOnly(Point point, String[][] cells) {
-        return isTopRow(point) && !isFirstCol(point.x) && !isLastCol(point, cells);
+    private boolean isTopEdgeOnly(Point point, int width) {
+        return isTopRow(point) && !isFirstCol(point.x) && !isLastCol(point, width);
     }
 
     private boolean isTopRow(Point point) {
@@ -142,7 +351,11 @@ public class SpanningTree {
     }
 
     public boolean isTopRightCorner(Point point, String[][] cells) {
-        return isTopRow(point) && isLastCol(point, cells);
+        return isTopRightCorner(point, cells[0].length);
+    }
+
+    private boolean isTopRightCorner(Point point, int width) {
+        return isTopRow(point) && isLastCol(point, width);
     }
 
     public boolean isTopLeftCorner(Point point) {
@@ -154,7 +367,11 @@ public class SpanningTree {
     }
 
     public boolean isLastCol(Point point, String[][] cells) {
-        return point.x == cells[0].length - 1;
+        return isLastCol(point, cells[0].length);
+    }
+
+    private boolean isLastCol(Point point, int width) {
+        return point.x == width - 1;
     }
 
     public List<Point> getAllTreeNodes() {
@@ -166,7 +383,27 @@ public class SpanningTree {
     }
 
     public Map<Point, Map<Direction, Integer>> getBidirectionalEdgeMap() {
-        return bidirectionalEdgeMap;
+        return graph.asEdgeMap();
+    }
+
+    public GridGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return the passages of the built tree as a compact maze, without the edge weights used to choose them.
+     * The maze is an immutable snapshot - later visits or rebuilds of this tree do not change it - so it can be
+     * shared by every {@link GameSession} playing it, on any thread.
+     */
+    public Maze getMaze() {
+        return graph.toMaze();
+    }
+
+    /**
+     * @return each point in the maze mapped to the points it has an open passage to
+     */
+    public Map<Point, List<Point>> getMazePaths() {
+        return graph.asPassageMap();
     }
 
     public List<Point> getPointsToProcess() {
@@ -174,43 +411,36 @@ public class SpanningTree {
     }
 
     public void addLeftEdges(Point point) {
-        Map<Direction, Integer> permittedWeightedDirections = new HashMap<>();
-        Point nodeAbove = offsetPoint(point, UP);
-        permittedWeightedDirections.put(UP, bidirectionalEdgeMap.get(nodeAbove).get(DOWN));
-        permittedWeightedDirections.put(DOWN, random.nextInt());
-        permittedWeightedDirections.put(RIGHT, random.nextInt());
-
-        bidirectionalEdgeMap.put(point, permittedWeightedDirections);
+        addEdges(point, Arrays.asList(UP, DOWN, RIGHT));
     }
 
     public boolean isBottomEdgeOnly(Point point, String[][] cells) {
-        return point.x != 0 && point.x != (cells[0].length - 1) && isBottomRow(point, cells);
+        return isBottomEdgeOnly(point, cells[0].length, cells.length);
     }
 
-    public void addEdges(Point point, List<Direction> directions) {
-        Map<Direction, Integer> permittedWeightedDirections = new HashMap<>();
+    private boolean isBottomEdgeOnly(Point point, int width, int height) {
+        return point.x != 0 && point.x != width - 1 && isBottomRow(point, height);
+    }
 
-        Point nodeAbove = offsetPoint(point, UP);
-        Point nodeToLeft = offsetPoint(point, LEFT);
+    /**
+     * Only the DOWN and RIGHT edges of a cell get a new weight - the UP and LEFT weights are shared
+     * with the cells above and to the left, which have already been filled in.
+     */
+    public void addEdges(Point point, List<Direction> directions) {
+        int cell = graph.index(point.x, point.y);
 
         for (Direction direction : directions) {
             switch (direction) {
-                case UP:
-                    permittedWeightedDirections.put(UP, bidirectionalEdgeMap.get(nodeAbove).get(DOWN));
-                    break;
                 case DOWN:
-                    permittedWeightedDirections.put(DOWN, random.nextInt());
-                    break;
-                case LEFT:
-                    permittedWeightedDirections.put(LEFT, bidirectionalEdgeMap.get(nodeToLeft).get(RIGHT));
-                    break;
                 case RIGHT:
-                    permittedWeightedDirections.put(RIGHT, random.nextInt());
+                    graph.setWeight(cell, direction, random.nextInt());
+                    break;
+                default:
                     break;
             }
         }
 
-        bidirectionalEdgeMap.put(point, permittedWeightedDirections);
+        graph.markInitialised(cell);
     }
 
     public void addCentrePointEdges(Point point) {
@@ -246,15 +476,19 @@ public class SpanningTree {
     }
 
     public void visit(Point point) {
-        visitedNodes.add(point);
-        nodesToProcess.remove(point);
-        bidirectionalEdgeMap.get(point).keySet().stream()
-                .forEach(direction -> {
-                    Point aPoint = offsetPoint(point, direction);
-                    if (!visitedNodes.contains(aPoint)) {
-                        unvisitedNeighbouringNodes.add(aPoint);
-                    }
-                });
+        int cell = graph.index(point.x, point.y);
+        if (markVisited(cell)) {
+            for (Direction direction : Direction.VALUES) {
+                int neighbour = graph.neighbour(cell, direction);
+                if (neighbour >= 0 && !visited.get(neighbour)) {
+                    unvisitedNeighbouringNodes.add(offsetPoint(point, direction));
+                }
+            }
+        }
+    }
+
+    public boolean isVisited(Point point) {
+        return graph.contains(point.x, point.y) && visited.get(graph.index(point.x, point.y));
     }
 
     public List<Point> getVisitedNodes() {
@@ -263,14 +497,15 @@ public class SpanningTree {
 
     public void visitNextClosestNodeThatHasNotAlreadyBeenVisited(Point point) {
         // get validDirections from input point
-        Map<Direction, Integer> directionsToDistanceMap = bidirectionalEdgeMap.get(point);
-        List<Direction> permittedDirections = directionsToDistanceMap.keySet().stream().collect(toList());
+        int cell = graph.index(point.x, point.y);
         Direction nearestNodeDirection = null;
-        for (int i = 0; i < permittedDirections.size(); i++) {
-            Direction directionBeingReviewed = permittedDirections.get(i);
+        for (Direction directionBeingReviewed : Direction.VALUES) {
+            if (!graph.hasNeighbour(cell, directionBeingReviewed)) {
+                continue;
+            }
             if (nearestNodeDirection == null) {
                 nearestNodeDirection = directionBeingReviewed;
-            } else if (directionsToDistanceMap.get(nearestNodeDirection) > directionsToDistanceMap.get(directionBeingReviewed)) {
+            } else if (graph.getWeight(cell, nearestNodeDirection) > graph.getWeight(cell, directionBeingReviewed)) {
                 nearestNodeDirection = directionBeingReviewed;
             }
         }
@@ -278,6 +513,23 @@ public class SpanningTree {
     }
 
     public List<Point> getUnvisitedNeighbouringNodes() {
-        return unvisitedNeighbouringNodes;
+        return Collections.unmodifiableList(unvisitedNeighbouringNodes);
+    }
+
+    /**
+     * A read only list over one of the primitive cell arrays, turning cells into points only when asked for.
+     */
+    private abstract class CellPoints extends AbstractList<Point> {
+
+        abstract int cellAt(int index);
+
+        @Override
+        public Point get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            int cell = cellAt(index);
+            return new Point(graph.getX(cell), graph.getY(cell));
+        }
     }
 }
@@ -0,0 +1,57 @@
+package uk.robevans;
+
+import java.util.SplittableRandom;
+
+/**
+ * A {@link MazeRandom} backed by the JDK's SplittableRandom (SplitMix64), the default for seeded games.
+ */
+public class SplittableMazeRandom implements MazeRandom {
+
+    private final SplittableRandom random;
+
+    public SplittableMazeRandom() {
+        this(new SplittableRandom());
+    }
+
+    public SplittableMazeRandom(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    private SplittableMazeRandom(SplittableRandom random) {
+        this.random = random;
+    }
+
+    @Override
+    public long nextLong() {
+        return random.nextLong();
+    }
+
+    @Override
+    public int nextInt() {
+        return random.nextInt();
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    @Override
+    public void nextInts(int[] into, int from, int to) {
+        // SplittableRandom is final, so the JIT inlines this loop down to the SplitMix64 arithmetic
+        SplittableRandom source = random;
+        for (int i = from; i < to; i++) {
+            into[i] = source.nextInt();
+        }
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return random.nextBoolean();
+    }
+
+    @Override
+    public MazeRandom split() {
+        return new SplittableMazeRandom(random.split());
+    }
+}
@@ -0,0 +1,245 @@
+package uk.robevans;
+
+import java.awt.Point;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Runs real time play in ticks rather than one move at a time. Players' move commands are buffered as they
+ * arrive and then, once per {@link #tick()}, validated and applied in a single pass. Commands are grouped by
+ * maze first so each maze's passages stay hot in cache while its players move, and the new positions of every
+ * player are published together as one {@link Snapshot}.
+ * <p>
+ * Commands are packed as {@code player << 2 | direction ordinal} into plain int arrays and player positions are
+ * a single int[] of cells, so a tick allocates nothing but the snapshot it publishes.
+ * <p>
+ * {@link #submit} may be called from any thread. Adding players and ticking belong to the one thread driving
+ * the simulation.
+ */
+public class TickEngine {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // the thread driving the ticks owns these
+    private Maze[] mazes = new Maze[4];
+    private int[][] mazeOffsets = new int[4][];
+    private int mazeCount;
+    private final Map<Maze, Integer> mazeIndexes = new IdentityHashMap<>();
+    private int[] playerCells = new int[INITIAL_CAPACITY];
+    private int[] playerMazes = new int[INITIAL_CAPACITY];
+    private volatile int playerCount;
+    private int[] groupStarts = new int[5];
+    private int[] groupFill = new int[4];
+    private int[] grouped = new int[INITIAL_CAPACITY];
+
+    // commands waiting for the next tick, swapped with the spare buffer under the lock each tick
+    private final Object commandLock = new Object();
+    private int[] pending = new int[INITIAL_CAPACITY];
+    private int pendingCount;
+    private int[] ticking = new int[INITIAL_CAPACITY];
+
+    private volatile Snapshot snapshot = new Snapshot(0, new int[0]);
+    private long tickCount;
+    private long movesProcessed;
+    private long movesBlocked;
+    private long tickNanos;
+    private long lastTickNanos;
+    private long maxTickNanos;
+
+    /**
+     * @return the id to submit this player's moves under
+     */
+    public int addPlayer(Maze maze, Point mouseStartLocation) {
+        if (mouseStartLocation.x < 0 || mouseStartLocation.y < 0
+                || mouseStartLocation.x >= maze.getWidth() || mouseStartLocation.y >= maze.getHeight()) {
+            throw new IllegalArgumentException("The mouse must start inside the " + maze.getWidth() + "x"
+                    + maze.getHeight() + " maze, not at " + mouseStartLocation);
+        }
+        int player = playerCount;
+        if (player == playerCells.length) {
+            playerCells = Arrays.copyOf(playerCells, player * 2);
+            playerMazes = Arrays.copyOf(playerMazes, player * 2);
+        }
+        playerCells[player] = maze.index(mouseStartLocation.x, mouseStartLocation.y);
+        playerMazes[player] = indexOf(maze);
+        playerCount = player + 1;
+        return player;
+    }
+
+    private int indexOf(Maze maze) {
+        Integer index = mazeIndexes.get(maze);
+        if (index != null) {
+            return index;
+        }
+        if (mazeCount == mazes.length) {
+            mazes = Arrays.copyOf(mazes, mazeCount * 2);
+            mazeOffsets = Arrays.copyOf(mazeOffsets, mazeCount * 2);
+            groupStarts = new int[mazeCount * 2 + 1];
+            groupFill = new int[mazeCount * 2];
+        }
+        int[] offsets = new int[Direction.VALUES.length];
+        for (Direction direction : Direction.VALUES) {
+            offsets[direction.ordinal()] = direction.yOffset * maze.getWidth() + direction.xOffset;
+        }
+        mazes[mazeCount] = maze;
+        mazeOffsets[mazeCount] = offsets;
+        mazeIndexes.put(maze, mazeCount);
+        return mazeCount++;
+    }
+
+    /**
+     * Queues a move for the next tick. A player's moves within one tick are applied in the order submitted.
+     */
+    public void submit(int player, Direction direction) {
+        if (player < 0 || player >= playerCount) {
+            throw new IllegalArgumentException("There is no player " + player);
+        }
+        int command = player << 2 | direction.ordinal();
+        synchronized (commandLock) {
+            if (pendingCount == pending.length) {
+                pending = Arrays.copyOf(pending, pendingCount * 2);
+            }
+            pending[pendingCount++] = command;
+        }
+    }
+
+    /**
+     * Applies every move submitted since the last tick and publishes where everyone ended up.
+     *
+     * @return the published snapshot
+     */
+    public Snapshot tick() {
+        long start = System.nanoTime();
+        int[] commands;
+        int commandCount;
+        synchronized (commandLock) {
+            commands = pending;
+            commandCount = pendingCount;
+            if (ticking.length < commands.length) {
+                ticking = new int[commands.length];
+            }
+            pending = ticking;
+            pendingCount = 0;
+        }
+        ticking = commands;
+
+        groupByMaze(commands, commandCount);
+        int blocked = 0;
+        int[] cells = playerCells;
+        for (int maze = 0; maze < mazeCount; maze++) {
+            Maze current = mazes[maze];
+            int[] offsets = mazeOffsets[maze];
+            for (int i = groupStarts[maze]; i < groupStarts[maze + 1]; i++) {
+                int command = grouped[i];
+                int player = command >>> 2;
+                int ordinal = command & 3;
+                int cell = cells[player];
+                if (current.isOpen(cell, Direction.VALUES[ordinal])) {
+                    cells[player] = cell + offsets[ordinal];
+                } else {
+                    blocked++;
+                }
+            }
+        }
+
+        Snapshot published = new Snapshot(++tickCount, Arrays.copyOf(cells, playerCount));
+        snapshot = published;
+
+        long elapsed = System.nanoTime() - start;
+        movesProcessed += commandCount;
+        movesBlocked += blocked;
+        tickNanos += elapsed;
+        lastTickNanos = elapsed;
+        maxTickNanos = Math.max(maxTickNanos, elapsed);
+        return published;
+    }
+
+    /**
+     * A counting sort of the commands on their player's maze. It is stable, so each player's moves keep their order.
+     */
+    private void groupByMaze(int[] commands, int commandCount) {
+        if (grouped.length < commandCount) {
+            grouped = new int[commands.length];
+        }
+        Arrays.fill(groupStarts, 0, mazeCount + 1, 0);
+        for (int i = 0; i < commandCount; i++) {
+            groupStarts[playerMazes[commands[i] >>> 2] + 1]++;
+        }
+        for (int maze = 0; maze < mazeCount; maze++) {
+            groupStarts[maze + 1] += groupStarts[maze];
+            groupFill[maze] = groupStarts[maze];
+        }
+        for (int i = 0; i < commandCount; i++) {
+            int command = commands[i];
+            grouped[groupFill[playerMazes[command >>> 2]]++] = command;
+        }
+    }
+
+    /**
+     * @return the positions published by the latest tick. Safe to read from any thread.
+     */
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public int getPlayerCount() {
+        return playerCount;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * @return every move processed so far, including those that hit a wall
+     */
+    public long getMovesProcessed() {
+        return movesProcessed;
+    }
+
+    public long getMovesBlocked() {
+        return movesBlocked;
+    }
+
+    /**
+     * @return moves processed per second of time spent ticking, which is the engine's throughput on one core
+     */
+    public double getMovesPerSecond() {
+        return tickNanos == 0 ? 0 : movesProcessed * 1e9 / tickNanos;
+    }
+
+    public long getLastTickNanos() {
+        return lastTickNanos;
+    }
+
+    public long getMaxTickNanos() {
+        return maxTickNanos;
+    }
+
+    /**
+     * Where every player was at the end of one tick. Never changes once published.
+     */
+    public static final class Snapshot {
+
+        private final long tick;
+        private final int[] playerCells;
+
+        Snapshot(long tick, int[] playerCells) {
+            this.tick = tick;
+            this.playerCells = playerCells;
+        }
+
+        public long getTick() {
+            return tick;
+        }
+
+        public int getPlayerCount() {
+            return playerCells.length;
+        }
+
+        public int getMouseCell(int player) {
+            return playerCells[player];
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package uk.robevans;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Generates very large mazes on every core. The grid is cut into square tiles and each tile gets its own
+ * perfect maze from another generator, in parallel. The tiles are then treated as the cells of a much smaller
+ * grid: a perfect maze over that tile grid picks which neighbouring tiles to join, and exactly one passage is
+ * opened through the border of each chosen pair. Every tile is a tree and the tiles are joined as a tree, so
+ * the whole grid is still a perfect maze and the mouse can always reach the cheese.
+ * <p>
+ * Tile randoms are split off in a fixed order before any work is forked, so a seeded maze is the same however
+ * the tiles happen to be scheduled.
+ */
+public class TiledMazeGenerator implements MazeGenerator {
+
+    public static final int DEFAULT_TILE_SIZE = 256;
+
+    // how many tiles or passage words a task handles itself rather than forking
+    private static final int TILES_PER_TASK = 1;
+    private static final int WORDS_PER_TASK = 1 << 14;
+
+    private final MazeGenerator tileGenerator;
+    private final int tileSize;
+    private final ForkJoinPool pool;
+
+    public TiledMazeGenerator() {
+        this(new KruskalMazeGenerator(), DEFAULT_TILE_SIZE, ForkJoinPool.commonPool());
+    }
+
+    public TiledMazeGenerator(MazeGenerator tileGenerator, int tileSize, ForkJoinPool pool) {
+        if (tileSize < 1) {
+            throw new IllegalArgumentException("Tiles must be at least 1 cell across");
+        }
+        this.tileGenerator = tileGenerator;
+        this.tileSize = tileSize;
+        this.pool = pool;
+    }
+
+    @Override
+    public Maze generate(int width, int height, MazeRandom random) {
+        if (width <= tileSize && height <= tileSize) {
+            return tileGenerator.generate(width, height, random);
+        }
+        Tiling tiling = new Tiling(width, height);
+
+        MazeRandom[] tileRandoms = new MazeRandom[tiling.tileCount];
+        for (int tile = 0; tile < tiling.tileCount; tile++) {
+            tileRandoms[tile] = random.split();
+        }
+        Maze[] tiles = new Maze[tiling.tileCount];
+        pool.invoke(new RangeTask(0, tiling.tileCount, TILES_PER_TASK, (from, to) -> {
+            for (int tile = from; tile < to; tile++) {
+                tiles[tile] = tileGenerator.generate(tiling.tileWidth(tile), tiling.tileHeight(tile), tileRandoms[tile]);
+            }
+        }));
+
+        PackedMaze maze = new PackedMaze(width, height);
+        long[] words = maze.passageWords();
+        // each task owns whole words of the packed maze, so no two threads ever write to the same long
+        pool.invoke(new RangeTask(0, words.length, WORDS_PER_TASK, (from, to) -> {
+            for (int word = from; word < to; word++) {
+                words[word] = tiling.passageWord(tiles, word);
+            }
+        }));
+
+        joinTiles(maze, tiling, random);
+        return maze;
+    }
+
+    private void joinTiles(PackedMaze maze, Tiling tiling, MazeRandom random) {
+        Maze tileTree = new KruskalMazeGenerator().generate(tiling.tilesAcross, tiling.tilesDown, random);
+        for (int tile = 0; tile < tiling.tileCount; tile++) {
+            int tileX = tile % tiling.tilesAcross;
+            int tileY = tile / tiling.tilesAcross;
+            if (tileTree.isOpen(tile, Direction.RIGHT)) {
+                int x = (tileX + 1) * tileSize - 1;
+                int y = tileY * tileSize + random.nextInt(tiling.tileHeight(tile));
+                maze.open(y * tiling.width + x, Direction.RIGHT);
+            }
+            if (tileTree.isOpen(tile, Direction.DOWN)) {
+                int x = tileX * tileSize + random.nextInt(tiling.tileWidth(tile));
+                int y = (tileY + 1) * tileSize - 1;
+                maze.open(y * tiling.width + x, Direction.DOWN);
+            }
+        }
+    }
+
+    private class Tiling {
+
+        final int width;
+        final int height;
+        final int tilesAcross;
+        final int tilesDown;
+        final int tileCount;
+
+        Tiling(int width, int height) {
+            this.width = width;
+            this.height = height;
+            this.tilesAcross = (width + tileSize - 1) / tileSize;
+            this.tilesDown = (height + tileSize - 1) / tileSize;
+            this.tileCount = tilesAcross * tilesDown;
+        }
+
+        int tileWidth(int tile) {
+            return Math.min(tileSize, width - (tile % tilesAcross) * tileSize);
+        }
+
+        int tileHeight(int tile) {
+            return Math.min(tileSize, height - (tile / tilesAcross) * tileSize);
+        }
+
+        /**
+         * Gathers the RIGHT and DOWN passages of the 32 cells in one word of the packed maze from their tiles.
+         * Passages that would cross a tile border are never open inside a tile, so the borders start out walled.
+         */
+        long passageWord(Maze[] tiles, int word) {
+            long bits = 0L;
+            int firstCell = word << 5;
+            int lastCell = Math.min(firstCell + 32, width * height);
+            int x = firstCell % width;
+            int y = firstCell / width;
+            for (int cell = firstCell; cell < lastCell; cell++) {
+                int tile = (y / tileSize) * tilesAcross + x / tileSize;
+                Maze tileMaze = tiles[tile];
+                int tileCell = (y % tileSize) * tileMaze.getWidth() + x % tileSize;
+                if (tileMaze.isOpen(tileCell, Direction.RIGHT)) {
+                    bits |= BitPackedMaze.passageMask(cell, BitPackedMaze.RIGHT_BIT);
+                }
+                if (tileMaze.isOpen(tileCell, Direction.DOWN)) {
+                    bits |= BitPackedMaze.passageMask(cell, BitPackedMaze.DOWN_BIT);
+                }
+                if (++x == width) {
+                    x = 0;
+                    y++;
+                }
+            }
+            return bits;
+        }
+    }
+
+    private interface RangeWork {
+        void run(int from, int to);
+    }
+
+    /**
+     * Splits [from, to) in half until a piece is no bigger than the threshold, then runs the work on it.
+     */
+    @SuppressWarnings("serial")
+    private static class RangeTask extends RecursiveAction {
+
+        private final int from;
+        private final int to;
+        private final int threshold;
+        private final RangeWork work;
+
+        RangeTask(int from, int to, int threshold, RangeWork work) {
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.work = work;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                work.run(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeTask(from, middle, threshold, work), new RangeTask(middle, to, threshold, work));
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package uk.robevans;
+
+import java.util.Arrays;
+
+/**
+ * Shortest paths through a {@link DirectedMaze}, where passages can loop, go one way only and cost more than a
+ * single move. {@link #solve} is A* from one cell to another with the Manhattan distance as the heuristic - every
+ * step costs at least 1, so it never over estimates and the path found is always a cheapest one.
+ * {@link #solveFrom} is Dijkstra's search out to every reachable cell, for when all the distances are wanted.
+ * <p>
+ * Weights are small integers, so both searches queue cells in a {@link BucketQueue} rather than a heap: each
+ * priority is one more list to walk rather than a log n sift. As in {@link MazeSolver}, everything is allocated
+ * once per solver, and stamps stand in for clearing the arrays between searches.
+ * A solver is not thread safe; give each thread its own.
+ */
+public class WeightedMazeSolver {
+
+    public static final int NO_PATH = -1;
+
+    private final DirectedMaze maze;
+    private final int width;
+    private final int[] stepOffsets;
+    private final int[] costs;
+    private final int[] parents;
+    private final int[] openedStamps;
+    private final int[] closedStamps;
+    private final BucketQueue openSet;
+    private final int[] path;
+    private int pathLength;
+    private int stamp;
+
+    public WeightedMazeSolver(DirectedMaze maze) {
+        int cellCount = maze.getCellCount();
+        this.maze = maze;
+        this.width = maze.getWidth();
+        this.stepOffsets = new int[Direction.VALUES.length];
+        for (Direction direction : Direction.VALUES) {
+            stepOffsets[direction.ordinal()] = direction.yOffset * width + direction.xOffset;
+        }
+        this.costs = new int[cellCount];
+        this.parents = new int[cellCount];
+        this.openedStamps = new int[cellCount];
+        this.closedStamps = new int[cellCount];
+        // an A* step raises the priority by the weight plus at most 1 for the heuristic
+        this.openSet = new BucketQueue(cellCount, maze.getMaxWeight() + 1);
+        this.path = new int[cellCount];
+    }
+
+    /**
+     * Finds a cheapest path between two cells. The cells on it, start and goal included, can then be read
+     * from {@link #getPath()}.
+     *
+     * @return the total weight of the path, or {@link #NO_PATH} if the goal can't be reached
+     */
+    public int solve(int startCell, int goalCell) {
+        MazeMetrics metrics = MazeMetrics.get();
+        long started = metrics.startTime();
+        long allocated = metrics.allocatedBytes();
+        int cost = search(startCell, goalCell);
+        metrics.record(MazeMetrics.Operation.MAZE_SOLVE, started, allocated);
+        return cost;
+    }
+
+    /**
+     * Works out the cheapest way to every cell reachable from the start, to be read back with
+     * {@link #getCost(int)} until the next search.
+     *
+     * @return the number of cells reachable, the start included
+     */
+    public int solveFrom(int startCell) {
+        search(startCell, -1);
+        int reached = 0;
+        for (int cell = 0; cell < closedStamps.length; cell++) {
+            if (closedStamps[cell] == stamp) {
+                reached++;
+            }
+        }
+        return reached;
+    }
+
+    /**
+     * @return the cost of the cheapest way to the cell found by the last search, or {@link #NO_PATH} if that
+     * search did not settle it
+     */
+    public int getCost(int cell) {
+        return closedStamps[cell] == stamp ? costs[cell] : NO_PATH;
+    }
+
+    private int search(int startCell, int goalCell) {
+        nextStamp();
+        openSet.clear();
+        pathLength = 0;
+
+        boolean directed = goalCell >= 0;
+        int goalX = directed ? goalCell % width : 0;
+        int goalY = directed ? goalCell / width : 0;
+        costs[startCell] = 0;
+        parents[startCell] = -1;
+        openedStamps[startCell] = stamp;
+        openSet.insert(startCell, directed ? manhattanDistance(startCell, goalX, goalY) : 0);
+
+        while (!openSet.isEmpty()) {
+            int cell = openSet.pollMin();
+            closedStamps[cell] = stamp;
+            if (cell == goalCell) {
+                return tracePathBackFrom(goalCell);
+            }
+
+            int cost = costs[cell];
+            int exits = maze.exits(cell);
+            while (exits != 0) {
+                int exit = Integer.numberOfTrailingZeros(exits);
+                exits &= exits - 1;
+                int neighbour = cell + stepOffsets[exit];
+                if (closedStamps[neighbour] == stamp) {
+                    continue;
+                }
+                int tentativeCost = cost + maze.weight(cell, exit);
+                int priority = directed ? tentativeCost + manhattanDistance(neighbour, goalX, goalY) : tentativeCost;
+                if (openedStamps[neighbour] != stamp) {
+                    openedStamps[neighbour] = stamp;
+                    costs[neighbour] = tentativeCost;
+                    parents[neighbour] = cell;
+                    openSet.insert(neighbour, priority);
+                } else if (tentativeCost < costs[neighbour]) {
+                    costs[neighbour] = tentativeCost;
+                    parents[neighbour] = cell;
+                    openSet.decreaseKey(neighbour, priority);
+                }
+            }
+        }
+        return NO_PATH;
+    }
+
+    /**
+     * @return the cells of the last path found, start first. Only the first {@link #getPathLength()} entries
+     * are valid and the array is overwritten by the next search.
+     */
+    public int[] getPath() {
+        return path;
+    }
+
+    public int getPathLength() {
+        return pathLength;
+    }
+
+    private int tracePathBackFrom(int goalCell) {
+        int length = 0;
+        for (int cell = goalCell; cell >= 0; cell = parents[cell]) {
+            path[length++] = cell;
+        }
+        for (int i = 0, j = length - 1; i < j; i++, j--) {
+            int swap = path[i];
+            path[i] = path[j];
+            path[j] = swap;
+        }
+        pathLength = length;
+        return costs[goalCell];
+    }
+
+    private int manhattanDistance(int cell, int goalX, int goalY) {
+        return Math.abs(cell % width - goalX) + Math.abs(cell / width - goalY);
+    }
+
+    private void nextStamp() {
+        stamp++;
+        if (stamp == 0) {
+            // wrapped round after 2^32 searches - old stamps could now look current, so start afresh
+            Arrays.fill(openedStamps, 0);
+            Arrays.fill(closedStamps, 0);
+            stamp = 1;
+        }
+    }
+}
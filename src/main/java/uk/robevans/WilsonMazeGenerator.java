@@ -0,0 +1,43 @@
+package uk.robevans;
+
+import java.util.BitSet;
+
+/**
+ * Wilson's algorithm: a loop-erased random walk from each cell not yet in the maze until the walk hits the maze.
+ * Rather than keeping the walk as a list and cutting loops out of it, the direction last taken out of each cell
+ * is recorded; overwriting it when the walk comes back round erases the loop for free. The result is a uniformly
+ * random spanning tree, at the cost of slow walks early on while the maze is still small.
+ */
+public class WilsonMazeGenerator implements MazeGenerator {
+
+    @Override
+    public Maze generate(int width, int height, MazeRandom random) {
+        int cellCount = width * height;
+        PackedMaze maze = new PackedMaze(width, height);
+        BitSet inMaze = new BitSet(cellCount);
+        byte[] exitDirections = new byte[cellCount];
+        Direction[] directions = Direction.VALUES;
+
+        inMaze.set(random.nextInt(cellCount));
+        for (int start = inMaze.nextClearBit(0); start < cellCount; start = inMaze.nextClearBit(start + 1)) {
+            int cell = start;
+            while (!inMaze.get(cell)) {
+                Direction direction = directions[random.nextInt(directions.length)];
+                int next = maze.neighbour(cell, direction);
+                if (next >= 0) {
+                    exitDirections[cell] = (byte) direction.ordinal();
+                    cell = next;
+                }
+            }
+
+            cell = start;
+            while (!inMaze.get(cell)) {
+                Direction direction = directions[exitDirections[cell]];
+                maze.open(cell, direction);
+                inMaze.set(cell);
+                cell = maze.neighbour(cell, direction);
+            }
+        }
+        return maze;
+    }
+}
@@ -0,0 +1,64 @@
+package uk.robevans;
+
+import java.awt.Point;
+
+/**
+ * One player's mouse wandering a {@link ChunkedWorld}. Chunks are pulled in as the mouse walks into them, and the
+ * session holds on to the chunk it is in, so a move that stays inside it never goes near the world's LRU lock.
+ * Holding a chunk the world has since evicted does no harm - it would be carved again exactly the same.
+ * <p>
+ * A session belongs to its player and is not itself safe to move from several threads at once.
+ */
+public class WorldSession {
+
+    private final ChunkedWorld world;
+    private int mouseX;
+    private int mouseY;
+    private int chunkX;
+    private int chunkY;
+    private PackedMaze chunk;
+    private long moveCount;
+
+    public WorldSession(ChunkedWorld world, Point mouseStartLocation) {
+        this.world = world;
+        this.mouseX = mouseStartLocation.x;
+        this.mouseY = mouseStartLocation.y;
+        enterChunk();
+    }
+
+    public ChunkedWorld getWorld() {
+        return world;
+    }
+
+    public Point getMouseLocation() {
+        return new Point(mouseX, mouseY);
+    }
+
+    public long getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * Moves the mouse one cell if there is no wall in the way, loading the chunk it steps into if need be.
+     *
+     * @return false, leaving the mouse where it was, if the way is walled off
+     */
+    public boolean move(Direction direction) {
+        if (!world.isOpen(chunk, mouseX, mouseY, direction)) {
+            return false;
+        }
+        mouseX += direction.xOffset;
+        mouseY += direction.yOffset;
+        moveCount++;
+        if (world.chunkOf(mouseX) != chunkX || world.chunkOf(mouseY) != chunkY) {
+            enterChunk();
+        }
+        return true;
+    }
+
+    private void enterChunk() {
+        chunkX = world.chunkOf(mouseX);
+        chunkY = world.chunkOf(mouseY);
+        chunk = world.chunk(chunkX, chunkY);
+    }
+}
@@ -0,0 +1,45 @@
+package uk.robevans;
+
+/**
+ * xoroshiro128++: 128 bits of state, a few shifts and rotates per number and a period of 2^128 - 1.
+ * Seeds and splits are spread across the state with SplitMix64, as its authors recommend, so that similar
+ * seeds don't give similar sequences.
+ */
+public class XoroshiroMazeRandom implements MazeRandom {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private long state0;
+    private long state1;
+
+    public XoroshiroMazeRandom(long seed) {
+        state0 = splitMix64(seed + GOLDEN_GAMMA);
+        state1 = splitMix64(seed + 2 * GOLDEN_GAMMA);
+        if ((state0 | state1) == 0) {
+            // all zero is the one state xoroshiro can never leave
+            state1 = 1;
+        }
+    }
+
+    @Override
+    public long nextLong() {
+        long s0 = state0;
+        long s1 = state1;
+        long result = Long.rotateLeft(s0 + s1, 17) + s0;
+        s1 ^= s0;
+        state0 = Long.rotateLeft(s0, 49) ^ s1 ^ (s1 << 21);
+        state1 = Long.rotateLeft(s1, 28);
+        return result;
+    }
+
+    @Override
+    public MazeRandom split() {
+        return new XoroshiroMazeRandom(nextLong());
+    }
+
+    private static long splitMix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
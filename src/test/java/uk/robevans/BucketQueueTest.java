@@ -0,0 +1,95 @@
+package uk.robevans;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.PriorityQueue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BucketQueueTest {
+
+    private BucketQueue testObject;
+
+    @Before
+    public void setUp() {
+        testObject = new BucketQueue(10, 5);
+    }
+
+    @Test
+    public void indexesShouldComeOutInPriorityOrderAcrossTheWrapOfTheBuckets() {
+        testObject.insert(3, 2);
+        testObject.insert(7, 1);
+        testObject.insert(1, 4);
+
+        assertEquals(7, testObject.pollMin());
+        testObject.insert(2, 6);
+        assertEquals(3, testObject.pollMin());
+        testObject.insert(5, 9);
+        assertEquals(1, testObject.pollMin());
+        assertEquals(2, testObject.pollMin());
+        assertEquals(5, testObject.pollMin());
+        assertTrue(testObject.isEmpty());
+    }
+
+    @Test
+    public void decreasingAKeyShouldMoveTheIndexForward() {
+        testObject.insert(1, 2);
+        testObject.insert(2, 3);
+        testObject.insert(3, 5);
+
+        testObject.decreaseKey(3, 1);
+        testObject.decreaseKey(2, 4);
+
+        assertEquals(3, testObject.size());
+        assertEquals(1, testObject.priorityOf(3));
+        assertEquals(3, testObject.priorityOf(2));
+        assertEquals(3, testObject.pollMin());
+        assertEquals(1, testObject.pollMin());
+        assertEquals(2, testObject.pollMin());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void prioritiesBeyondTheWindowShouldBeRejected() {
+        testObject.insert(1, 0);
+        testObject.insert(2, 8);
+    }
+
+    @Test
+    public void clearShouldEmptyTheQueueForReuse() {
+        testObject.insert(1, 1);
+        testObject.insert(2, 2);
+
+        testObject.clear();
+
+        assertTrue(testObject.isEmpty());
+        assertFalse(testObject.contains(1));
+        testObject.insert(1, 100);
+        assertEquals(1, testObject.pollMin());
+    }
+
+    @Test
+    public void aMonotoneRunShouldMatchAPriorityQueue() {
+        int capacity = 1000;
+        BucketQueue queue = new BucketQueue(capacity, 20);
+        PriorityQueue<Long> expected = new PriorityQueue<>();
+        MazeRandom random = MazeRandom.seeded(5);
+        int next = 0;
+        int last = 0;
+        for (int round = 0; round < 5000; round++) {
+            if (next < capacity && (expected.isEmpty() || random.nextBoolean())) {
+                int priority = last + random.nextInt(21);
+                queue.insert(next, priority);
+                expected.add(((long) priority << 32) | next);
+                next++;
+            } else if (!expected.isEmpty()) {
+                long entry = expected.poll();
+                int index = queue.pollMin();
+                last = (int) (entry >>> 32);
+                assertEquals(last, queue.priorityOf(index));
+            }
+        }
+    }
+}
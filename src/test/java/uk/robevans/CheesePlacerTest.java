@@ -0,0 +1,125 @@
+package uk.robevans;
+
+import org.junit.Test;
+
+import java.awt.Point;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CheesePlacerTest {
+
+    @Test
+    public void theCheeseShouldBeAtLeastAQuarterOfTheMazeAwayInAStraightLine() {
+        Maze maze = new KruskalMazeGenerator().generate(40, 24, MazeRandom.seeded(1L));
+        CheesePlacer testObject = new CheesePlacer(maze);
+        MazeRandom random = MazeRandom.seeded(2L);
+        assertEquals(10.0, testObject.getMinimumDistance(), 0);
+
+        for (int i = 0; i < 200; i++) {
+            Point mouse = new Point(random.nextInt(40), random.nextInt(24));
+
+            Point cheese = testObject.place(mouse, random);
+
+            assertTrue(mouse + " -> " + cheese, mouse.distance(cheese) >= 10.0);
+        }
+    }
+
+    @Test
+    public void underTheMazeRuleTheCheeseShouldBeFarEnoughInMoves() {
+        Maze maze = new WilsonMazeGenerator().generate(30, 30, MazeRandom.seeded(3L));
+        CheesePlacer testObject = new CheesePlacer(maze, CheesePlacer.DistanceRule.MAZE);
+        MazeSolver solver = new MazeSolver(maze);
+        MazeRandom random = MazeRandom.seeded(4L);
+
+        for (int i = 0; i < 200; i++) {
+            int mouse = random.nextInt(maze.getCellCount());
+
+            int cheese = testObject.place(mouse, random);
+
+            assertTrue(solver.solve(mouse, cheese) >= 8);
+            assertEquals(solver.solve(mouse, cheese), testObject.getMazeDistance(cheese));
+        }
+    }
+
+    @Test
+    public void everyQualifyingCellShouldBeEquallyLikely() {
+        Maze maze = new KruskalMazeGenerator().generate(8, 8, MazeRandom.seeded(5L));
+        CheesePlacer testObject = new CheesePlacer(maze);
+        MazeRandom random = MazeRandom.seeded(6L);
+        int mouse = maze.index(0, 0);
+        int[] picks = new int[maze.getCellCount()];
+        int trials = 60_000;
+
+        for (int i = 0; i < trials; i++) {
+            picks[testObject.place(mouse, random)]++;
+        }
+
+        int qualifying = 0;
+        for (int cell = 0; cell < maze.getCellCount(); cell++) {
+            int x = cell % 8;
+            int y = cell / 8;
+            if (x * x + y * y >= 4) {
+                qualifying++;
+            } else {
+                assertEquals(0, picks[cell]);
+            }
+        }
+        double expected = (double) trials / qualifying;
+        for (int cell = 0; cell < maze.getCellCount(); cell++) {
+            int x = cell % 8;
+            int y = cell / 8;
+            if (x * x + y * y >= 4) {
+                assertEquals(expected, picks[cell], expected * 0.2);
+            }
+        }
+    }
+
+    @Test
+    public void withNothingFarEnoughReachableTheCheeseShouldGoInTheFarthestReachableCell() {
+        PackedMaze maze = new PackedMaze(10, 10);
+        // the mouse can only get along the first three cells of the top row
+        maze.open(0, Direction.RIGHT);
+        maze.open(1, Direction.RIGHT);
+
+        int cheese = new CheesePlacer(maze, CheesePlacer.DistanceRule.MAZE).place(0, MazeRandom.seeded(7L));
+
+        assertEquals(2, cheese);
+    }
+
+    @Test
+    public void aGameShouldHideItsCheeseAwayFromTheMouse() {
+        Game game = new Game(30, 20, 11L, MazeAlgorithm.ELLER);
+        Maze maze = game.createAMaze();
+
+        Point cheese = game.placeCheese(maze);
+
+        assertEquals(cheese, game.getCheeseLocation());
+        assertNotEquals(game.getMouseLocation(), cheese);
+        assertTrue(game.getMouseLocation().distance(cheese) >= 7.5);
+        assertEquals(cheese, new Game(30, 20, 11L, MazeAlgorithm.ELLER).placeCheese(maze));
+    }
+
+    @Test
+    public void aKeptPlacerShouldHideTheCheeseWhereAFreshOneWould() {
+        Maze first = new PrimMazeGenerator().generate(20, 20, MazeRandom.seeded(6L));
+        Maze second = new PrimMazeGenerator().generate(20, 20, MazeRandom.seeded(7L));
+        RandomPointGenerator testObject = new RandomPointGenerator(MazeRandom.seeded(8L));
+        MazeRandom random = MazeRandom.seeded(8L);
+
+        for (int i = 0; i < 30; i++) {
+            Maze maze = i % 10 < 5 ? first : second;
+            CheesePlacer.DistanceRule rule = CheesePlacer.DistanceRule.values()[i / 3 % 2];
+            Point mouse = new Point(i % 20, i * 7 % 20);
+
+            assertEquals(new CheesePlacer(maze, rule).place(mouse, random),
+                    testObject.getCheeseLocation(maze, mouse, rule));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void aMazeOfTheWrongSizeShouldNotHideTheCheese() {
+        new Game(10, 10, new RandomPointGenerator()).placeCheese(new KruskalMazeGenerator().generate(9, 10));
+    }
+}
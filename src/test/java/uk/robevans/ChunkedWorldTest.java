@@ -0,0 +1,170 @@
+package uk.robevans;
+
+import org.junit.Test;
+
+import java.awt.Point;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ChunkedWorldTest {
+
+    private static final long PLENTY = 1L << 20;
+
+    @Test
+    public void theSameSeedShouldAlwaysGiveTheSameWorldWhateverTheOrderOfVisits() {
+        ChunkedWorld first = new ChunkedWorld(42, 8, MazeAlgorithm.KRUSKAL, PLENTY);
+        ChunkedWorld second = new ChunkedWorld(42, 8, MazeAlgorithm.KRUSKAL, PLENTY);
+        ChunkedWorld other = new ChunkedWorld(43, 8, MazeAlgorithm.KRUSKAL, PLENTY);
+        // load the second world's chunks from the far corner first
+        second.isOpen(20, 20, Direction.UP);
+        second.isOpen(-20, 5, Direction.UP);
+
+        boolean differs = false;
+        for (int y = -20; y <= 20; y++) {
+            for (int x = -20; x <= 20; x++) {
+                for (Direction direction : Direction.values()) {
+                    assertEquals(first.isOpen(x, y, direction), second.isOpen(x, y, direction));
+                    differs |= first.isOpen(x, y, direction) != other.isOpen(x, y, direction);
+                }
+            }
+        }
+        assertTrue(differs);
+    }
+
+    @Test
+    public void neighbouringCellsShouldAgreeOnTheWallBetweenThemAcrossChunkBorders() {
+        ChunkedWorld testObject = new ChunkedWorld(7, 4, MazeAlgorithm.WILSON, PLENTY);
+
+        for (int y = -9; y <= 9; y++) {
+            for (int x = -9; x <= 9; x++) {
+                assertEquals(testObject.isOpen(x, y, Direction.RIGHT), testObject.isOpen(x + 1, y, Direction.LEFT));
+                assertEquals(testObject.isOpen(x, y, Direction.DOWN), testObject.isOpen(x, y + 1, Direction.UP));
+            }
+        }
+    }
+
+    @Test
+    public void everyCellOfABlockOfChunksShouldBeReachableWithoutLeavingIt() {
+        int chunkSize = 8;
+        int chunksAcross = 4;
+        ChunkedWorld testObject = new ChunkedWorld(99, chunkSize, MazeAlgorithm.PRIM, PLENTY);
+        int size = chunkSize * chunksAcross;
+        int origin = -2 * chunkSize;
+
+        boolean[] reached = new boolean[size * size];
+        int[] queue = new int[size * size];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = 0;
+        reached[0] = true;
+        while (head < tail) {
+            int cell = queue[head++];
+            int x = cell % size;
+            int y = cell / size;
+            for (Direction direction : Direction.values()) {
+                int nextX = x + direction.xOffset;
+                int nextY = y + direction.yOffset;
+                if (nextX < 0 || nextY < 0 || nextX >= size || nextY >= size
+                        || !testObject.isOpen(origin + x, origin + y, direction)) {
+                    continue;
+                }
+                int next = nextY * size + nextX;
+                if (!reached[next]) {
+                    reached[next] = true;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        assertEquals(size * size, tail);
+    }
+
+    @Test
+    public void theEndsOfTheIntRangeShouldBeWalledOff() {
+        ChunkedWorld testObject = new ChunkedWorld(5, 4, MazeAlgorithm.KRUSKAL, PLENTY);
+
+        for (int i = -8; i < 8; i++) {
+            assertFalse(testObject.isOpen(Integer.MIN_VALUE, i, Direction.LEFT));
+            assertFalse(testObject.isOpen(Integer.MAX_VALUE, i, Direction.RIGHT));
+            assertFalse(testObject.isOpen(i, Integer.MIN_VALUE, Direction.UP));
+            assertFalse(testObject.isOpen(i, Integer.MAX_VALUE, Direction.DOWN));
+        }
+        // the walls between the outermost chunks and their neighbours still have their doors
+        boolean door = false;
+        for (int y = 0; y < 4; y++) {
+            door |= testObject.isOpen(Integer.MAX_VALUE - 4, y, Direction.RIGHT);
+        }
+        assertTrue(door);
+    }
+
+    @Test
+    public void aSessionShouldNotWrapRoundTheEdgeOfTheWorld() {
+        ChunkedWorld world = new ChunkedWorld(5, 4, MazeAlgorithm.KRUSKAL, PLENTY);
+        WorldSession testObject = new WorldSession(world, new Point(Integer.MAX_VALUE, Integer.MIN_VALUE));
+
+        assertFalse(testObject.move(Direction.RIGHT));
+        assertFalse(testObject.move(Direction.UP));
+        assertEquals(new Point(Integer.MAX_VALUE, Integer.MIN_VALUE), testObject.getMouseLocation());
+    }
+
+    @Test
+    public void chunksBeyondTheCapShouldBeEvictedAndCarvedAgainIdentically() {
+        ChunkedWorld testObject = new ChunkedWorld(5, 16, MazeAlgorithm.KRUSKAL, 3 * (128 + 64));
+        boolean[] firstVisit = new boolean[16 * 16];
+        for (int cell = 0; cell < firstVisit.length; cell++) {
+            firstVisit[cell] = testObject.isOpen(cell % 16, cell / 16, Direction.RIGHT);
+        }
+
+        for (int chunkX = 1; chunkX <= 5; chunkX++) {
+            testObject.isOpen(chunkX * 16, 0, Direction.DOWN);
+        }
+
+        assertEquals(3, testObject.getMaxChunks());
+        assertEquals(3, testObject.getLoadedChunkCount());
+        assertEquals(3, testObject.getEvictionCount());
+        assertEquals(3 * (128 + 64), testObject.getSizeInBytes());
+        for (int cell = 0; cell < firstVisit.length; cell++) {
+            assertEquals(firstVisit[cell], testObject.isOpen(cell % 16, cell / 16, Direction.RIGHT));
+        }
+        assertEquals(7, testObject.getGeneratedCount());
+    }
+
+    @Test
+    public void aSessionShouldWanderAcrossChunksAndStopAtWalls() {
+        ChunkedWorld world = new ChunkedWorld(11, 4, MazeAlgorithm.KRUSKAL, PLENTY);
+        WorldSession testObject = new WorldSession(world, new Point(0, 0));
+        MazeRandom random = MazeRandom.seeded(3);
+
+        for (int step = 0; step < 2000; step++) {
+            Point before = testObject.getMouseLocation();
+            Direction direction = Direction.values()[random.nextInt(4)];
+            boolean open = world.isOpen(before.x, before.y, direction);
+
+            assertEquals(open, testObject.move(direction));
+            Point after = testObject.getMouseLocation();
+            assertEquals(open ? before.x + direction.xOffset : before.x, after.x);
+            assertEquals(open ? before.y + direction.yOffset : before.y, after.y);
+        }
+        assertTrue(world.getGeneratedCount() > 1);
+    }
+
+    @Test
+    public void aGameShouldStartItsMouseInTheWorld() {
+        Game game = new Game(10, 10, 3L, MazeAlgorithm.KRUSKAL);
+
+        WorldSession result = game.startSession(new ChunkedWorld(1, PLENTY));
+
+        assertEquals(game.getMouseLocation(), result.getMouseLocation());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void chunksShouldBeAPowerOfTwoAcross() {
+        new ChunkedWorld(1, 12, MazeAlgorithm.KRUSKAL, PLENTY);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void aCapTooSmallForOneChunkShouldBeRejected() {
+        new ChunkedWorld(1, 64, MazeAlgorithm.KRUSKAL, 100);
+    }
+}
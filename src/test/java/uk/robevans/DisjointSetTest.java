@@ -0,0 +1,41 @@
+package uk.robevans;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DisjointSetTest {
+
+    @Test
+    public void everyIndexShouldStartInItsOwnSet() {
+        DisjointSet testObject = new DisjointSet(5);
+
+        assertEquals(5, testObject.getSetCount());
+        assertFalse(testObject.connected(0, 1));
+    }
+
+    @Test
+    public void unionShouldJoinSetsTransitively() {
+        DisjointSet testObject = new DisjointSet(6);
+
+        assertTrue(testObject.union(0, 1));
+        assertTrue(testObject.union(2, 3));
+        assertTrue(testObject.union(1, 3));
+
+        assertTrue(testObject.connected(0, 2));
+        assertFalse(testObject.connected(0, 4));
+        assertEquals(3, testObject.getSetCount());
+    }
+
+    @Test
+    public void joiningIndexesAlreadyInTheSameSetShouldReturnFalse() {
+        DisjointSet testObject = new DisjointSet(3);
+        testObject.union(0, 1);
+        testObject.union(1, 2);
+
+        assertFalse(testObject.union(2, 0));
+        assertEquals(1, testObject.getSetCount());
+    }
+}
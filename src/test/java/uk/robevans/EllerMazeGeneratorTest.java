@@ -0,0 +1,77 @@
+package uk.robevans;
+
+import org.junit.Test;
+
+import java.util.Iterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static uk.robevans.MazeAssert.assertPerfectMaze;
+
+public class EllerMazeGeneratorTest {
+
+    private final EllerMazeGenerator testObject = new EllerMazeGenerator();
+
+    @Test
+    public void collectedRowsShouldFormAPerfectMaze() {
+        assertPerfectMaze(testObject.generate(1, 6));
+        assertPerfectMaze(testObject.generate(6, 1));
+        assertPerfectMaze(testObject.generate(30, 45));
+    }
+
+    @Test
+    public void everyRowShouldOpenUpWhereTheRowAboveOpenedDown() {
+        Iterator<MazeRow> rows = testObject.rows(12, 5000);
+        MazeRow previous = rows.next().copy();
+        for (int col = 0; col < 12; col++) {
+            assertFalse(previous.isOpen(col, Direction.UP));
+        }
+
+        while (rows.hasNext()) {
+            MazeRow row = rows.next();
+            boolean anyOpenUp = false;
+            for (int col = 0; col < 12; col++) {
+                assertEquals(previous.isOpen(col, Direction.DOWN), row.isOpen(col, Direction.UP));
+                anyOpenUp |= row.isOpen(col, Direction.UP);
+            }
+            assertTrue(anyOpenUp);
+            previous = row.copy();
+        }
+
+        assertEquals(4999, previous.getRow());
+        for (int col = 0; col < 12; col++) {
+            assertFalse(previous.isOpen(col, Direction.DOWN));
+        }
+    }
+
+    @Test
+    public void theSameRowInstanceShouldBeRefilledForEveryRow() {
+        Iterator<MazeRow> rows = testObject.rows(4, EllerMazeGenerator.ENDLESS);
+
+        MazeRow first = rows.next();
+        MazeRow second = rows.next();
+
+        assertSame(first, second);
+        assertEquals(1, second.getRow());
+        assertTrue(rows.hasNext());
+    }
+
+    @Test
+    public void theConsumerShouldSeeEveryRowInOrder() {
+        long[] expectedRow = new long[1];
+
+        testObject.generate(7, 300, row -> {
+            assertEquals(expectedRow[0]++, row.getRow());
+            assertEquals(7, row.getWidth());
+        });
+
+        assertEquals(300, expectedRow[0]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void anEmptyMazeShouldBeRejected() {
+        testObject.rows(0, 10);
+    }
+}
@@ -0,0 +1,128 @@
+package uk.robevans;
+
+import org.junit.Test;
+
+import java.awt.Point;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FlowFieldTest {
+
+    @Test
+    public void followingTheHintsShouldTakeTheShortestWayToTheCheese() {
+        Maze maze = new WilsonMazeGenerator().generate(20, 15);
+        MazeSolver solver = new MazeSolver(maze);
+        FlowField testObject = new FlowField(maze, 123);
+
+        for (int cell = 0; cell < maze.getCellCount(); cell++) {
+            int expected = solver.solve(cell, 123);
+            assertEquals(expected, testObject.getDistance(cell));
+            assertEquals(expected, followHints(maze, testObject, cell));
+        }
+        assertNull(testObject.hint(123));
+    }
+
+    @Test
+    public void movingTheCheeseInAPerfectMazeShouldFixEveryHintBeforeAnyRepair() {
+        Maze maze = new PrimMazeGenerator().generate(30, 30);
+        MazeSolver solver = new MazeSolver(maze);
+        FlowField testObject = new FlowField(maze, 0);
+
+        testObject.moveCheese(899);
+
+        assertFalse(testObject.isRepaired());
+        for (int cell = 0; cell < maze.getCellCount(); cell += 3) {
+            int expected = solver.solve(cell, 899);
+            assertEquals(expected, followHints(maze, testObject, cell));
+            assertEquals(expected, testObject.getDistance(cell));
+        }
+    }
+
+    @Test
+    public void aRepairInSlicesShouldEndWithExactDistancesInABraidedMaze() {
+        Maze perfect = new KruskalMazeGenerator().generate(25, 25);
+        DirectedMaze maze = new MazeBraider(0.6).braid(perfect, MazeRandom.seeded(9));
+        WeightedMazeSolver solver = new WeightedMazeSolver(maze);
+        FlowField testObject = new FlowField(maze, 312);
+
+        testObject.moveCheese(17);
+        for (int cell = 0; cell < maze.getCellCount(); cell++) {
+            assertTrue(followHints(maze, testObject, cell) >= 0);
+        }
+        int slices = 0;
+        while (!testObject.repair(100)) {
+            slices++;
+        }
+
+        assertEquals(6, slices);
+        solver.solveFrom(17);
+        for (int cell = 0; cell < maze.getCellCount(); cell++) {
+            assertEquals(solver.getCost(cell), testObject.getDistance(cell));
+            assertEquals(solver.getCost(cell), followHints(maze, testObject, cell));
+        }
+    }
+
+    @Test
+    public void aOneWayPassageInTheWayShouldBeRepairedStraightAway() {
+        // a corridor along the top row of a 4x1 maze, with the last step one-way to the right
+        DirectedMaze maze = new DirectedMaze(4, 1);
+        maze.open(0, Direction.RIGHT);
+        maze.open(1, Direction.RIGHT);
+        maze.openOneWay(2, Direction.RIGHT);
+        FlowField testObject = new FlowField(maze, 3);
+
+        testObject.moveCheese(0);
+
+        assertTrue(testObject.isRepaired());
+        assertEquals(FlowField.UNREACHABLE, testObject.getDistance(3));
+        assertNull(testObject.hint(3));
+        assertEquals(Direction.LEFT, testObject.hint(2));
+        assertEquals(2, testObject.getDistance(2));
+    }
+
+    @Test
+    public void cellsWalledOffFromTheCheeseShouldHaveNoHint() {
+        PackedMaze maze = new PackedMaze(3, 1);
+        maze.open(0, Direction.RIGHT);
+        FlowField testObject = new FlowField(maze, 0);
+
+        assertEquals(Direction.LEFT, testObject.hint(1));
+        assertNull(testObject.hint(2));
+        assertEquals(FlowField.UNREACHABLE, testObject.getDistance(2));
+    }
+
+    @Test
+    public void theGameShouldHandOutAFieldToWhereTheCheeseIs() {
+        Game game = new Game(12, 12, 4L, MazeAlgorithm.KRUSKAL);
+        Maze maze = game.createAMaze();
+        Point cheese = game.placeCheese(maze);
+
+        FlowField result = game.createFlowField(maze);
+
+        assertEquals(maze.index(cheese.x, cheese.y), result.getCheeseCell());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void aFieldShouldNeedTheCheesePlacedFirst() {
+        Game game = new Game(12, 12, 4L, MazeAlgorithm.KRUSKAL);
+        game.createFlowField(game.createAMaze());
+    }
+
+    /**
+     * @return the number of hints followed to reach the cheese, checking each one is an open exit
+     */
+    private static int followHints(Maze maze, FlowField field, int cell) {
+        int moves = 0;
+        for (Direction hint = field.hint(cell); hint != null; hint = field.hint(cell)) {
+            if (!maze.isOpen(cell, hint) || moves > maze.getCellCount()) {
+                throw new AssertionError("Hint " + hint + " from " + cell + " leads nowhere");
+            }
+            cell = maze.neighbour(cell, hint);
+            moves++;
+        }
+        return cell == field.getCheeseCell() ? moves : FlowField.UNREACHABLE;
+    }
+}
@@ -0,0 +1,160 @@
+package uk.robevans;
+
+import org.junit.Test;
+
+import java.awt.Point;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GameGridTest {
+
+    @Test
+    public void flagsShouldBeSetAndClearedIndependently() {
+        GameGrid testObject = new GameGrid(4, 3);
+        int cell = testObject.index(2, 1);
+
+        testObject.set(cell, GameGrid.VISITED | GameGrid.OBSTACLE);
+        testObject.clear(cell, GameGrid.OBSTACLE);
+
+        assertEquals(GameGrid.VISITED, testObject.get(cell));
+        assertTrue(testObject.has(cell, GameGrid.VISITED | GameGrid.MOUSE));
+        assertFalse(testObject.has(cell, GameGrid.OBSTACLE));
+        assertEquals(1, testObject.count(GameGrid.VISITED));
+    }
+
+    @Test
+    public void clearingAFlagEverywhereShouldLeaveTheOthers() {
+        GameGrid testObject = new GameGrid(5, 5);
+        for (int cell = 0; cell < testObject.getCellCount(); cell++) {
+            testObject.set(cell, GameGrid.VISITED);
+        }
+        testObject.set(7, GameGrid.CHEESE);
+
+        testObject.clearAll(GameGrid.VISITED);
+
+        assertEquals(0, testObject.count(GameGrid.VISITED));
+        assertEquals(GameGrid.CHEESE, testObject.get(7));
+    }
+
+    @Test
+    public void movingAFlagShouldTakeItOffTheCellItWasOn() {
+        GameGrid testObject = new GameGrid(3, 3);
+        testObject.move(GameGrid.MOUSE, -1, 0);
+
+        testObject.move(GameGrid.MOUSE, 0, 4);
+
+        assertEquals(1, testObject.count(GameGrid.MOUSE));
+        assertTrue(testObject.has(4, GameGrid.MOUSE));
+    }
+
+    @Test
+    public void edgeChecksShouldBeArithmeticOnTheIndex() {
+        GameGrid testObject = new GameGrid(5, 4);
+
+        for (int cell = 0; cell < testObject.getCellCount(); cell++) {
+            int x = cell % 5;
+            int y = cell / 5;
+            assertEquals(y == 0, testObject.isTopRow(cell));
+            assertEquals(y == 3, testObject.isBottomRow(cell));
+            assertEquals(x == 0, testObject.isFirstCol(cell));
+            assertEquals(x == 4, testObject.isLastCol(cell));
+            assertEquals(x == 0 || y == 0 || x == 4 || y == 3, testObject.isEdge(cell));
+        }
+    }
+
+    @Test
+    public void copiedWallsShouldMatchTheMazeAndKeepOtherFlags() {
+        Maze maze = new WilsonMazeGenerator().generate(37, 11);
+        GameGrid packed = new GameGrid(37, 11);
+        GameGrid viaInterface = new GameGrid(37, 11);
+        packed.set(5, GameGrid.CHEESE | GameGrid.WALL_UP);
+
+        // a GridGraph is not bit packed, so it takes the general route
+        Maze graph = new SpanningTree(MazeRandom.seeded(2)).build(37, 11).getGraph();
+
+        packed.copyWalls(maze);
+        viaInterface.copyWalls(graph);
+
+        for (int cell = 0; cell < maze.getCellCount(); cell++) {
+            for (Direction direction : Direction.values()) {
+                assertEquals(!maze.isOpen(cell, direction), packed.has(cell, GameGrid.wall(direction)));
+                assertEquals(!graph.isOpen(cell, direction), viaInterface.has(cell, GameGrid.wall(direction)));
+            }
+        }
+        assertTrue(packed.has(5, GameGrid.CHEESE));
+    }
+
+    @Test
+    public void oneWayPassagesShouldOnlyBeOpenFromTheirOwnSide() {
+        DirectedMaze maze = DirectedMaze.of(new PackedMaze(2, 1));
+        maze.openOneWay(0, Direction.RIGHT);
+        GameGrid testObject = new GameGrid(2, 1);
+
+        testObject.copyWalls(maze);
+
+        assertFalse(testObject.has(0, GameGrid.WALL_RIGHT));
+        assertTrue(testObject.has(1, GameGrid.WALL_LEFT));
+    }
+
+    @Test
+    public void aGameShouldKeepItsMouseCheeseAndWallsInItsGrid() {
+        Game game = new Game(12, 9, 8L, MazeAlgorithm.ELLER);
+        Point mouse = game.getMouseLocation();
+
+        Maze maze = game.createAMaze();
+        Point firstCheese = game.placeCheese(maze);
+        Point cheese = game.placeCheese(maze);
+
+        GameGrid result = game.getGrid();
+        assertEquals(12, result.getWidth());
+        assertEquals(9, result.getHeight());
+        assertTrue(result.has(result.index(mouse.x, mouse.y), GameGrid.MOUSE));
+        assertEquals(1, result.count(GameGrid.MOUSE));
+        assertEquals(1, result.count(GameGrid.CHEESE));
+        assertTrue(result.has(result.index(cheese.x, cheese.y), GameGrid.CHEESE));
+        assertEquals(firstCheese.equals(cheese), result.has(result.index(firstCheese.x, firstCheese.y), GameGrid.CHEESE));
+        int cell = result.index(mouse.x, mouse.y);
+        assertEquals(!maze.isOpen(cell, Direction.LEFT), result.has(cell, GameGrid.WALL_LEFT));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void theOldGridShouldShowTheMouseAndCheeseButKeepNoWrites() {
+        Game game = new Game(7, 3, 1L, MazeAlgorithm.KRUSKAL);
+        Point mouse = game.getMouseLocation();
+        Point cheese = game.placeCheese(game.createAMaze());
+
+        String[][] result = game.getGameGrid();
+
+        assertEquals(3, result.length);
+        assertEquals(7, result[0].length);
+        assertEquals("M", result[mouse.y][mouse.x]);
+        assertEquals("C", result[cheese.y][cheese.x]);
+        assertEquals(2, occupiedCells(result));
+
+        for (String[] row : result) {
+            Arrays.fill(row, "written");
+        }
+        assertEquals(2, occupiedCells(game.getGameGrid()));
+    }
+
+    private static int occupiedCells(String[][] cells) {
+        int occupied = 0;
+        for (String[] row : cells) {
+            for (String cell : row) {
+                if (cell != null) {
+                    occupied++;
+                }
+            }
+        }
+        return occupied;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void aMazeOfAnotherSizeShouldNotFit() {
+        new GameGrid(4, 4).copyWalls(new PackedMaze(4, 5));
+    }
+}
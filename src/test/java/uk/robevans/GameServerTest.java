@@ -0,0 +1,135 @@
+package uk.robevans;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class GameServerTest {
+
+    private Maze maze;
+    private GameServer testObject;
+    private final List<Socket> clients = new ArrayList<>();
+
+    @Before
+    public void setUp() throws IOException {
+        maze = new KruskalMazeGenerator().generate(12, 9, MazeRandom.seeded(4L));
+        Game game = new Game(12, 9, new RandomPointGenerator(MazeRandom.seeded(5L)));
+        testObject = new GameServer(game, maze, 0);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        for (Socket client : clients) {
+            client.close();
+        }
+        testObject.close();
+    }
+
+    @Test
+    public void movesShouldFollowTheMazesPassages() throws IOException {
+        Player player = connect();
+        String[] welcome = player.reader.readLine().split(" ");
+        assertEquals("WELCOME", welcome[0]);
+        assertEquals("12", welcome[1]);
+        assertEquals("9", welcome[2]);
+        int cell = maze.index(Integer.parseInt(welcome[3]), Integer.parseInt(welcome[4]));
+
+        for (int i = 0; i < 100; i++) {
+            Direction direction = Direction.VALUES[i * 7 % 4];
+            player.writer.println(direction.name());
+
+            boolean open = maze.isOpen(cell, direction);
+            if (open) {
+                cell = maze.neighbour(cell, direction);
+            }
+            assertEquals((open ? "OK " : "WALL ") + cell % 12 + " " + cell / 12, player.reader.readLine());
+        }
+        assertEquals(100, testObject.getMoveCount());
+    }
+
+    @Test
+    public void pipelinedCommandsShouldEachGetOneReplyInOrder() throws IOException {
+        Player player = connect();
+        String[] welcome = player.reader.readLine().split(" ");
+        String where = "AT " + welcome[3] + " " + welcome[4];
+
+        player.out.write("WHERE\r\nJUMP\nWHERE\nthis line is far longer than any command could ever be\nQUIT\n"
+                .getBytes(StandardCharsets.US_ASCII));
+        player.out.flush();
+
+        assertEquals(where, player.reader.readLine());
+        assertEquals("ERROR unknown command", player.reader.readLine());
+        assertEquals(where, player.reader.readLine());
+        assertEquals("ERROR unknown command", player.reader.readLine());
+        assertEquals("BYE", player.reader.readLine());
+        assertNull(player.reader.readLine());
+    }
+
+    @Test
+    public void eachConnectionShouldBeItsOwnSession() throws Exception {
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Player player = connect();
+            player.reader.readLine();
+            players.add(player);
+        }
+        assertEquals(20, testObject.getSessionsStarted());
+        assertEquals(20, testObject.getSessionCount());
+
+        for (Player player : players) {
+            player.writer.println("QUIT");
+            assertEquals("BYE", player.reader.readLine());
+        }
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (testObject.getSessionCount() > 0) {
+            assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    public void failedAcceptsShouldBackOffTwiceAsLongEachTimeUpToTheCap() {
+        long retryNanos = GameServer.nextAcceptRetry(0);
+        assertEquals(GameServer.FIRST_ACCEPT_RETRY_NANOS, retryNanos);
+        assertEquals(2 * retryNanos, GameServer.nextAcceptRetry(retryNanos));
+
+        for (int i = 0; i < 64; i++) {
+            retryNanos = GameServer.nextAcceptRetry(retryNanos);
+        }
+        assertEquals(GameServer.MAX_ACCEPT_RETRY_NANOS, retryNanos);
+        assertEquals(0, testObject.getAcceptFailureCount());
+    }
+
+    private Player connect() throws IOException {
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(), testObject.getPort());
+        clients.add(socket);
+        return new Player(socket);
+    }
+
+    private static class Player {
+        final BufferedReader reader;
+        final OutputStream out;
+        final PrintWriter writer;
+
+        Player(Socket socket) throws IOException {
+            reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            out = socket.getOutputStream();
+            writer = new PrintWriter(out, true);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package uk.robevans;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GameSessionTest {
+
+    private Maze maze;
+
+    @Before
+    public void setUp() {
+        maze = new SpanningTree(MazeRandom.seeded(6L)).build(16, 12).getMaze();
+    }
+
+    @Test
+    public void theMouseShouldOnlyMoveThroughOpenPassages() {
+        GameSession testObject = new GameSession(maze, new Point(5, 5));
+        int start = testObject.getMouseCell();
+
+        for (Direction direction : Direction.values()) {
+            boolean moved = testObject.move(direction);
+
+            assertEquals(maze.isOpen(start, direction), moved);
+            if (moved) {
+                assertEquals(maze.neighbour(start, direction), testObject.getMouseCell());
+                assertTrue(testObject.move(opposite(direction)));
+            }
+            assertEquals(start, testObject.getMouseCell());
+        }
+    }
+
+    @Test
+    public void theTrailShouldRecordEachCellOnce() {
+        GameSession testObject = new GameSession(maze, new Point(0, 0));
+        assertTrue(testObject.hasVisited(new Point(0, 0)));
+
+        Direction open = maze.isOpen(0, Direction.RIGHT) ? Direction.RIGHT : Direction.DOWN;
+        testObject.move(open);
+        testObject.move(opposite(open));
+        testObject.move(open);
+
+        assertEquals(3, testObject.getMoveCount());
+        assertEquals(2, testObject.getVisitedCount());
+        assertTrue(testObject.hasVisited(maze.neighbour(0, open)));
+        assertEquals(testObject.getMouseLocation(), open == Direction.RIGHT ? new Point(1, 0) : new Point(0, 1));
+    }
+
+    @Test
+    public void sessionsSharingAMazeShouldNotSeeEachOthersMoves() {
+        GameSession first = new GameSession(maze, new Point(3, 3));
+        GameSession second = new GameSession(maze, new Point(3, 3));
+
+        walk(first, 50);
+
+        assertEquals(0, second.getMoveCount());
+        assertEquals(1, second.getVisitedCount());
+        assertEquals(new Point(3, 3), second.getMouseLocation());
+    }
+
+    @Test
+    public void manySessionsShouldPlayOneMazeConcurrently() throws Exception {
+        Game game = new Game(16, 12, new RandomPointGenerator(MazeRandom.seeded(2L)));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<GameSession>> players = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                GameSession session = game.startSession(maze);
+                players.add(executor.submit(() -> walk(session, 200)));
+            }
+            for (Future<GameSession> player : players) {
+                GameSession session = player.get(30, TimeUnit.SECONDS);
+                assertEquals(200, session.getMoveCount());
+                assertTrue(session.hasVisited(session.getMouseCell()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void aMazeOfTheWrongSizeShouldNotStartASession() {
+        new Game(10, 10, new RandomPointGenerator()).startSession(maze);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void theMouseShouldStartInsideTheMaze() {
+        new GameSession(maze, new Point(16, 0));
+    }
+
+    /**
+     * Walks the mouse through open passages only, checking every step against the maze.
+     */
+    private static GameSession walk(GameSession session, int moves) {
+        MazeRandom random = MazeRandom.seeded(session.getMouseCell());
+        while (session.getMoveCount() < moves) {
+            int from = session.getMouseCell();
+            Direction direction = Direction.VALUES[random.nextInt(Direction.VALUES.length)];
+            boolean open = session.getMaze().isOpen(from, direction);
+            assertEquals(open, session.move(direction));
+            assertEquals(open ? session.getMaze().neighbour(from, direction) : from, session.getMouseCell());
+        }
+        return session;
+    }
+
+    private static Direction opposite(Direction direction) {
+        switch (direction) {
+            case UP:
+                return Direction.DOWN;
+            case DOWN:
+                return Direction.UP;
+            case LEFT:
+                return Direction.RIGHT;
+            default:
+                return Direction.LEFT;
+        }
+    }
+}
@@ -9,6 +9,7 @@ import org.mockito.junit.MockitoJUnitRunner;
 import java.awt.Point;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.when;
 
@@ -38,6 +39,15 @@ public class GameTest {
         assertEquals(MAZE_WIDTH, result[0].length);
     }
 
+    @Test
+    public void theGridShouldBeTheWidthAndHeightSpecifiedWithTheMouseInIt() {
+        GameGrid result = testObject.getGrid();
+
+        assertEquals(MAZE_HEIGHT, result.getHeight());
+        assertEquals(MAZE_WIDTH, result.getWidth());
+        assertTrue(result.has(result.index(2, 3), GameGrid.MOUSE));
+    }
+
 
     @Test
     public void invalidMazeSizeShouldThrowAnException() {
@@ -62,15 +72,38 @@ public class GameTest {
 
     @Test
     public void theMinimumMazeSizeShouldBe2By2() {
+        // the usual start of (2, 3) is off the edge of a game 2 wide
+        when(pointGeneratorMock.getPlayerStartLocation(2, 4)).thenReturn(new Point(1, 3));
         testObject = new Game(2, 4, pointGeneratorMock);
 
         assertEquals(2, testObject.getGameWidth());
         assertEquals(4, testObject.getGameHeight());
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void aMouseStartingOutsideTheGameShouldBeRejected() {
+        when(pointGeneratorMock.getPlayerStartLocation(3, 3)).thenReturn(new Point(2, 3));
+
+        new Game(3, 3, pointGeneratorMock);
+    }
+
     @Test
     public void theGameGridShouldStartTheMousePlayerAtALocationInTheMaze() {
         assertEquals(new Point(2, 3), testObject.getMouseLocation());
     }
 
+    @Test
+    public void gamesWithTheSameSeedShouldHaveTheSameMazeAndMouseLocation() {
+        Game first = new Game(MAZE_WIDTH, MAZE_HEIGHT, 1234L, MazeAlgorithm.KRUSKAL);
+        Game second = new Game(MAZE_WIDTH, MAZE_HEIGHT, 1234L, MazeAlgorithm.KRUSKAL);
+
+        assertEquals(first.getMouseLocation(), second.getMouseLocation());
+        Maze firstMaze = first.createAMaze();
+        Maze secondMaze = second.createAMaze();
+        for (int cell = 0; cell < firstMaze.getCellCount(); cell++) {
+            assertEquals(firstMaze.isOpen(cell, Direction.RIGHT), secondMaze.isOpen(cell, Direction.RIGHT));
+            assertEquals(firstMaze.isOpen(cell, Direction.DOWN), secondMaze.isOpen(cell, Direction.DOWN));
+        }
+    }
+
 }
\ No newline at end of file
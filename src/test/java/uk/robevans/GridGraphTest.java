@@ -0,0 +1,95 @@
+package uk.robevans;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.Point;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class GridGraphTest {
+
+    private GridGraph testObject;
+
+    @Before
+    public void setUp() {
+        testObject = new GridGraph(4, 3);
+    }
+
+    @Test
+    public void cellIndexShouldBeRowMultipliedByWidthPlusColumn() {
+        assertEquals(0, testObject.index(0, 0));
+        assertEquals(3, testObject.index(3, 0));
+        assertEquals(9, testObject.index(1, 2));
+        assertEquals(1, testObject.getX(9));
+        assertEquals(2, testObject.getY(9));
+    }
+
+    @Test
+    public void neighboursOffTheGridShouldBeMinusOne() {
+        assertEquals(-1, testObject.neighbour(0, Direction.UP));
+        assertEquals(-1, testObject.neighbour(0, Direction.LEFT));
+        assertEquals(-1, testObject.neighbour(3, Direction.RIGHT));
+        assertEquals(-1, testObject.neighbour(11, Direction.DOWN));
+
+        assertEquals(4, testObject.neighbour(0, Direction.DOWN));
+        assertEquals(1, testObject.neighbour(0, Direction.RIGHT));
+        assertEquals(5, testObject.neighbour(9, Direction.UP));
+        assertEquals(8, testObject.neighbour(9, Direction.LEFT));
+    }
+
+    @Test
+    public void weightsShouldBeSharedByBothEndsOfAnEdge() {
+        testObject.setWeight(5, Direction.RIGHT, 42);
+        testObject.setWeight(5, Direction.DOWN, 7);
+
+        assertEquals(42, testObject.getWeight(6, Direction.LEFT));
+        assertEquals(7, testObject.getWeight(9, Direction.UP));
+
+        testObject.setWeight(5, Direction.UP, 3);
+        assertEquals(3, testObject.getWeight(1, Direction.DOWN));
+    }
+
+    @Test
+    public void forEachEdgeShouldOnlyVisitEdgesThatExist() {
+        int[] count = new int[1];
+
+        testObject.forEachEdge(0, (cell, direction, neighbour, weight) -> count[0]++);
+        assertEquals(2, count[0]);
+
+        count[0] = 0;
+        testObject.forEachEdge(5, (cell, direction, neighbour, weight) -> count[0]++);
+        assertEquals(4, count[0]);
+    }
+
+    @Test
+    public void edgeMapViewShouldOnlyContainInitialisedCells() {
+        testObject.setWeight(0, Direction.RIGHT, 11);
+        testObject.setWeight(0, Direction.DOWN, 22);
+        testObject.markInitialised(0);
+
+        Map<Point, Map<Direction, Integer>> edgeMap = testObject.asEdgeMap();
+
+        assertEquals(1, edgeMap.size());
+        assertNull(edgeMap.get(new Point(1, 0)));
+        assertEquals(2, edgeMap.get(new Point(0, 0)).size());
+        assertEquals(Integer.valueOf(11), edgeMap.get(new Point(0, 0)).get(Direction.RIGHT));
+        assertEquals(Integer.valueOf(22), edgeMap.get(new Point(0, 0)).get(Direction.DOWN));
+        assertFalse(edgeMap.get(new Point(0, 0)).containsKey(Direction.UP));
+        assertTrue(edgeMap.keySet().contains(new Point(0, 0)));
+    }
+
+    @Test
+    public void clearingShouldEmptyTheEdgeMapView() {
+        testObject.markInitialised(0);
+        testObject.markInitialised(11);
+
+        testObject.clear();
+
+        assertEquals(0, testObject.asEdgeMap().size());
+    }
+}
@@ -0,0 +1,70 @@
+package uk.robevans;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HistogramTest {
+
+    @Test
+    public void smallValuesShouldBeExact() {
+        Histogram testObject = new Histogram();
+        for (int value = 1; value <= 100; value++) {
+            testObject.record(value);
+        }
+
+        Histogram.Snapshot snapshot = testObject.snapshot();
+
+        assertEquals(100, snapshot.getCount());
+        assertEquals(50, snapshot.getValueAtPercentile(50));
+        assertEquals(99, snapshot.getValueAtPercentile(99));
+        assertEquals(100, snapshot.getValueAtPercentile(100));
+        assertEquals(50.5, snapshot.getMean(), 0.0001);
+    }
+
+    @Test
+    public void largeValuesShouldBeWithinTheBucketPrecision() {
+        Histogram testObject = new Histogram();
+        MazeRandom random = MazeRandom.seeded(3L);
+        long[] values = new long[10_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1000 + random.nextInt(50_000_000);
+            testObject.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        Histogram.Snapshot snapshot = testObject.snapshot();
+
+        for (double percentile : new double[]{10, 50, 90, 99, 99.9}) {
+            long exact = values[(int) Math.ceil(values.length * percentile / 100) - 1];
+            long reported = snapshot.getValueAtPercentile(percentile);
+            assertTrue(percentile + ": " + reported + " vs " + exact, reported >= exact);
+            assertTrue(percentile + ": " + reported + " vs " + exact, reported <= exact + exact / 64 + 1);
+        }
+        assertEquals(values[values.length - 1], snapshot.getMax());
+    }
+
+    @Test
+    public void bucketsShouldCoverEveryLongWithoutGaps() {
+        long previousHighest = -1;
+        for (int index = 0; index <= Histogram.indexOf(Long.MAX_VALUE); index++) {
+            long highest = Histogram.highestValueIn(index);
+            assertEquals(index, Histogram.indexOf(previousHighest + 1));
+            assertEquals(index, Histogram.indexOf(highest));
+            previousHighest = highest;
+        }
+        assertEquals(Long.MAX_VALUE, previousHighest);
+    }
+
+    @Test
+    public void anEmptyHistogramShouldReportZeros() {
+        Histogram.Snapshot snapshot = new Histogram().snapshot();
+
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getValueAtPercentile(99));
+        assertEquals(0, snapshot.getMean(), 0);
+    }
+}
@@ -0,0 +1,87 @@
+package uk.robevans;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IndexedMinHeapTest {
+
+    private IndexedMinHeap testObject;
+
+    @Before
+    public void setUp() {
+        testObject = new IndexedMinHeap(10);
+    }
+
+    @Test
+    public void indexesShouldComeOutInPriorityOrder() {
+        testObject.insert(3, 30);
+        testObject.insert(7, -5);
+        testObject.insert(1, 10);
+        testObject.insert(9, Integer.MAX_VALUE);
+        testObject.insert(0, Integer.MIN_VALUE);
+
+        assertEquals(0, testObject.pollMin());
+        assertEquals(7, testObject.pollMin());
+        assertEquals(1, testObject.pollMin());
+        assertEquals(3, testObject.pollMin());
+        assertEquals(9, testObject.pollMin());
+        assertTrue(testObject.isEmpty());
+    }
+
+    @Test
+    public void decreasingAKeyShouldMoveTheIndexForward() {
+        testObject.insert(1, 10);
+        testObject.insert(2, 20);
+        testObject.insert(3, 30);
+
+        testObject.decreaseKey(3, 5);
+
+        assertEquals(3, testObject.size());
+        assertEquals(5, testObject.priorityOf(3));
+        assertEquals(3, testObject.pollMin());
+    }
+
+    @Test
+    public void increasingAKeyThroughDecreaseKeyShouldBeIgnored() {
+        testObject.insert(1, 10);
+        testObject.insert(2, 20);
+
+        testObject.decreaseKey(1, 50);
+
+        assertEquals(10, testObject.priorityOf(1));
+        assertEquals(1, testObject.pollMin());
+    }
+
+    @Test
+    public void polledIndexesShouldNoLongerBeContained() {
+        testObject.insertOrDecrease(4, 1);
+        testObject.insertOrDecrease(4, 0);
+
+        assertEquals(1, testObject.size());
+        assertTrue(testObject.contains(4));
+        testObject.pollMin();
+        assertFalse(testObject.contains(4));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void insertingTheSameIndexTwiceShouldThrowAnException() {
+        testObject.insert(2, 1);
+        testObject.insert(2, 3);
+    }
+
+    @Test
+    public void clearingShouldAllowIndexesToBeReinserted() {
+        testObject.insert(2, 1);
+        testObject.insert(5, 3);
+
+        testObject.clear();
+        testObject.insert(2, 9);
+
+        assertEquals(1, testObject.size());
+        assertEquals(2, testObject.pollMin());
+    }
+}
@@ -0,0 +1,97 @@
+package uk.robevans;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LinkCutTreeTest {
+
+    @Test
+    public void linkingAndCuttingShouldUpdateConnectivity() {
+        LinkCutTree testObject = new LinkCutTree(5);
+
+        assertTrue(testObject.link(0, 1));
+        assertTrue(testObject.link(1, 2));
+        assertTrue(testObject.link(3, 4));
+
+        assertTrue(testObject.connected(0, 2));
+        assertFalse(testObject.connected(2, 3));
+        assertFalse(testObject.link(2, 0));
+
+        assertTrue(testObject.cut(2, 1));
+        assertFalse(testObject.connected(0, 2));
+        assertFalse(testObject.cut(0, 2));
+    }
+
+    @Test
+    public void pathsShouldBeMeasuredAndWalkedFromEitherEnd() {
+        // a line 0-1-2-3-4 with 5 hanging off 2
+        LinkCutTree testObject = new LinkCutTree(6);
+        testObject.link(0, 1);
+        testObject.link(2, 1);
+        testObject.link(2, 3);
+        testObject.link(4, 3);
+        testObject.link(5, 2);
+
+        assertEquals(4, testObject.pathLength(0, 4));
+        assertEquals(2, testObject.pathLength(5, 3));
+        assertEquals(0, testObject.pathLength(3, 3));
+        assertEquals(2, testObject.nodeOnPath(0, 4, 2));
+        assertEquals(3, testObject.nodeOnPath(4, 0, 1));
+        assertEquals(2, testObject.nodeOnPath(5, 4, 1));
+        assertEquals(4, testObject.nodeOnPath(5, 4, 3));
+    }
+
+    @Test
+    public void aLongRunOfRandomChangesShouldMatchAPlainForest() {
+        int size = 60;
+        LinkCutTree testObject = new LinkCutTree(size);
+        boolean[][] edges = new boolean[size][size];
+        MazeRandom random = MazeRandom.seeded(12);
+
+        for (int round = 0; round < 3000; round++) {
+            int first = random.nextInt(size);
+            int second = random.nextInt(size);
+            if (first == second) {
+                continue;
+            }
+            if (edges[first][second]) {
+                assertTrue(testObject.cut(first, second));
+                edges[first][second] = edges[second][first] = false;
+            } else {
+                boolean joined = distance(edges, first, second) >= 0;
+                assertEquals(!joined, testObject.link(first, second));
+                if (!joined) {
+                    edges[first][second] = edges[second][first] = true;
+                }
+            }
+            int from = random.nextInt(size);
+            int to = random.nextInt(size);
+            assertEquals(distance(edges, from, to), testObject.pathLength(from, to));
+        }
+    }
+
+    private static int distance(boolean[][] edges, int from, int to) {
+        int[] distances = new int[edges.length];
+        Arrays.fill(distances, -1);
+        int[] queue = new int[edges.length];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = from;
+        distances[from] = 0;
+        while (head < tail) {
+            int node = queue[head++];
+            for (int next = 0; next < edges.length; next++) {
+                if (edges[node][next] && distances[next] < 0) {
+                    distances[next] = distances[node] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return distances[to];
+    }
+}
@@ -0,0 +1,54 @@
+package uk.robevans;
+
+import java.util.BitSet;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Shared checks for anything that hands back a {@link Maze}.
+ */
+public final class MazeAssert {
+
+    private MazeAssert() {
+    }
+
+    /**
+     * A perfect maze has a path between every pair of cells and no loops: it is connected with exactly cells - 1 passages.
+     */
+    public static void assertPerfectMaze(Maze maze) {
+        int cellCount = maze.getCellCount();
+        int passages = 0;
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (maze.isOpen(cell, Direction.RIGHT)) {
+                passages++;
+            }
+            if (maze.isOpen(cell, Direction.DOWN)) {
+                passages++;
+            }
+        }
+        assertEquals("passages", cellCount - 1, passages);
+        assertEquals("reachable cells", cellCount, countReachable(maze, 0));
+    }
+
+    public static int countReachable(Maze maze, int start) {
+        BitSet reached = new BitSet(maze.getCellCount());
+        int[] queue = new int[maze.getCellCount()];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        reached.set(start);
+        while (head < tail) {
+            int cell = queue[head++];
+            for (Direction direction : Direction.values()) {
+                if (maze.isOpen(cell, direction)) {
+                    int neighbour = maze.neighbour(cell, direction);
+                    if (!reached.get(neighbour)) {
+                        reached.set(neighbour);
+                        queue[tail++] = neighbour;
+                    }
+                }
+            }
+        }
+        return tail;
+    }
+}
@@ -0,0 +1,130 @@
+package uk.robevans;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MazeBraiderTest {
+
+    @Test
+    public void braidingEveryDeadEndShouldLeaveNoneInAMazeOfAnySize() {
+        for (int[] size : new int[][]{{20, 15}, {1, 8}, {8, 1}, {2, 2}}) {
+            Maze perfect = new KruskalMazeGenerator().generate(size[0], size[1]);
+
+            DirectedMaze result = new MazeBraider(1).braid(perfect, MazeRandom.seeded(3));
+
+            int expected = size[0] == 1 || size[1] == 1 ? 2 : 0;
+            assertEquals(size[0] + "x" + size[1], expected, countDeadEnds(result));
+            assertEquals(result.getCellCount(), MazeAssert.countReachable(result, 0));
+        }
+    }
+
+    @Test
+    public void braidingShouldRemoveTheRequestedShareOfDeadEndsAndAddLoops() {
+        Maze perfect = new PrimMazeGenerator().generate(40, 40);
+        int before = countDeadEnds(DirectedMaze.of(perfect));
+
+        DirectedMaze result = new MazeBraider(0.5).braid(perfect, MazeRandom.seeded(11));
+
+        int after = countDeadEnds(result);
+        assertTrue("dead ends " + before + " -> " + after, after <= before / 2 + 1 && after >= before / 2 - 1);
+        assertTrue(countPassages(result) > perfect.getCellCount() - 1);
+    }
+
+    @Test
+    public void noBraidingShouldLeaveThePerfectMazeAsItWas() {
+        Maze perfect = new WilsonMazeGenerator().generate(12, 9);
+
+        DirectedMaze result = new MazeBraider(0).braid(perfect, MazeRandom.seeded(1));
+
+        for (int cell = 0; cell < perfect.getCellCount(); cell++) {
+            for (Direction direction : Direction.values()) {
+                assertEquals(perfect.isOpen(cell, direction), result.isOpen(cell, direction));
+            }
+        }
+    }
+
+    @Test
+    public void oneWayPassagesShouldLeaveEveryCellReachableFromEveryOther() {
+        Maze perfect = new KruskalMazeGenerator().generate(30, 30);
+
+        DirectedMaze result = new MazeBraider(0.8, 1, 1).braid(perfect, MazeRandom.seeded(21));
+
+        int oneWay = 0;
+        for (int cell = 0; cell < result.getCellCount(); cell++) {
+            for (Direction direction : Direction.values()) {
+                if (result.isOneWay(cell, direction)) {
+                    oneWay++;
+                }
+            }
+        }
+        assertTrue("one-way passages " + oneWay, oneWay > 0);
+        for (int start = 0; start < result.getCellCount(); start += 37) {
+            assertEquals(result.getCellCount(), MazeAssert.countReachable(result, start));
+        }
+    }
+
+    @Test
+    public void bridgesShouldStayTwoWay() {
+        // a perfect maze is all bridges, so there is nothing that could be made one-way
+        Maze perfect = new KruskalMazeGenerator().generate(10, 10);
+
+        DirectedMaze result = new MazeBraider(0, 1, 1).braid(perfect, MazeRandom.seeded(2));
+
+        for (int cell = 0; cell < result.getCellCount(); cell++) {
+            for (Direction direction : Direction.values()) {
+                assertFalse(result.isOneWay(cell, direction));
+            }
+        }
+    }
+
+    @Test
+    public void weightsShouldRunFromOneToTheMaximum() {
+        Maze perfect = new KruskalMazeGenerator().generate(20, 20);
+
+        DirectedMaze result = new MazeBraider(0.3, 0, 9).braid(perfect, MazeRandom.seeded(4));
+
+        boolean sawHeavy = false;
+        for (int cell = 0; cell < result.getCellCount(); cell++) {
+            for (Direction direction : Direction.values()) {
+                if (result.isOpen(cell, direction)) {
+                    int weight = result.getWeight(cell, direction);
+                    assertTrue(weight >= 1 && weight <= 9);
+                    sawHeavy |= weight > 1;
+                }
+            }
+        }
+        assertTrue(sawHeavy);
+        assertEquals(9, result.getMaxWeight());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fractionsAboveOneShouldBeRejected() {
+        new MazeBraider(1.5);
+    }
+
+    private static int countDeadEnds(DirectedMaze maze) {
+        int deadEnds = 0;
+        for (int cell = 0; cell < maze.getCellCount(); cell++) {
+            if (Integer.bitCount(maze.exits(cell)) == 1) {
+                deadEnds++;
+            }
+        }
+        return deadEnds;
+    }
+
+    private static int countPassages(Maze maze) {
+        int passages = 0;
+        for (int cell = 0; cell < maze.getCellCount(); cell++) {
+            if (maze.isOpen(cell, Direction.RIGHT)) {
+                passages++;
+            }
+            if (maze.isOpen(cell, Direction.DOWN)) {
+                passages++;
+            }
+        }
+        return passages;
+    }
+}
@@ -0,0 +1,186 @@
+package uk.robevans;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MazeCacheTest {
+
+    // a 32x32 maze is 32 passage words, so three of them do not fit
+    private static final long TWO_MAZES = 2 * (128 + 32 * Long.BYTES);
+
+    @Test
+    public void aCachedMazeShouldBeTheOneTheSeedWouldGenerate() {
+        MazeCache testObject = new MazeCache(1 << 20);
+
+        Maze cached = testObject.get(30, 20, 8L, MazeAlgorithm.WILSON);
+        Maze generated = new WilsonMazeGenerator().generate(30, 20, MazeRandom.seeded(8L));
+
+        for (int cell = 0; cell < cached.getCellCount(); cell++) {
+            assertEquals(generated.isOpen(cell, Direction.RIGHT), cached.isOpen(cell, Direction.RIGHT));
+            assertEquals(generated.isOpen(cell, Direction.DOWN), cached.isOpen(cell, Direction.DOWN));
+        }
+    }
+
+    @Test
+    public void askingAgainShouldBeAHit() {
+        MazeCache testObject = new MazeCache(1 << 20);
+
+        Maze first = testObject.get(32, 32, 1L, MazeAlgorithm.PRIM);
+        Maze second = testObject.get(32, 32, 1L, MazeAlgorithm.PRIM);
+
+        assertSame(first, second);
+        assertEquals(1, testObject.getMissCount());
+        assertEquals(1, testObject.getHitCount());
+    }
+
+    @Test
+    public void anyDifferenceInTheKeyShouldBeAMiss() {
+        MazeCache testObject = new MazeCache(1 << 20);
+        Maze maze = testObject.get(32, 32, 1L, MazeAlgorithm.KRUSKAL);
+
+        assertNotSame(maze, testObject.get(33, 32, 1L, MazeAlgorithm.KRUSKAL));
+        assertNotSame(maze, testObject.get(32, 33, 1L, MazeAlgorithm.KRUSKAL));
+        assertNotSame(maze, testObject.get(32, 32, 2L, MazeAlgorithm.KRUSKAL));
+        assertNotSame(maze, testObject.get(32, 32, 1L, MazeAlgorithm.ELLER));
+        assertEquals(5, testObject.getMissCount());
+        assertEquals(5, testObject.size());
+    }
+
+    @Test
+    public void theLeastRecentlyUsedMazeShouldBeEvictedWhenTheCacheIsFull() {
+        MazeCache testObject = new MazeCache(TWO_MAZES);
+        Maze first = testObject.get(32, 32, 1L, MazeAlgorithm.KRUSKAL);
+        Maze second = testObject.get(32, 32, 2L, MazeAlgorithm.KRUSKAL);
+        testObject.get(32, 32, 1L, MazeAlgorithm.KRUSKAL);
+
+        testObject.get(32, 32, 3L, MazeAlgorithm.KRUSKAL);
+
+        assertEquals(1, testObject.getEvictionCount());
+        assertEquals(TWO_MAZES, testObject.getSizeInBytes());
+        assertSame(first, testObject.get(32, 32, 1L, MazeAlgorithm.KRUSKAL));
+        assertNotSame(second, testObject.get(32, 32, 2L, MazeAlgorithm.KRUSKAL));
+    }
+
+    @Test
+    public void aMazeBiggerThanTheWholeCacheShouldStillBeReturned() {
+        MazeCache testObject = new MazeCache(64);
+
+        Maze maze = testObject.get(10, 10, 1L, MazeAlgorithm.PRIM);
+
+        assertEquals(10, maze.getWidth());
+        assertEquals(0, testObject.size());
+        assertEquals(0, testObject.getSizeInBytes());
+        assertEquals(1, testObject.getEvictionCount());
+    }
+
+    @Test
+    public void aMazeBiggerThanTheWholeCacheShouldLeaveTheOthersCached() {
+        MazeCache testObject = new MazeCache(TWO_MAZES);
+        Maze first = testObject.get(32, 32, 1L, MazeAlgorithm.KRUSKAL);
+        Maze second = testObject.get(32, 32, 2L, MazeAlgorithm.KRUSKAL);
+
+        testObject.get(100, 100, 3L, MazeAlgorithm.KRUSKAL);
+
+        assertEquals(2, testObject.size());
+        assertEquals(TWO_MAZES, testObject.getSizeInBytes());
+        assertSame(first, testObject.get(32, 32, 1L, MazeAlgorithm.KRUSKAL));
+        assertSame(second, testObject.get(32, 32, 2L, MazeAlgorithm.KRUSKAL));
+    }
+
+    @Test
+    public void concurrentRequestsForTheSameMazeShouldOnlyBuildItOnce() throws Exception {
+        AtomicInteger builds = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        MazeCache testObject = new MazeCache(1 << 20, algorithm -> (width, height, random) -> {
+            builds.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new KruskalMazeGenerator().generate(width, height, random);
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Maze>> requests = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                requests.add(executor.submit(() -> testObject.get(16, 16, 5L, MazeAlgorithm.KRUSKAL)));
+            }
+            while (testObject.getHitCount() + testObject.getMissCount() < 4) {
+                Thread.yield();
+            }
+            release.countDown();
+
+            Maze maze = requests.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<Maze> request : requests) {
+                assertSame(maze, request.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, builds.get());
+        assertEquals(1, testObject.getMissCount());
+        assertEquals(3, testObject.getHitCount());
+    }
+
+    @Test
+    public void aFailedBuildShouldNotBeCached() {
+        AtomicInteger builds = new AtomicInteger();
+        MazeCache testObject = new MazeCache(1 << 20, algorithm -> (width, height, random) -> {
+            if (builds.incrementAndGet() == 1) {
+                throw new IllegalStateException("out of cheese");
+            }
+            return new KruskalMazeGenerator().generate(width, height, random);
+        });
+
+        try {
+            testObject.get(16, 16, 5L, MazeAlgorithm.KRUSKAL);
+            fail("the first build should have failed");
+        } catch (IllegalStateException e) {
+            assertEquals("out of cheese", e.getMessage());
+        }
+
+        assertEquals(16, testObject.get(16, 16, 5L, MazeAlgorithm.KRUSKAL).getWidth());
+        assertEquals(2, builds.get());
+    }
+
+    @Test
+    public void gamesWithTheSameSettingsShouldShareOneMaze() {
+        MazeCache mazeCache = new MazeCache(1 << 20);
+
+        Maze first = new Game(20, 10, 4L, MazeAlgorithm.ELLER, mazeCache).createAMaze();
+        Maze second = new Game(20, 10, 4L, MazeAlgorithm.ELLER, mazeCache).createAMaze();
+
+        assertSame(first, second);
+        assertTrue(samePassages(first, new Game(20, 10, 4L, MazeAlgorithm.ELLER).createAMaze()));
+    }
+
+    private static boolean samePassages(Maze cached, Maze uncached) {
+        for (int cell = 0; cell < cached.getCellCount(); cell++) {
+            if (cached.isOpen(cell, Direction.RIGHT) != uncached.isOpen(cell, Direction.RIGHT)
+                    || cached.isOpen(cell, Direction.DOWN) != uncached.isOpen(cell, Direction.DOWN)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void anEmptyCacheShouldBeRejected() {
+        new MazeCache(0);
+    }
+}
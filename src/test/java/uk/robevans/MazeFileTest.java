@@ -0,0 +1,86 @@
+package uk.robevans;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static uk.robevans.MazeAssert.assertPerfectMaze;
+
+public class MazeFileTest {
+
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("maze", ".bin");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void aMappedMazeShouldHaveExactlyThePassagesThatWereSaved() throws IOException {
+        Maze maze = new KruskalMazeGenerator().generate(37, 23);
+
+        MazeFile.write(file, maze, 1234L, MazeAlgorithm.KRUSKAL);
+        MappedMaze result = MazeFile.map(file);
+
+        assertEquals(37, result.getWidth());
+        assertEquals(23, result.getHeight());
+        assertEquals(1234L, result.getSeed());
+        assertSame(MazeAlgorithm.KRUSKAL, result.getAlgorithm());
+        assertSamePassages(maze, result);
+        assertPerfectMaze(result);
+    }
+
+    @Test
+    public void mazesThatAreNotPackedShouldBeSavedCellByCell() throws IOException {
+        SpanningTree spanningTree = new SpanningTree().build(14, 9);
+
+        MazeFile.write(file, spanningTree.getGraph(), 0L, MazeAlgorithm.PRIM);
+
+        assertSamePassages(spanningTree.getGraph(), MazeFile.map(file));
+    }
+
+    @Test
+    public void theFileShouldHoldTwoBitsPerCellAfterTheHeader() throws IOException {
+        MazeFile.write(file, new WilsonMazeGenerator().generate(128, 100), 0L, MazeAlgorithm.WILSON);
+
+        assertEquals(MazeFile.HEADER_SIZE + 12800 / 4, Files.size(file));
+    }
+
+    @Test(expected = IOException.class)
+    public void aFileWithoutTheMagicNumberShouldBeRejected() throws IOException {
+        Files.write(file, new byte[64]);
+
+        MazeFile.map(file);
+    }
+
+    @Test
+    public void aGameShouldBeAbleToPlayAMappedMaze() throws IOException {
+        MazeFile.write(file, new PrimMazeGenerator().generate(12, 8), 0L, MazeAlgorithm.PRIM);
+        MappedMaze mappedMaze = MazeFile.map(file);
+
+        Game game = new Game(mappedMaze, new RandomPointGenerator());
+
+        assertEquals(12, game.getGameWidth());
+        assertEquals(8, game.getGameHeight());
+        assertSame(mappedMaze, game.createAMaze());
+    }
+
+    private void assertSamePassages(Maze expected, Maze actual) {
+        for (int cell = 0; cell < expected.getCellCount(); cell++) {
+            for (Direction direction : Direction.values()) {
+                assertEquals(expected.isOpen(cell, direction), actual.isOpen(cell, direction));
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package uk.robevans;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static uk.robevans.MazeAssert.assertPerfectMaze;
+
+public class MazeGeneratorTest {
+
+    @Test
+    public void everyAlgorithmShouldGenerateAPerfectMaze() {
+        for (MazeAlgorithm algorithm : MazeAlgorithm.values()) {
+            MazeGenerator generator = algorithm.newGenerator();
+
+            assertPerfectMaze(generator.generate(2, 2));
+            assertPerfectMaze(generator.generate(7, 3));
+            assertPerfectMaze(generator.generate(40, 55));
+            assertPerfectMaze(generator.generate(1, 6));
+            assertPerfectMaze(generator.generate(6, 1));
+        }
+    }
+
+    @Test
+    public void theSameSeedShouldAlwaysGenerateTheSameMaze() {
+        for (MazeAlgorithm algorithm : MazeAlgorithm.values()) {
+            MazeGenerator generator = algorithm.newGenerator();
+
+            Maze first = generator.generate(20, 15, MazeRandom.seeded(99L));
+            Maze second = generator.generate(20, 15, new SplittableMazeRandom(99L));
+
+            for (int cell = 0; cell < first.getCellCount(); cell++) {
+                assertEquals(first.isOpen(cell, Direction.RIGHT), second.isOpen(cell, Direction.RIGHT));
+                assertEquals(first.isOpen(cell, Direction.DOWN), second.isOpen(cell, Direction.DOWN));
+            }
+        }
+    }
+
+    @Test
+    public void anyMazeRandomShouldBeAbleToDriveTheGenerators() {
+        for (MazeAlgorithm algorithm : MazeAlgorithm.values()) {
+            assertPerfectMaze(algorithm.newGenerator().generate(33, 17, new XoroshiroMazeRandom(5L)));
+        }
+    }
+
+    @Test
+    public void generatedMazesShouldHaveTheRequestedDimensions() {
+        for (MazeAlgorithm algorithm : MazeAlgorithm.values()) {
+            Maze maze = algorithm.newGenerator().generate(9, 4);
+
+            assertEquals(9, maze.getWidth());
+            assertEquals(4, maze.getHeight());
+        }
+    }
+
+    @Test
+    public void noPassageShouldLeadOffTheEdgeOfTheGrid() {
+        for (MazeAlgorithm algorithm : MazeAlgorithm.values()) {
+            Maze maze = algorithm.newGenerator().generate(6, 5);
+
+            for (int col = 0; col < 6; col++) {
+                assertFalse(maze.isOpen(maze.index(col, 0), Direction.UP));
+                assertFalse(maze.isOpen(maze.index(col, 4), Direction.DOWN));
+            }
+            for (int row = 0; row < 5; row++) {
+                assertFalse(maze.isOpen(maze.index(0, row), Direction.LEFT));
+                assertFalse(maze.isOpen(maze.index(5, row), Direction.RIGHT));
+            }
+        }
+    }
+
+    @Test
+    public void passagesShouldBeOpenFromBothSides() {
+        Maze maze = new KruskalMazeGenerator().generate(8, 8);
+
+        for (int cell = 0; cell < maze.getCellCount(); cell++) {
+            for (Direction direction : Direction.values()) {
+                int neighbour = maze.neighbour(cell, direction);
+                if (neighbour >= 0) {
+                    assertEquals(maze.isOpen(cell, direction), maze.isOpen(neighbour, opposite(direction)));
+                }
+            }
+        }
+    }
+
+    private Direction opposite(Direction direction) {
+        switch (direction) {
+            case UP:
+                return Direction.DOWN;
+            case DOWN:
+                return Direction.UP;
+            case LEFT:
+                return Direction.RIGHT;
+            default:
+                return Direction.LEFT;
+        }
+    }
+}
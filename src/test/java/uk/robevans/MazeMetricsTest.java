@@ -0,0 +1,83 @@
+package uk.robevans;
+
+import org.junit.Test;
+
+import java.awt.Point;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MazeMetricsTest {
+
+    @Test
+    public void operationsShouldBeTimedWithTheirAllocations() {
+        MazeMetrics testObject = MazeMetrics.recording();
+
+        long started = testObject.startTime();
+        long allocated = testObject.allocatedBytes();
+        byte[][] garbage = new byte[100][];
+        for (int i = 0; i < garbage.length; i++) {
+            garbage[i] = new byte[1024];
+        }
+        testObject.record(MazeMetrics.Operation.MAZE_SOLVE, started, allocated);
+
+        MetricsSnapshot snapshot = testObject.snapshot();
+        assertEquals(1, snapshot.getCount(MazeMetrics.Operation.MAZE_SOLVE));
+        assertTrue(snapshot.getLatency(MazeMetrics.Operation.MAZE_SOLVE).getMax() > 0);
+        assertTrue(snapshot.getAllocatedBytesPerOperation(MazeMetrics.Operation.MAZE_SOLVE) >= 100 * 1024);
+        assertEquals(0, snapshot.getCount(MazeMetrics.Operation.GAME_CONSTRUCTION));
+    }
+
+    @Test
+    public void buildingASpanningTreeShouldBeRecordedInTheSharedMetrics() {
+        MetricsSnapshot before = MazeMetrics.get().snapshot();
+
+        new SpanningTree(MazeRandom.seeded(1L)).build(30, 20);
+
+        MetricsSnapshot after = MazeMetrics.get().snapshot();
+        assertEquals(1, after.getCount(MazeMetrics.Operation.SPANNING_TREE_BUILD)
+                - before.getCount(MazeMetrics.Operation.SPANNING_TREE_BUILD));
+        assertEquals(1, after.getCount(MazeMetrics.Operation.INIT_EDGE_MAP)
+                - before.getCount(MazeMetrics.Operation.INIT_EDGE_MAP));
+        assertEquals(600, after.getCount(MazeMetrics.Counter.CELLS_PROCESSED)
+                - before.getCount(MazeMetrics.Counter.CELLS_PROCESSED));
+        assertEquals(600, after.getCount(MazeMetrics.Counter.HEAP_POLLS)
+                - before.getCount(MazeMetrics.Counter.HEAP_POLLS));
+        assertTrue(after.getDistribution(MazeMetrics.Distribution.PEAK_FRONTIER_SIZE).getCount()
+                > before.getDistribution(MazeMetrics.Distribution.PEAK_FRONTIER_SIZE).getCount());
+    }
+
+    @Test
+    public void gamesAndSolvesShouldBeRecordedInTheSharedMetrics() {
+        MetricsSnapshot before = MazeMetrics.get().snapshot();
+
+        Maze maze = new Game(10, 10, new RandomPointGenerator(), MazeAlgorithm.KRUSKAL).createAMaze();
+        new MazeSolver(maze).findPath(new Point(0, 0), new Point(9, 9));
+
+        MetricsSnapshot after = MazeMetrics.get().snapshot();
+        for (MazeMetrics.Operation operation : new MazeMetrics.Operation[]{MazeMetrics.Operation.GAME_CONSTRUCTION,
+                MazeMetrics.Operation.MAZE_GENERATION, MazeMetrics.Operation.MAZE_SOLVE}) {
+            assertEquals(operation.name(), 1, after.getCount(operation) - before.getCount(operation));
+        }
+    }
+
+    @Test
+    public void metricsShouldOnlyRecordWhenSwitchedOn() {
+        assertSame(MazeMetrics.noOp(), MazeMetrics.fromProperty("off"));
+        assertSame(MazeMetrics.noOp(), MazeMetrics.fromProperty(""));
+        assertTrue(MazeMetrics.fromProperty("on") != MazeMetrics.noOp());
+    }
+
+    @Test
+    public void switchedOffMetricsShouldRecordNothing() {
+        MazeMetrics testObject = MazeMetrics.fromProperty("off");
+
+        testObject.record(MazeMetrics.Operation.MAZE_SOLVE, testObject.startTime(), testObject.allocatedBytes());
+        testObject.count(MazeMetrics.Counter.HEAP_POLLS, 5);
+
+        assertSame(MazeMetrics.noOp(), testObject);
+        assertEquals(0, testObject.snapshot().getCount(MazeMetrics.Operation.MAZE_SOLVE));
+        assertEquals(0, testObject.snapshot().getCount(MazeMetrics.Counter.HEAP_POLLS));
+    }
+}
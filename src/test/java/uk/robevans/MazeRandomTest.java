@@ -0,0 +1,64 @@
+package uk.robevans;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MazeRandomTest {
+
+    @Test
+    public void theSameSeedShouldGiveTheSameSequence() {
+        assertSameSequence(MazeRandom.seeded(42L), MazeRandom.seeded(42L));
+        assertSameSequence(new XoroshiroMazeRandom(42L), new XoroshiroMazeRandom(42L));
+    }
+
+    @Test
+    public void splitsShouldBeReproducibleButDifferFromTheirParent() {
+        MazeRandom first = MazeRandom.seeded(7L).split();
+        MazeRandom second = MazeRandom.seeded(7L).split();
+
+        assertSameSequence(first, second);
+        assertTrue(MazeRandom.seeded(7L).split().nextLong() != MazeRandom.seeded(7L).nextLong());
+    }
+
+    @Test
+    public void boundedIntsShouldStayInRangeAndCoverIt() {
+        for (MazeRandom random : new MazeRandom[]{MazeRandom.seeded(1L), new XoroshiroMazeRandom(1L)}) {
+            int[] counts = new int[7];
+            for (int i = 0; i < 70000; i++) {
+                counts[random.nextInt(7)]++;
+            }
+            for (int count : counts) {
+                assertTrue("count " + count, count > 9000 && count < 11000);
+            }
+        }
+    }
+
+    @Test
+    public void bulkIntsShouldBeTheIntsDrawnOneAtATime() {
+        MazeRandom[][] pairs = {{MazeRandom.seeded(9L), MazeRandom.seeded(9L)},
+                {new XoroshiroMazeRandom(9L), new XoroshiroMazeRandom(9L)}};
+        for (MazeRandom[] pair : pairs) {
+            int[] result = new int[50];
+
+            pair[0].nextInts(result, 10, 40);
+
+            for (int i = 0; i < result.length; i++) {
+                assertEquals(i >= 10 && i < 40 ? pair[1].nextInt() : 0, result[i]);
+            }
+            assertEquals(pair[1].nextLong(), pair[0].nextLong());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void aBoundOfZeroShouldBeRejected() {
+        new XoroshiroMazeRandom(3L).nextInt(0);
+    }
+
+    private void assertSameSequence(MazeRandom expected, MazeRandom actual) {
+        for (int i = 0; i < 100; i++) {
+            assertEquals(expected.nextLong(), actual.nextLong());
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package uk.robevans;
+
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class MazeRendererTest {
+
+    private static final int OPEN_COLOUR = 0xFFFFFF;
+    private static final int WALL_COLOUR = 0x202020;
+    private static final int PATH_COLOUR = 0x4285F4;
+    private static final int MOUSE_COLOUR = 0x808080;
+    private static final int CHEESE_COLOUR = 0xFFC800;
+
+    /**
+     * 3x2, snaking right along the top row, down, and back left along the bottom row.
+     */
+    private static PackedMaze snake() {
+        PackedMaze maze = new PackedMaze(3, 2);
+        maze.open(0, Direction.RIGHT);
+        maze.open(1, Direction.RIGHT);
+        maze.open(2, Direction.DOWN);
+        maze.open(4, Direction.RIGHT);
+        maze.open(3, Direction.RIGHT);
+        return maze;
+    }
+
+    @Test
+    public void shouldDrawWallsAndPassagesAsAscii() throws IOException {
+        try (MazeRenderer testObject = new MazeRenderer()) {
+
+            String result = render(testObject, snake(), MazeRenderer.Format.ASCII);
+
+            assertEquals("#######\n"
+                    + "#     #\n"
+                    + "##### #\n"
+                    + "#     #\n"
+                    + "#######\n", result);
+        }
+    }
+
+    @Test
+    public void shouldDrawTheMouseTheCheeseAndThePathBetweenThem() throws IOException {
+        PackedMaze maze = snake();
+        MazeSolver solver = new MazeSolver(maze);
+        solver.solve(1, 4);
+        try (MazeRenderer testObject = new MazeRenderer()) {
+            testObject.setPath(solver.getPath(), solver.getPathLength());
+            testObject.setMouse(1);
+            testObject.setCheese(4);
+
+            String result = render(testObject, maze, MazeRenderer.Format.ASCII);
+
+            assertEquals("#######\n"
+                    + "#  M..#\n"
+                    + "#####.#\n"
+                    + "#  C..#\n"
+                    + "#######\n", result);
+
+            testObject.clearOverlays();
+            assertEquals(render(testObject, snake(), MazeRenderer.Format.ASCII),
+                    render(testObject, maze, MazeRenderer.Format.ASCII));
+        }
+    }
+
+    @Test
+    public void shouldJoinUpWallsWithBoxDrawing() throws IOException {
+        try (MazeRenderer testObject = new MazeRenderer()) {
+
+            String result = render(testObject, snake(), MazeRenderer.Format.UNICODE);
+
+            assertEquals("┌─────┐\n"
+                    + "│     │\n"
+                    + "├───╴ │\n"
+                    + "│     │\n"
+                    + "└─────┘\n", result);
+        }
+    }
+
+    @Test
+    public void anOpenSquareShouldLeaveOutTheCornerInTheMiddle() throws IOException {
+        PackedMaze maze = new PackedMaze(2, 2);
+        maze.open(0, Direction.RIGHT);
+        maze.open(0, Direction.DOWN);
+        maze.open(1, Direction.DOWN);
+        maze.open(2, Direction.RIGHT);
+        try (MazeRenderer testObject = new MazeRenderer()) {
+
+            assertEquals("#####\n#   #\n#   #\n#   #\n#####\n", render(testObject, maze, MazeRenderer.Format.ASCII));
+            assertEquals("┌───┐\n│   │\n│   │\n│   │\n└───┘\n", render(testObject, maze, MazeRenderer.Format.UNICODE));
+        }
+    }
+
+    @Test
+    public void aBufferSmallerThanTheDrawingShouldGiveTheSameBytes() throws IOException {
+        Maze maze = new KruskalMazeGenerator().generate(40, 30);
+        try (MazeRenderer small = new MazeRenderer(64); MazeRenderer large = new MazeRenderer(1 << 20)) {
+            for (MazeRenderer.Format format : MazeRenderer.Format.values()) {
+                assertArrayEquals(renderBytes(large, maze, format), renderBytes(small, maze, format));
+                // and again, reusing everything the first render grew
+                assertArrayEquals(renderBytes(large, maze, format), renderBytes(small, maze, format));
+            }
+        }
+    }
+
+    @Test
+    public void aRendererShouldBeReusableOnABiggerMaze() throws IOException {
+        try (MazeRenderer reused = new MazeRenderer(); MazeRenderer fresh = new MazeRenderer()) {
+            Maze big = new PrimMazeGenerator().generate(8, 8);
+            render(reused, new PrimMazeGenerator().generate(4, 4), MazeRenderer.Format.ASCII);
+
+            for (MazeRenderer.Format format : MazeRenderer.Format.values()) {
+                assertArrayEquals(renderBytes(fresh, big, format), renderBytes(reused, big, format));
+            }
+        }
+    }
+
+    @Test
+    public void shouldWriteAPngImageIoCanRead() throws IOException {
+        PackedMaze maze = snake();
+        try (MazeRenderer testObject = new MazeRenderer()) {
+            testObject.setScale(3);
+            testObject.setPath(new int[]{2, 5}, 2);
+            testObject.setMouse(0);
+            testObject.setCheese(3);
+
+            BufferedImage result = ImageIO.read(new ByteArrayInputStream(
+                    renderBytes(testObject, maze, MazeRenderer.Format.PNG)));
+
+            assertEquals(7 * 3, result.getWidth());
+            assertEquals(5 * 3, result.getHeight());
+            assertEquals(WALL_COLOUR, colourOfSpot(result, 3, 0, 0));
+            assertEquals(MOUSE_COLOUR, colourOfSpot(result, 3, 1, 1));
+            assertEquals(OPEN_COLOUR, colourOfSpot(result, 3, 2, 1));
+            assertEquals(PATH_COLOUR, colourOfSpot(result, 3, 5, 1));
+            assertEquals(PATH_COLOUR, colourOfSpot(result, 3, 5, 2));
+            assertEquals(CHEESE_COLOUR, colourOfSpot(result, 3, 1, 3));
+            assertEquals(WALL_COLOUR, colourOfSpot(result, 3, 4, 2));
+        }
+    }
+
+    @Test
+    public void aPngOfABigMazeShouldSpanSeveralImageDataChunks() throws IOException {
+        Maze maze = new PrimMazeGenerator().generate(300, 300);
+        try (MazeRenderer testObject = new MazeRenderer(1024)) {
+
+            BufferedImage result = ImageIO.read(new ByteArrayInputStream(
+                    renderBytes(testObject, maze, MazeRenderer.Format.PNG)));
+
+            for (int cell = 0; cell < maze.getCellCount(); cell += 97) {
+                int x = cell % 300;
+                int y = cell / 300;
+                int expected = maze.isOpen(cell, Direction.RIGHT) ? OPEN_COLOUR : WALL_COLOUR;
+                assertEquals(expected, colourOfSpot(result, 2, 2 * x + 2, 2 * y + 1));
+            }
+        }
+    }
+
+    @Test
+    public void shouldWriteABinaryPpmHeaderAndThreeBytesAPixel() throws IOException {
+        try (MazeRenderer testObject = new MazeRenderer()) {
+            testObject.setScale(2);
+
+            byte[] result = renderBytes(testObject, snake(), MazeRenderer.Format.PPM);
+
+            String header = "P6\n14 10\n255\n";
+            assertEquals(header, new String(result, 0, header.length(), StandardCharsets.US_ASCII));
+            assertEquals(header.length() + 14 * 10 * 3, result.length);
+        }
+    }
+
+    @Test
+    public void aPpmHeaderShouldSpellOutEveryDigitOfTheSize() throws IOException {
+        try (MazeRenderer testObject = new MazeRenderer()) {
+            testObject.setScale(5);
+
+            byte[] result = renderBytes(testObject, new PackedMaze(100, 4), MazeRenderer.Format.PPM);
+
+            String header = "P6\n1005 45\n255\n";
+            assertEquals(header, new String(result, 0, header.length(), StandardCharsets.US_ASCII));
+            assertEquals(header.length() + 1005 * 45 * 3, result.length);
+        }
+    }
+
+    @Test
+    public void aGameShouldDrawItsMouseAndCheese() throws IOException {
+        Game game = new Game(12, 8, 5L, MazeAlgorithm.KRUSKAL);
+        Maze maze = game.createAMaze();
+        Point mouse = game.getMouseLocation();
+        Point cheese = game.placeCheese(maze);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (MazeRenderer renderer = new MazeRenderer()) {
+            game.render(maze, renderer, MazeRenderer.Format.ASCII, Channels.newChannel(out));
+        }
+
+        String[] lines = out.toString(StandardCharsets.US_ASCII.name()).split("\n");
+        assertEquals('M', lines[2 * mouse.y + 1].charAt(2 * mouse.x + 1));
+        assertEquals('C', lines[2 * cheese.y + 1].charAt(2 * cheese.x + 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void aScaleBelowOnePixelShouldBeRejected() {
+        try (MazeRenderer testObject = new MazeRenderer()) {
+            testObject.setScale(0);
+        }
+    }
+
+    private static int colourOfSpot(BufferedImage image, int scale, int gridX, int gridY) {
+        return image.getRGB(gridX * scale, gridY * scale) & 0xFFFFFF;
+    }
+
+    private static String render(MazeRenderer renderer, Maze maze, MazeRenderer.Format format) throws IOException {
+        return new String(renderBytes(renderer, maze, format), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] renderBytes(MazeRenderer renderer, Maze maze, MazeRenderer.Format format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        renderer.render(maze, format, Channels.newChannel(out));
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,102 @@
+package uk.robevans;
+
+import org.junit.Test;
+
+import java.awt.Point;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MazeSolverTest {
+
+    @Test
+    public void shouldFollowTheOnlyWayThroughASnakingCorridor() {
+        // 3x3 maze snaking right along row 0, left along row 1 and right along row 2
+        PackedMaze maze = new PackedMaze(3, 3);
+        maze.open(0, Direction.RIGHT);
+        maze.open(1, Direction.RIGHT);
+        maze.open(2, Direction.DOWN);
+        maze.open(5, Direction.LEFT);
+        maze.open(4, Direction.LEFT);
+        maze.open(3, Direction.DOWN);
+        maze.open(6, Direction.RIGHT);
+        maze.open(7, Direction.RIGHT);
+        MazeSolver testObject = new MazeSolver(maze);
+
+        List<Point> result = testObject.findPath(new Point(0, 0), new Point(2, 2));
+
+        assertEquals(Arrays.asList(new Point(0, 0), new Point(1, 0), new Point(2, 0), new Point(2, 1),
+                new Point(1, 1), new Point(0, 1), new Point(0, 2), new Point(1, 2), new Point(2, 2)), result);
+    }
+
+    @Test
+    public void solvingFromACellToItselfShouldTakeNoMoves() {
+        MazeSolver testObject = new MazeSolver(new KruskalMazeGenerator().generate(5, 5));
+
+        assertEquals(0, testObject.solve(12, 12));
+        assertEquals(1, testObject.getPathLength());
+        assertEquals(12, testObject.getPath()[0]);
+    }
+
+    @Test
+    public void unreachableCellsShouldHaveNoPath() {
+        PackedMaze maze = new PackedMaze(2, 2);
+        maze.open(0, Direction.RIGHT);
+        MazeSolver testObject = new MazeSolver(maze);
+
+        assertEquals(MazeSolver.NO_PATH, testObject.solve(0, 3));
+        assertTrue(testObject.findPath(new Point(0, 0), new Point(1, 1)).isEmpty());
+    }
+
+    @Test
+    public void repeatedSolvesOnTheSameSolverShouldMatchABreadthFirstSearch() {
+        Maze maze = new WilsonMazeGenerator().generate(30, 20);
+        MazeSolver testObject = new MazeSolver(maze);
+
+        for (int goal = 0; goal < maze.getCellCount(); goal += 7) {
+            int start = (goal * 31) % maze.getCellCount();
+
+            int moves = testObject.solve(start, goal);
+
+            assertEquals(breadthFirstDistance(maze, start, goal), moves);
+            assertValidPath(maze, testObject.getPath(), testObject.getPathLength(), start, goal);
+        }
+    }
+
+    private void assertValidPath(Maze maze, int[] path, int length, int start, int goal) {
+        assertEquals(start, path[0]);
+        assertEquals(goal, path[length - 1]);
+        for (int i = 1; i < length; i++) {
+            boolean connected = false;
+            for (Direction direction : Direction.values()) {
+                connected |= maze.isOpen(path[i - 1], direction) && maze.neighbour(path[i - 1], direction) == path[i];
+            }
+            assertTrue(connected);
+        }
+    }
+
+    private int breadthFirstDistance(Maze maze, int start, int goal) {
+        int[] distances = new int[maze.getCellCount()];
+        Arrays.fill(distances, -1);
+        int[] queue = new int[maze.getCellCount()];
+        int head = 0;
+        int tail = 0;
+        distances[start] = 0;
+        queue[tail++] = start;
+        while (head < tail) {
+            int cell = queue[head++];
+            for (Direction direction : Direction.values()) {
+                if (maze.isOpen(cell, direction)) {
+                    int neighbour = maze.neighbour(cell, direction);
+                    if (distances[neighbour] < 0) {
+                        distances[neighbour] = distances[cell] + 1;
+                        queue[tail++] = neighbour;
+                    }
+                }
+            }
+        }
+        return distances[goal];
+    }
+}
@@ -0,0 +1,97 @@
+package uk.robevans;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static uk.robevans.MazeAssert.assertPerfectMaze;
+
+public class MazeSupplierTest {
+
+    private MazeSupplier testObject;
+
+    @After
+    public void tearDown() {
+        testObject.close();
+    }
+
+    @Test
+    public void preparedSizesShouldBeServedFromTheReadyMazes() throws Exception {
+        testObject = new MazeSupplier(MazeAlgorithm.KRUSKAL, 4, 1);
+        testObject.prepare(20, 15);
+        awaitReady(20, 15, 4);
+
+        Maze maze = testObject.get(20, 15);
+
+        assertPerfectMaze(maze);
+        assertEquals(20, maze.getWidth());
+        assertEquals(15, maze.getHeight());
+        assertEquals(1, testObject.getPreparedCount());
+        assertEquals(0, testObject.getBuiltOnDemandCount());
+    }
+
+    @Test
+    public void unpreparedSizesShouldBeBuiltOnTheCallingThread() {
+        testObject = new MazeSupplier(MazeAlgorithm.PRIM, 4, 1);
+
+        Maze maze = testObject.get(9, 7);
+
+        assertPerfectMaze(maze);
+        assertEquals(0, testObject.getPreparedCount());
+        assertEquals(1, testObject.getBuiltOnDemandCount());
+    }
+
+    @Test
+    public void aFullBufferShouldStopTheWorkerUntilItIsDrainedToTheWatermark() throws Exception {
+        AtomicInteger builds = new AtomicInteger();
+        testObject = new MazeSupplier((width, height, random) -> {
+            builds.incrementAndGet();
+            return new KruskalMazeGenerator().generate(width, height, random);
+        }, 8, 2);
+        testObject.prepare(6, 6);
+        awaitReady(6, 6, 8);
+        Thread.sleep(50);
+        // the worker also holds the one maze it could not hand over
+        assertEquals(9, builds.get());
+
+        for (int i = 0; i < 5; i++) {
+            testObject.get(6, 6);
+        }
+        Thread.sleep(50);
+        assertEquals(9, builds.get());
+
+        testObject.get(6, 6);
+        awaitReady(6, 6, 8);
+        assertEquals(6, testObject.getPreparedCount());
+        assertTrue(builds.get() >= 9 + 5);
+    }
+
+    @Test
+    public void gamesShouldTakeTheirMazesFromTheSupplier() throws Exception {
+        testObject = new MazeSupplier(MazeAlgorithm.WILSON, 2, 0);
+        testObject.prepare(12, 10);
+        awaitReady(12, 10, 2);
+
+        Maze maze = new Game(12, 10, new RandomPointGenerator(), testObject).createAMaze();
+
+        assertPerfectMaze(maze);
+        assertEquals(1, testObject.getPreparedCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void aWatermarkAtCapacityShouldBeRejected() {
+        testObject = new MazeSupplier(MazeAlgorithm.PRIM, 4, 1);
+        new MazeSupplier(MazeAlgorithm.PRIM, 4, 4);
+    }
+
+    private void awaitReady(int width, int height, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (testObject.getReadyCount(width, height) < count) {
+            assertTrue("timed out waiting for ready mazes", System.currentTimeMillis() < deadline);
+            Thread.sleep(1);
+        }
+    }
+}
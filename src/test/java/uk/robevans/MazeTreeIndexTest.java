@@ -0,0 +1,120 @@
+package uk.robevans;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.Point;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class MazeTreeIndexTest {
+
+    private Maze maze;
+    private MazeTreeIndex testObject;
+    private MazeSolver solver;
+
+    @Before
+    public void setUp() {
+        maze = new PrimMazeGenerator().generate(25, 18);
+        testObject = new MazeTreeIndex(maze);
+        solver = new MazeSolver(maze);
+    }
+
+    @Test
+    public void distancesShouldMatchTheAStarSolver() {
+        for (int from = 0; from < maze.getCellCount(); from += 11) {
+            for (int to = 0; to < maze.getCellCount(); to += 13) {
+                assertEquals(solver.solve(from, to), testObject.distance(from, to));
+            }
+        }
+    }
+
+    @Test
+    public void pathsShouldMatchTheAStarSolver() {
+        int[] buffer = new int[maze.getCellCount()];
+
+        for (int from = 0; from < maze.getCellCount(); from += 17) {
+            int to = maze.getCellCount() - 1 - from;
+            int length = testObject.path(from, to, buffer);
+
+            solver.solve(from, to);
+            assertEquals(solver.getPathLength(), length);
+            for (int i = 0; i < length; i++) {
+                assertEquals(solver.getPath()[i], buffer[i]);
+            }
+        }
+    }
+
+    @Test
+    public void findPathShouldReturnPointsFromTheMouseToTheCheese() {
+        List<Point> result = testObject.findPath(new Point(3, 4), new Point(20, 10));
+
+        assertEquals(solver.findPath(new Point(3, 4), new Point(20, 10)), result);
+    }
+
+    @Test
+    public void pointPathsShouldBeTheCellPathsEitherWayRound() {
+        int[] buffer = new int[maze.getCellCount()];
+
+        for (int from = 0; from < maze.getCellCount(); from += 23) {
+            int to = (from * 7 + 5) % maze.getCellCount();
+            int length = testObject.path(from, to, buffer);
+
+            List<Point> result = testObject.findPath(new Point(from % 25, from / 25), new Point(to % 25, to / 25));
+
+            assertEquals(length, result.size());
+            for (int i = 0; i < length; i++) {
+                assertEquals(new Point(buffer[i] % 25, buffer[i] / 25), result.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void aBatchOfDistancesShouldMatchAnsweringEachQueryOnItsOwn() {
+        int queries = 5000;
+        int[] from = new int[queries];
+        int[] to = new int[queries];
+        for (int i = 0; i < queries; i++) {
+            from[i] = (i * 7919) % maze.getCellCount();
+            to[i] = (i * 104729) % maze.getCellCount();
+        }
+
+        int[] result = testObject.distances(from, to);
+
+        for (int i = 0; i < queries; i++) {
+            assertEquals(testObject.distance(from[i], to[i]), result[i]);
+        }
+    }
+
+    @Test
+    public void everyMouseShouldBeMatchedWithItsNearestCheese() {
+        int[] mice = new int[3000];
+        for (int i = 0; i < mice.length; i++) {
+            mice[i] = (i * 31) % maze.getCellCount();
+        }
+        int[] cheeses = {0, 120, 333, maze.getCellCount() - 1};
+
+        int[] result = testObject.nearestCheeses(mice, cheeses);
+
+        for (int i = 0; i < mice.length; i++) {
+            int best = Integer.MAX_VALUE;
+            for (int cheese : cheeses) {
+                best = Math.min(best, testObject.distance(mice[i], cheese));
+            }
+            assertEquals(best, testObject.distance(mice[i], cheeses[result[i]]));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void aMazeWithUnreachableCellsShouldBeRejected() {
+        new MazeTreeIndex(new PackedMaze(3, 3));
+    }
+
+    @Test
+    public void theRootShouldBeItsOwnAncestor() {
+        assertEquals(0, testObject.lowestCommonAncestor(0, 0));
+        assertEquals(Arrays.asList(new Point(0, 0)), testObject.findPath(new Point(0, 0), new Point(0, 0)));
+    }
+}
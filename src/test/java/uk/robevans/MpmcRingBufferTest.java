@@ -0,0 +1,107 @@
+package uk.robevans;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MpmcRingBufferTest {
+
+    @Test
+    public void elementsShouldComeOutInTheOrderTheyWentIn() {
+        MpmcRingBuffer<Integer> testObject = new MpmcRingBuffer<>(4);
+
+        for (int lap = 0; lap < 3; lap++) {
+            for (int i = 0; i < 4; i++) {
+                assertTrue(testObject.offer(lap * 4 + i));
+            }
+            for (int i = 0; i < 4; i++) {
+                assertEquals(lap * 4 + i, (int) testObject.poll());
+            }
+        }
+        assertNull(testObject.poll());
+    }
+
+    @Test
+    public void aFullBufferShouldRefuseOffers() {
+        MpmcRingBuffer<String> testObject = new MpmcRingBuffer<>(2);
+
+        assertTrue(testObject.offer("a"));
+        assertTrue(testObject.offer("b"));
+        assertFalse(testObject.offer("c"));
+        assertEquals(2, testObject.size());
+
+        testObject.poll();
+        assertTrue(testObject.offer("c"));
+    }
+
+    @Test
+    public void capacityShouldRoundUpToAPowerOfTwo() {
+        assertEquals(1, new MpmcRingBuffer<>(1).capacity());
+        assertEquals(4, new MpmcRingBuffer<>(3).capacity());
+        assertEquals(8, new MpmcRingBuffer<>(8).capacity());
+        assertEquals(16, new MpmcRingBuffer<>(9).capacity());
+    }
+
+    @Test
+    public void concurrentProducersAndConsumersShouldNeitherLoseNorRepeatElements() throws Exception {
+        int producers = 3;
+        int perProducer = 20_000;
+        MpmcRingBuffer<Integer> testObject = new MpmcRingBuffer<>(64);
+        ExecutorService executor = Executors.newFixedThreadPool(producers + 2);
+        try {
+            for (int p = 0; p < producers; p++) {
+                int first = p * perProducer;
+                executor.submit(() -> {
+                    for (int i = first; i < first + perProducer; i++) {
+                        while (!testObject.offer(i)) {
+                            Thread.yield();
+                        }
+                    }
+                });
+            }
+            List<Future<BitSet>> consumers = new ArrayList<>();
+            for (int c = 0; c < 2; c++) {
+                int share = producers * perProducer / 2;
+                consumers.add(executor.submit(() -> {
+                    BitSet seen = new BitSet();
+                    for (int taken = 0; taken < share; ) {
+                        Integer element = testObject.poll();
+                        if (element == null) {
+                            Thread.yield();
+                        } else {
+                            assertFalse(seen.get(element));
+                            seen.set(element);
+                            taken++;
+                        }
+                    }
+                    return seen;
+                }));
+            }
+
+            BitSet seen = consumers.get(0).get(30, TimeUnit.SECONDS);
+            BitSet other = consumers.get(1).get(30, TimeUnit.SECONDS);
+            assertFalse(seen.intersects(other));
+            seen.or(other);
+            assertEquals(producers * perProducer, seen.cardinality());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(testObject.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void anEmptyBufferShouldBeRejected() {
+        new MpmcRingBuffer<>(0);
+    }
+}
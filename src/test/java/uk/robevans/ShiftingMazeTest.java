@@ -0,0 +1,117 @@
+package uk.robevans;
+
+import org.junit.Test;
+
+import java.awt.Point;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ShiftingMazeTest {
+
+    @Test
+    public void theMazeShouldStayPerfectAndItsDistancesRightThroughAnyMixOfChanges() {
+        ShiftingMaze testObject = new ShiftingMaze(new KruskalMazeGenerator().generate(15, 12));
+        MazeRandom random = MazeRandom.seeded(6);
+
+        for (int round = 0; round < 300; round++) {
+            int cell = random.nextInt(testObject.getCellCount());
+            Direction direction = Direction.values()[random.nextInt(4)];
+            switch (round % 3) {
+                case 0:
+                    testObject.openWall(cell, direction, random);
+                    break;
+                case 1:
+                    testObject.closeWall(cell, direction, random);
+                    break;
+                default:
+                    testObject.shift(random);
+                    break;
+            }
+            if (round % 20 == 0) {
+                MazeAssert.assertPerfectMaze(testObject);
+                assertDistancesMatchASolver(testObject, random);
+            }
+        }
+        MazeAssert.assertPerfectMaze(testObject);
+        assertTrue(testObject.getChangeCount() > 150);
+    }
+
+    @Test
+    public void openingAWallShouldCloseExactlyOneOtherOnTheLoop() {
+        Maze perfect = new PrimMazeGenerator().generate(10, 10);
+        ShiftingMaze testObject = new ShiftingMaze(perfect);
+        Direction direction = Direction.RIGHT;
+        int cell = 0;
+        while (perfect.isOpen(cell, direction) || perfect.neighbour(cell, direction) < 0) {
+            cell++;
+        }
+        int neighbour = testObject.neighbour(cell, direction);
+        int loopBefore = new MazeSolver(perfect).solve(cell, neighbour);
+
+        assertTrue(testObject.openWall(new Point(cell % 10, cell / 10), direction, MazeRandom.seeded(2)));
+
+        assertTrue(testObject.isOpen(cell, direction));
+        assertEquals(1, testObject.distance(cell, neighbour));
+        int changed = 0;
+        for (int other = 0; other < perfect.getCellCount(); other++) {
+            for (Direction side : new Direction[]{Direction.RIGHT, Direction.DOWN}) {
+                if (perfect.isOpen(other, side) != testObject.isOpen(other, side)) {
+                    changed++;
+                }
+            }
+        }
+        assertEquals(2, changed);
+        assertTrue(loopBefore >= 3);
+    }
+
+    @Test
+    public void nothingShouldChangeWhereThereIsNoWallToMove() {
+        ShiftingMaze testObject = new ShiftingMaze(new KruskalMazeGenerator().generate(6, 6));
+        MazeRandom random = MazeRandom.seeded(1);
+
+        assertFalse(testObject.openWall(0, Direction.UP, random));
+        assertFalse(testObject.closeWall(0, Direction.LEFT, random));
+        Direction openSide = testObject.isOpen(0, Direction.RIGHT) ? Direction.RIGHT : Direction.DOWN;
+        assertFalse(testObject.openWall(0, openSide, random));
+        assertEquals(0, testObject.getChangeCount());
+    }
+
+    @Test
+    public void aCorridorShouldKeepEveryPassage() {
+        ShiftingMaze testObject = new ShiftingMaze(new KruskalMazeGenerator().generate(1, 8));
+        MazeRandom random = MazeRandom.seeded(1);
+
+        assertFalse(testObject.closeWall(3, Direction.DOWN, random));
+        testObject.shift(random);
+
+        assertTrue(testObject.isOpen(3, Direction.DOWN));
+        assertEquals(7, testObject.distance(0, 7));
+        assertEquals(Direction.DOWN, testObject.nextStep(0, 7));
+        assertNull(testObject.nextStep(4, 4));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mazesWithLoopsShouldBeRejected() {
+        PackedMaze maze = new PackedMaze(2, 2);
+        maze.open(0, Direction.RIGHT);
+        maze.open(0, Direction.DOWN);
+        maze.open(1, Direction.DOWN);
+        maze.open(2, Direction.RIGHT);
+        new ShiftingMaze(maze);
+    }
+
+    private static void assertDistancesMatchASolver(ShiftingMaze maze, MazeRandom random) {
+        MazeSolver solver = new MazeSolver(maze);
+        for (int i = 0; i < 20; i++) {
+            int from = random.nextInt(maze.getCellCount());
+            int to = random.nextInt(maze.getCellCount());
+            assertEquals(solver.solve(from, to), maze.distance(from, to));
+            if (from != to) {
+                assertEquals(solver.getPath()[1], maze.neighbour(from, maze.nextStep(from, to)));
+            }
+        }
+    }
+}
@@ -4,8 +4,12 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.awt.*;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -19,7 +23,107 @@ public class SpanningTreeTest {
     @Before
     public void setUp() {
         testObject = new SpanningTree();
+        testObject.init(TEST_MATRIX);
+    }
+
+    @Test
+    public void buildingShouldProcessEveryNodeExactlyOnce() {
         testObject.build(TEST_MATRIX);
+
+        assertEquals(25, testObject.getProcessedPoints().size());
+        assertEquals(25, new HashSet<>(testObject.getProcessedPoints()).size());
+        assertEquals(0, testObject.getPointsToProcess().size());
+    }
+
+    @Test
+    public void theRowFillShouldGiveTheSameWeightsAsWeighingCellByCell() {
+        int[][] sizes = {{5, 5}, {2, 2}, {33, 7}, {64, 3}, {3, 65}};
+        for (int[] size : sizes) {
+            SpanningTree rowByRow = new SpanningTree(MazeRandom.seeded(17));
+            SpanningTree cellByCell = new SpanningTree(MazeRandom.seeded(17));
+            rowByRow.init(size[0], size[1]);
+            cellByCell.init(size[0], size[1]);
+
+            rowByRow.initEdgeMap();
+            cellByCell.initEdgeMapCellByCell();
+
+            GridGraph result = rowByRow.getGraph();
+            GridGraph expected = cellByCell.getGraph();
+            assertEquals(expected.getInitialisedCount(), result.getInitialisedCount());
+            for (int cell = 0; cell < expected.getCellCount(); cell++) {
+                assertTrue(result.isInitialised(cell));
+                for (Direction direction : Direction.values()) {
+                    if (expected.hasNeighbour(cell, direction)) {
+                        assertEquals(expected.getWeight(cell, direction), result.getWeight(cell, direction));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void buildingShouldConnectEveryNodeWithOneFewerPassageThanNodes() {
+        testObject.build(TEST_MATRIX);
+
+        Map<Point, List<Point>> mazePaths = testObject.getMazePaths();
+        int passageEnds = 0;
+        for (List<Point> connectedPoints : mazePaths.values()) {
+            passageEnds += connectedPoints.size();
+        }
+
+        assertEquals(25, mazePaths.size());
+        // each passage is listed from both ends, and a spanning tree over 25 nodes has 24 edges
+        assertEquals(48, passageEnds);
+    }
+
+    @Test
+    public void buildingShouldLeaveNoCellUnreachable() {
+        testObject.build(TEST_MATRIX);
+        Map<Point, List<Point>> mazePaths = testObject.getMazePaths();
+
+        Set<Point> reached = new HashSet<>();
+        Deque<Point> toExplore = new ArrayDeque<>();
+        toExplore.add(new Point(0, 0));
+        while (!toExplore.isEmpty()) {
+            Point point = toExplore.poll();
+            if (reached.add(point)) {
+                toExplore.addAll(mazePaths.get(point));
+            }
+        }
+
+        assertEquals(25, reached.size());
+    }
+
+    @Test
+    public void everyPassageInTheMazeShouldBeTheCheapestEdgeAcrossTheTreeFrontierWhenItWasAdded() {
+        testObject.build(TEST_MATRIX);
+        GridGraph graph = testObject.getGraph();
+        List<Point> processed = testObject.getProcessedPoints();
+        Set<Integer> inTree = new HashSet<>();
+        inTree.add(graph.index(processed.get(0).x, processed.get(0).y));
+
+        for (int i = 1; i < processed.size(); i++) {
+            int cheapest = Integer.MAX_VALUE;
+            for (int cell : inTree) {
+                for (Direction direction : Direction.values()) {
+                    int neighbour = graph.neighbour(cell, direction);
+                    if (neighbour >= 0 && !inTree.contains(neighbour)) {
+                        cheapest = Math.min(cheapest, graph.getWeight(cell, direction));
+                    }
+                }
+            }
+            int added = graph.index(processed.get(i).x, processed.get(i).y);
+            int joiningWeight = Integer.MAX_VALUE;
+            for (Direction direction : Direction.values()) {
+                int neighbour = graph.neighbour(added, direction);
+                if (neighbour >= 0 && inTree.contains(neighbour) && graph.isOpen(added, direction)) {
+                    joiningWeight = graph.getWeight(added, direction);
+                }
+            }
+
+            assertEquals(cheapest, joiningWeight);
+            inTree.add(added);
+        }
     }
 
     @Test
@@ -76,6 +180,16 @@ public class SpanningTreeTest {
         assertEquals(0, testObject.getProcessedPoints().size());
     }
 
+    @Test
+    public void cellsShouldStillBeVisitableAfterAReset() {
+        testObject.resetState();
+
+        testObject.visit(new Point(1, 1));
+
+        assertTrue(testObject.isVisited(new Point(1, 1)));
+        assertEquals(0, testObject.getAllTreeNodes().size());
+    }
+
     @Test
     public void shouldBeAbleToDetermineTopLeftCorner() {
         assertTrue(testObject.isTopLeftCorner(new Point(0, 0)));
@@ -444,6 +558,36 @@ public class SpanningTreeTest {
         assertEquals(24, testObject.getPointsToProcess().size());
     }
 
+    @Test
+    public void visitingTheSameNodeTwiceShouldOnlyCountItOnce() {
+        createFullyConnectedGraph();
+
+        testObject.visit(new Point(2, 2));
+        testObject.visit(new Point(2, 2));
+
+        assertEquals(1, testObject.getVisitedNodes().size());
+        assertEquals(24, testObject.getPointsToProcess().size());
+    }
+
+    @Test
+    public void visitedNodesShouldBeRemovedFromThePointsToProcessWhicheverOrderTheyAreVisitedIn() {
+        createFullyConnectedGraph();
+
+        testObject.visit(new Point(0, 0));
+        testObject.visit(new Point(4, 4));
+        testObject.visit(new Point(2, 3));
+
+        List<Point> pointsToProcess = testObject.getPointsToProcess();
+        assertEquals(22, pointsToProcess.size());
+        assertFalse(pointsToProcess.contains(new Point(0, 0)));
+        assertFalse(pointsToProcess.contains(new Point(4, 4)));
+        assertFalse(pointsToProcess.contains(new Point(2, 3)));
+        assertTrue(pointsToProcess.contains(new Point(3, 2)));
+        assertEquals(22, new HashSet<>(pointsToProcess).size());
+        assertTrue(testObject.getVisitedNodes().contains(new Point(2, 3)));
+        assertFalse(testObject.getVisitedNodes().contains(new Point(3, 2)));
+    }
+
     @Test
     public void addingANodeShouldAddTheCompleteListOfNowAccessibleButUnconnectedNodes() {
         createFullyConnectedGraph();
@@ -453,6 +597,13 @@ public class SpanningTreeTest {
         assertEquals(2, testObject.getUnvisitedNeighbouringNodes().size());
     }
 
+    @Test(expected = UnsupportedOperationException.class)
+    public void theUnvisitedNeighboursShouldBeReadOnly() {
+        testObject.visit(new Point(0, 0));
+
+        testObject.getUnvisitedNeighbouringNodes().clear();
+    }
+
     @Test
     public void addFirstEdgeAndConnectedNodeToMSTAndVisitedNodesByPickingTheOneWithTheShortestDistanceToTheNodeToProcess() {
         // Could mock generating the min distance for one of the edges to clean up this test but this more lengthy version also works
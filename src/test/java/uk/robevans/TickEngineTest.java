@@ -0,0 +1,116 @@
+package uk.robevans;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+public class TickEngineTest {
+
+    private Maze small;
+    private Maze large;
+    private TickEngine testObject;
+
+    @Before
+    public void setUp() {
+        small = new KruskalMazeGenerator().generate(8, 6, MazeRandom.seeded(1L));
+        large = new WilsonMazeGenerator().generate(40, 30, MazeRandom.seeded(2L));
+        testObject = new TickEngine();
+    }
+
+    @Test
+    public void movesShouldOnlyTakeEffectWhenTheTickRuns() {
+        int player = testObject.addPlayer(small, new Point(0, 0));
+        Direction open = small.isOpen(0, Direction.RIGHT) ? Direction.RIGHT : Direction.DOWN;
+
+        testObject.submit(player, open);
+        assertEquals(0, testObject.getSnapshot().getPlayerCount());
+
+        TickEngine.Snapshot snapshot = testObject.tick();
+        assertEquals(1, snapshot.getTick());
+        assertEquals(small.neighbour(0, open), snapshot.getMouseCell(player));
+        assertEquals(snapshot, testObject.getSnapshot());
+    }
+
+    @Test
+    public void batchedMovesShouldMatchPlayingEachSessionOneMoveAtATime() {
+        List<GameSession> sessions = new ArrayList<>();
+        MazeRandom random = MazeRandom.seeded(9L);
+        for (int i = 0; i < 200; i++) {
+            Maze maze = i % 3 == 0 ? small : large;
+            Point start = new Point(random.nextInt(maze.getWidth()), random.nextInt(maze.getHeight()));
+            assertEquals(i, testObject.addPlayer(maze, start));
+            sessions.add(new GameSession(maze, start));
+        }
+
+        long blocked = 0;
+        for (int tick = 0; tick < 30; tick++) {
+            for (int move = 0; move < 500; move++) {
+                int player = random.nextInt(sessions.size());
+                Direction direction = Direction.VALUES[random.nextInt(4)];
+                testObject.submit(player, direction);
+                if (!sessions.get(player).move(direction)) {
+                    blocked++;
+                }
+            }
+            TickEngine.Snapshot snapshot = testObject.tick();
+            for (int player = 0; player < sessions.size(); player++) {
+                assertEquals(sessions.get(player).getMouseCell(), snapshot.getMouseCell(player));
+            }
+        }
+
+        assertEquals(30, testObject.getTickCount());
+        assertEquals(30 * 500, testObject.getMovesProcessed());
+        assertEquals(blocked, testObject.getMovesBlocked());
+        assertTrue(testObject.getMovesPerSecond() > 0);
+        assertTrue(testObject.getMaxTickNanos() >= testObject.getLastTickNanos());
+    }
+
+    @Test
+    public void everyTickShouldPublishANewSnapshot() {
+        testObject.addPlayer(small, new Point(1, 1));
+
+        TickEngine.Snapshot first = testObject.tick();
+        TickEngine.Snapshot second = testObject.tick();
+
+        assertNotSame(first, second);
+        assertEquals(small.index(1, 1), first.getMouseCell(0));
+        assertEquals(0, testObject.getMovesProcessed());
+    }
+
+    @Test
+    public void submittingFromManyThreadsShouldLoseNoMoves() throws Exception {
+        int player = testObject.addPlayer(large, new Point(0, 0));
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 5000; i++) {
+                    testObject.submit(player, Direction.UP);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        while (threads.stream().anyMatch(Thread::isAlive)) {
+            testObject.tick();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        testObject.tick();
+
+        assertEquals(20_000, testObject.getMovesProcessed());
+        assertEquals(20_000, testObject.getMovesBlocked());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void movesForUnknownPlayersShouldBeRejected() {
+        testObject.submit(0, Direction.UP);
+    }
+}
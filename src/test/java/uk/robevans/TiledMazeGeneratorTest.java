@@ -0,0 +1,48 @@
+package uk.robevans;
+
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static uk.robevans.MazeAssert.assertPerfectMaze;
+
+public class TiledMazeGeneratorTest {
+
+    @Test
+    public void stitchedTilesShouldFormOnePerfectMaze() {
+        TiledMazeGenerator testObject = new TiledMazeGenerator(new KruskalMazeGenerator(), 8, ForkJoinPool.commonPool());
+
+        assertPerfectMaze(testObject.generate(64, 64));
+        // tiles that don't divide the grid evenly leave narrow tiles along the right and bottom edges
+        assertPerfectMaze(testObject.generate(67, 41));
+        assertPerfectMaze(testObject.generate(9, 100));
+    }
+
+    @Test
+    public void anyGeneratorShouldBeUsableForTheTiles() {
+        for (MazeAlgorithm algorithm : MazeAlgorithm.values()) {
+            TiledMazeGenerator testObject = new TiledMazeGenerator(algorithm.newGenerator(), 5, new ForkJoinPool(3));
+
+            assertPerfectMaze(testObject.generate(23, 18));
+        }
+    }
+
+    @Test
+    public void theSameSeedShouldGiveTheSameMazeWhateverThePoolSize() {
+        Maze first = new TiledMazeGenerator(new WilsonMazeGenerator(), 16, new ForkJoinPool(1))
+                .generate(100, 70, MazeRandom.seeded(3L));
+        Maze second = new TiledMazeGenerator(new WilsonMazeGenerator(), 16, new ForkJoinPool(4))
+                .generate(100, 70, MazeRandom.seeded(3L));
+
+        for (int cell = 0; cell < first.getCellCount(); cell++) {
+            assertEquals(first.isOpen(cell, Direction.RIGHT), second.isOpen(cell, Direction.RIGHT));
+            assertEquals(first.isOpen(cell, Direction.DOWN), second.isOpen(cell, Direction.DOWN));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void emptyTilesShouldBeRejected() {
+        new TiledMazeGenerator(new KruskalMazeGenerator(), 0, ForkJoinPool.commonPool());
+    }
+}
@@ -0,0 +1,127 @@
+package uk.robevans;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import static org.junit.Assert.assertEquals;
+
+public class WeightedMazeSolverTest {
+
+    @Test
+    public void onAPerfectMazeItShouldAgreeWithTheTreeSolver() {
+        Maze maze = new PrimMazeGenerator().generate(25, 25);
+        MazeSolver treeSolver = new MazeSolver(maze);
+        WeightedMazeSolver testObject = new WeightedMazeSolver(DirectedMaze.of(maze));
+
+        for (int goal = 0; goal < maze.getCellCount(); goal += 11) {
+            int start = (goal * 17) % maze.getCellCount();
+            assertEquals(treeSolver.solve(start, goal), testObject.solve(start, goal));
+            assertEquals(treeSolver.getPathLength(), testObject.getPathLength());
+        }
+    }
+
+    @Test
+    public void aOneWayPassageShouldOnlyBeWalkedOneWay() {
+        DirectedMaze maze = new DirectedMaze(2, 1);
+        maze.openOneWay(0, Direction.RIGHT);
+        WeightedMazeSolver testObject = new WeightedMazeSolver(maze);
+
+        assertEquals(1, testObject.solve(0, 1));
+        assertEquals(WeightedMazeSolver.NO_PATH, testObject.solve(1, 0));
+    }
+
+    @Test
+    public void itShouldTakeTheLongWayRoundWhenTheShortWayIsHeavier() {
+        // a 2x2 loop where stepping straight right costs 5 and going down, across and up costs 3
+        DirectedMaze maze = new DirectedMaze(2, 2);
+        maze.open(0, Direction.RIGHT);
+        maze.open(0, Direction.DOWN);
+        maze.open(2, Direction.RIGHT);
+        maze.open(1, Direction.DOWN);
+        maze.setWeight(0, Direction.RIGHT, 5);
+        WeightedMazeSolver testObject = new WeightedMazeSolver(maze);
+
+        assertEquals(3, testObject.solve(0, 1));
+        assertEquals(Arrays.asList(0, 2, 3, 1), pathOf(testObject));
+        assertEquals(1, testObject.solve(1, 0));
+    }
+
+    @Test
+    public void aStarAndDijkstraShouldMatchAReferenceSearchOnBraidedOneWayMazes() {
+        Maze perfect = new KruskalMazeGenerator().generate(30, 20);
+        DirectedMaze maze = new MazeBraider(0.7, 0.5, 12).braid(perfect, MazeRandom.seeded(8));
+        WeightedMazeSolver testObject = new WeightedMazeSolver(maze);
+
+        for (int start = 0; start < maze.getCellCount(); start += 53) {
+            int[] expected = referenceCosts(maze, start);
+            assertEquals(maze.getCellCount(), testObject.solveFrom(start));
+            for (int goal = 0; goal < maze.getCellCount(); goal++) {
+                assertEquals(expected[goal], testObject.getCost(goal));
+            }
+            for (int goal = 0; goal < maze.getCellCount(); goal += 7) {
+                int cost = testObject.solve(start, goal);
+                assertEquals(expected[goal], cost);
+                assertEquals(cost, walk(maze, testObject));
+            }
+        }
+    }
+
+    private static List<Integer> pathOf(WeightedMazeSolver solver) {
+        Integer[] cells = new Integer[solver.getPathLength()];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = solver.getPath()[i];
+        }
+        return Arrays.asList(cells);
+    }
+
+    /**
+     * @return the total weight of the solver's last path, checking every step of it is an open exit
+     */
+    private static int walk(DirectedMaze maze, WeightedMazeSolver solver) {
+        int total = 0;
+        for (int i = 1; i < solver.getPathLength(); i++) {
+            int from = solver.getPath()[i - 1];
+            int to = solver.getPath()[i];
+            Direction step = null;
+            for (Direction direction : Direction.values()) {
+                if (maze.isOpen(from, direction) && maze.neighbour(from, direction) == to) {
+                    step = direction;
+                }
+            }
+            if (step == null) {
+                throw new AssertionError("No open exit from " + from + " to " + to);
+            }
+            total += maze.getWeight(from, step);
+        }
+        return total;
+    }
+
+    private static int[] referenceCosts(DirectedMaze maze, int start) {
+        int[] costs = new int[maze.getCellCount()];
+        Arrays.fill(costs, Integer.MAX_VALUE);
+        costs[start] = 0;
+        PriorityQueue<long[]> queue = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+        queue.add(new long[]{0, start});
+        while (!queue.isEmpty()) {
+            long[] entry = queue.poll();
+            int cell = (int) entry[1];
+            if (entry[0] > costs[cell]) {
+                continue;
+            }
+            for (Direction direction : Direction.values()) {
+                if (maze.isOpen(cell, direction)) {
+                    int neighbour = maze.neighbour(cell, direction);
+                    int cost = costs[cell] + maze.getWeight(cell, direction);
+                    if (cost < costs[neighbour]) {
+                        costs[neighbour] = cost;
+                        queue.add(new long[]{cost, neighbour});
+                    }
+                }
+            }
+        }
+        return costs;
+    }
+}